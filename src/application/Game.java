@@ -148,6 +148,13 @@ public class Game extends ApplicationListener {
 	}
 	
 	
+	@Override
+	protected boolean needsRedraw() {
+		
+		return scenes.needsRedraw();
+	}
+	
+	
 	@Override
 	protected void onDestroy() {
 		
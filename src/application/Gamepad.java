@@ -1,6 +1,7 @@
 package application;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 
 import core.InputManager;
@@ -25,12 +26,19 @@ public class Gamepad {
 	 * when determining the direction */
 	static private final float STICK_DELTA = 0.5f;
 	
+	/** Action names, the index is the action ID */
+	static private List<String> actionNames = new ArrayList<String> ();
+	/** Action IDs by name */
+	static private HashMap<String, Integer> actionIDs = new HashMap<String, Integer> ();
+	
 	
 	/** Gamepad button */
 	private final class Button {
 		
 		/** Name */
 		public String name;
+		/** Action ID */
+		public int action;
 		/** Key */
 		public int key;
 		/** Joystick button */
@@ -47,6 +55,7 @@ public class Gamepad {
 		public Button(String name, int key, int button) {
 			
 			this.name = name;
+			this.action = getAction(name);
 			this.key = key;
 			this.button = button;
 			this.state = State.Up;
@@ -56,11 +65,15 @@ public class Gamepad {
 	
 	/** A list of buttons */
 	private List<Button> buttons;
+	/** Action states, the index is the action ID */
+	private State[] actionStates;
 	
 	/** "Analogue" stick */
 	private Vector2 stick;
 	/** Stick delta */
 	private Vector2 delta;
+	/** Stick in the previous frame */
+	private Vector2 oldStick;
 	
 	/** Gamepad direction*/
 	private Direction dir = Direction.None;
@@ -95,6 +108,50 @@ public class Gamepad {
 	}
 	
 	
+	/**
+	 * Get the priority of a state, when the
+	 * states of several buttons are combined
+	 * @param s State
+	 * @return Priority
+	 */
+	static private int getStatePriority(State s) {
+		
+		// If one button is held down, pressing another
+		// one bound to the same action does nothing
+		switch(s) {
+		
+		case Down:
+			return 3;
+		case Pressed:
+			return 2;
+		case Released:
+			return 1;
+		default:
+			return 0;
+		}
+	}
+	
+	
+	/**
+	 * Get an action ID. IDs are dense and the same 
+	 * for every game pad, so they can be stored 
+	 * once, e.g. in a static field
+	 * @param name Action name
+	 * @return Action ID
+	 */
+	static public int getAction(String name) {
+		
+		Integer id = actionIDs.get(name);
+		if(id == null) {
+			
+			id = actionNames.size();
+			actionNames.add(name);
+			actionIDs.put(name, id);
+		}
+		return id;
+	}
+	
+	
 	/**
 	 * Constructor
 	 */
@@ -102,8 +159,10 @@ public class Gamepad {
 		
 		// Initialize components
 		buttons = new ArrayList<Button> ();
+		actionStates = new State[0];
 		stick = new Vector2();
 		delta = new Vector2();
+		oldStick = new Vector2();
 	}
 	
 	
@@ -156,11 +215,33 @@ public class Gamepad {
 
 		final float JOY_DELTA = 0.1f;
 		
+		// If nothing has changed, neither have the
+		// button states or the stick
+		if(input.isIdle()) {
+			
+			delta.x = 0.0f;
+			delta.y = 0.0f;
+			anyPressed = false;
+			return;
+		}
+		
 		// Store old stick state
-		Vector2 oldStick = stick.clone();
+		oldStick.x = stick.x;
+		oldStick.y = stick.y;
+		
+		// Make room for new actions
+		if(actionStates.length < actionNames.size()) {
+			
+			actionStates = new State[actionNames.size()];
+		}
+		for(int i = 0; i < actionStates.length; ++ i) {
+			
+			actionStates[i] = State.Up;
+		}
 		
 		// Go through every button and update
-		// state
+		// state. An action gets the state of the
+		// button bound to it with the highest priority
 		Button b;
 		for(int i = 0; i < buttons.size(); ++ i) {
 			
@@ -170,6 +251,9 @@ public class Gamepad {
 				
 				b.state = input.getButtonState(b.button);
 			}
+			
+			if(getStatePriority(b.state) > getStatePriority(actionStates[b.action]))
+				actionStates[b.action] = b.state;
 		}
 		
 		// Update stick
@@ -236,21 +320,29 @@ public class Gamepad {
 	
 	
 	/**
-	 * Get a button state by button name
+	 * Get an action state
+	 * @param action Action ID
+	 * @return Action state
+	 */
+	public State getActionState(int action) {
+		
+		// Not updated since the action was added
+		if(action >= actionStates.length)
+			return State.Up;
+		
+		return actionStates[action];
+	}
+	
+	
+	/**
+	 * Get a button state by button name. Prefer
+	 * action IDs, this needs to look the name up
 	 * @param name Button name
 	 * @return Button state
 	 */
 	public State getButtonByName(String name) {
 		
-		// Find the button with corresponding name.
-		// If does not exist, return up
-		for(Button b : buttons) {
-			
-			if(name.equals(b.name))
-				return b.state;
-		}
-		
-		return State.Up;
+		return getActionState(getAction(name));
 	}
 	
 	
@@ -284,6 +376,17 @@ public class Gamepad {
 	}
 	
 	
+	/**
+	 * Has there been any input during the frame, i.e.
+	 * a key or button pressed or the stick moved
+	 * @return True, if any input
+	 */
+	public boolean hasInput() {
+		
+		return anyPressed || delta.x != 0.0f || delta.y != 0.0f;
+	}
+	
+	
 	/**
 	 * If any key or button was pressed during the frame
 	 * @return True, if pressed
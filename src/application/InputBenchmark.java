@@ -0,0 +1,173 @@
+package application;
+
+import static org.lwjgl.glfw.GLFW.*;
+
+import core.InputManager;
+import core.State;
+
+/**
+ * Times the input work of a tick (processEvents,
+ * Gamepad.update and InputManager.update) before and
+ * after only the changed states were updated. The old
+ * behaviour is reproduced with an input manager that is
+ * never idle, and that walks state arrays of the full
+ * size like the old update did. Run with the resource
+ * folder in the class path:
+ * InputBenchmark [ticks]
+ * @author Jani Nykänen
+ *
+ */
+public class InputBenchmark {
+
+	/** Ticks run before measuring, so the JIT has
+	 *  compiled every path */
+	static private final int WARMUP_TICKS = 1000000;
+	/** Keys changed in a busy tick */
+	static private final int[] KEYS = new int[] {
+		GLFW_KEY_RIGHT, GLFW_KEY_UP, GLFW_KEY_SPACE, GLFW_KEY_R
+	};
+	
+	
+	/**
+	 * Input manager that behaves like the one before
+	 * only the changed states were updated
+	 */
+	static private class OldInputManager extends InputManager {
+		
+		/** Key states, as large as the real ones */
+		private State[] keyStates = new State[GLFW_KEY_LAST];
+		/** Joystick button states */
+		private State[] joyStates = new State[MAX_JOY_BUTTON];
+		
+		
+		/**
+		 * Update a state array, as the old update did
+		 * @param arr State array
+		 */
+		private void updateStateArray(State[] arr) {
+			
+			for(int i = 0; i < arr.length; ++ i) {
+				
+				if(arr[i] == State.Pressed)
+					arr[i] = State.Down;
+					
+				else if(arr[i] == State.Released)
+					arr[i] = State.Up;
+			}
+		}
+		
+		
+		/**
+		 * Constructor
+		 */
+		public OldInputManager() {
+			
+			for(int i = 0; i < keyStates.length; ++ i)
+				keyStates[i] = State.Up;
+			for(int i = 0; i < joyStates.length; ++ i)
+				joyStates[i] = State.Up;
+		}
+		
+		
+		@Override
+		public void update() {
+			
+			updateStateArray(keyStates);
+			updateStateArray(joyStates);
+			
+			// The real states still need to advance, this
+			// adds the cost of the new update as well
+			super.update();
+		}
+		
+		
+		@Override
+		public boolean isIdle() {
+			
+			// The gamepad used to update every tick
+			return false;
+		}
+	}
+	
+	
+	/**
+	 * Run ticks
+	 * @param input Input manager
+	 * @param pad Gamepad
+	 * @param ticks Amount of ticks
+	 * @param busy Are keys pressed and released on
+	 * every other tick
+	 * @return Time per tick, in nanoseconds
+	 */
+	static private double run(InputManager input, Gamepad pad, int ticks, boolean busy) {
+		
+		long t = System.nanoTime();
+		for(int i = 0; i < ticks; ++ i) {
+			
+			if(busy) {
+				
+				for(int k : KEYS) {
+					
+					if(i % 2 == 0)
+						input.onKeyPressed(k);
+					else
+						input.onKeyReleased(k);
+				}
+			}
+			
+			input.processEvents();
+			pad.update(input);
+			input.update();
+		}
+		return (System.nanoTime() - t) / (double)ticks;
+	}
+	
+	
+	/**
+	 * Run the benchmark
+	 * @param args Amount of ticks
+	 * @throws Exception If something goes wrong
+	 */
+	static public void main(String[] args) throws Exception {
+		
+		int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+		
+		InputManager[] inputs = new InputManager[] {
+			new OldInputManager(), new InputManager()
+		};
+		Gamepad[] pads = new Gamepad[2];
+		for(int i = 0; i < pads.length; ++ i) {
+			
+			pads[i] = new Gamepad();
+			pads[i].parseXML("keyconfig.xml");
+		}
+		
+		// Both must see the same states
+		int fire = Gamepad.getAction("fire1");
+		for(int i = 0; i < pads.length; ++ i) {
+			
+			run(inputs[i], pads[i], 1, true);
+			if(pads[i].getActionState(fire) != State.Pressed)
+				throw new RuntimeException("The key press was not seen");
+				
+			run(inputs[i], pads[i], 1, false);
+			if(pads[i].getActionState(fire) != State.Down)
+				throw new RuntimeException("The key was not held down");
+		}
+		
+		double[] idle = new double[2];
+		double[] busy = new double[2];
+		for(int i = 0; i < pads.length; ++ i) {
+			
+			run(inputs[i], pads[i], WARMUP_TICKS, false);
+			run(inputs[i], pads[i], WARMUP_TICKS, true);
+			
+			idle[i] = run(inputs[i], pads[i], ticks, false);
+			busy[i] = run(inputs[i], pads[i], ticks, true);
+		}
+		
+		System.out.printf("%d ticks, %d keys changing in a busy tick\n", ticks, KEYS.length);
+		System.out.printf("Idle tick: %.1f ns before, %.1f ns after\n", idle[0], idle[1]);
+		System.out.printf("Busy tick: %.1f ns before, %.1f ns after\n", busy[0], busy[1]);
+	}
+}
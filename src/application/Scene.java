@@ -50,6 +50,18 @@ public abstract class Scene {
 	public abstract void changeTo();
 	
 	
+	/**
+	 * Does the scene look different than when it was
+	 * drawn the last time. Scenes that do not keep
+	 * track of it are always drawn
+	 * @return True, if needs to be drawn
+	 */
+	public boolean needsRedraw() {
+		
+		return true;
+	}
+	
+	
 	/**
 	 * Get scene name
 	 * @return Name
@@ -24,6 +24,8 @@ public class SceneManager extends Scene {
 	
 	/** Global scene */
 	private Scene global;
+	/** Has the scene changed since the previous draw */
+	private boolean sceneChanged = true;
 	
 	
 	/**
@@ -99,6 +101,7 @@ public class SceneManager extends Scene {
 				
 				// Change to
 				current = s;
+				sceneChanged = true;
 				s.changeTo();
 				return;
 			}
@@ -158,6 +161,8 @@ public class SceneManager extends Scene {
 		
 		if(global != null)
 			global.draw(g);
+		
+		sceneChanged = false;
 	}
 
 
@@ -174,5 +179,14 @@ public class SceneManager extends Scene {
 
 	@Override
 	public void changeTo() { }
+	
+	
+	@Override
+	public boolean needsRedraw() {
+		
+		return sceneChanged || 
+			(current != null && current.needsRedraw()) ||
+			(global != null && global.needsRedraw());
+	}
 
 }
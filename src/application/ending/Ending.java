@@ -77,6 +77,8 @@ public class Ending extends Scene {
 	private boolean specialPhase;
 	/** Special phase timer */
 	private float specialPhaseTimer;
+	/** Has the text changed since the previous draw */
+	private boolean changed = true;
 	
 	
 	/**
@@ -137,6 +139,11 @@ public class Ending extends Scene {
 	@Override
 	public void update(Gamepad vpad, float tm) {
 
+		// Nothing moves while waiting for a key press
+		boolean waiting = specialPhase ? specialPhaseTimer <= 0.0f : phase >= phaseMax;
+		if(!waiting)
+			changed = true;
+		
 		if(trans.isActive()) return;
 		
 		// Update special phase
@@ -217,6 +224,7 @@ public class Ending extends Scene {
 			if(specialPhaseTimer < spcTarget) {
 				
 				drawEndLogo(g);
+				changed = false;
 				return;
 			}
 			else {
@@ -252,6 +260,7 @@ public class Ending extends Scene {
 		}
 		
 		g.setGlobalAlpha();
+		changed = false;
 	}
 
 	
@@ -281,5 +290,12 @@ public class Ending extends Scene {
 		specialPhase = false;
 		specialPhaseTimer = 0.0f;
 	}
+	
+	
+	@Override
+	public boolean needsRedraw() {
+		
+		return changed;
+	}
 
 }
@@ -5,6 +5,7 @@ import core.renderer.Flip;
 import core.renderer.Graphics;
 import core.renderer.Transformations;
 import core.types.Point;
+import core.types.Vector2;
 import core.utility.AssetPack;
 
 /**
@@ -78,7 +79,8 @@ public class BlackHole extends Crate {
 		// Set transformations
 		Transformations tr = g.transform();
 		tr.push();
-		tr.translate(vpos.x + scaleValue.x/2, vpos.y + scaleValue.y / 2);
+		Vector2 p = getDrawPosition(g);
+		tr.translate(p.x + scaleValue.x/2, p.y + scaleValue.y / 2);
 		tr.rotate(angle);
 		tr.scale(scale, scale);
 		tr.use();
@@ -5,6 +5,7 @@ import core.renderer.Bitmap;
 import core.renderer.Flip;
 import core.renderer.Graphics;
 import core.types.Point;
+import core.types.Vector2;
 import core.utility.AssetPack;
 
 /**
@@ -138,8 +139,9 @@ public abstract class Collectible extends NonPlayerFieldObject {
 		g.setColor(c,c,c);
 		
 		// Draw
+		Vector2 p = getDrawPosition(g);
 		g.drawScaledBitmapRegion(bmpCollectibles, bsx, bsy, 128, 128, 
-				vpos.x - scaleValue.x*(sx-1.0f)/2.0f, vpos.y - scaleValue.y*(sy-1.0f)/2.0f + floatPos, 
+				p.x - scaleValue.x*(sx-1.0f)/2.0f, p.y - scaleValue.y*(sy-1.0f)/2.0f + floatPos, 
 				scaleValue.x*sx, scaleValue.y*sy, Flip.NONE);
 		
 		g.setColor();
@@ -5,6 +5,7 @@ import core.renderer.Bitmap;
 import core.renderer.Flip;
 import core.renderer.Graphics;
 import core.types.Point;
+import core.types.Vector2;
 import core.utility.AssetPack;
 
 /**
@@ -182,8 +183,9 @@ public class Crate extends NonPlayerFieldObject {
 			return;
 		}
 		
+		Vector2 p = getDrawPosition(g);
 		g.drawScaledBitmapRegion(bmpMovable,sx,sy,128,128,
-				vpos.x, vpos.y, scaleValue.x, scaleValue.y, Flip.NONE);
+				p.x, p.y, scaleValue.x, scaleValue.y, Flip.NONE);
 			
 	}
 
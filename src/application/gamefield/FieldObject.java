@@ -2,6 +2,7 @@ package application.gamefield;
 
 import application.Gamepad;
 import core.renderer.Graphics;
+import core.renderer.Interpolator;
 import core.types.Point;
 import core.types.Vector2;
 
@@ -24,6 +25,8 @@ public abstract class FieldObject {
 	protected Vector2 vpos;
 	/** Scale value */
 	protected Vector2 scaleValue;
+	/** Smooths the rendering position between updates */
+	private Interpolator vposInterp = new Interpolator();
 	
 	/** Is moving */
 	protected boolean moving;
@@ -155,6 +158,18 @@ public abstract class FieldObject {
 	public abstract void draw(Graphics g);
 	
 
+	/**
+	 * Get the position to draw the object in, i.e. the 
+	 * rendering position interpolated between updates
+	 * @param g Graphics object
+	 * @return Position. Do not store, it is reused
+	 */
+	protected Vector2 getDrawPosition(Graphics g) {
+		
+		return vposInterp.get(g, vpos);
+	}
+	
+	
 	/**
 	 * Get object position
 	 * @return Position
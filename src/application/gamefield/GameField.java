@@ -20,6 +20,13 @@ import core.utility.VoidCallback;
  */
 public class GameField extends Scene {
 
+	/** Confirm action */
+	static private final int ACTION_CONFIRM = Gamepad.getAction("confirm");
+	/** Quit action */
+	static private final int ACTION_QUIT = Gamepad.getAction("quit");
+	/** Reset action */
+	static private final int ACTION_RESET = Gamepad.getAction("reset");
+	
 	/** Stage manager */
 	private Stage stage;
 	/** Time manager */
@@ -114,8 +121,8 @@ public class GameField extends Scene {
 			return;
 		}
 		// If not, check if pause button pressed
-		else if(vpad.getButtonByName("confirm") == State.Pressed
-				|| vpad.getButtonByName("quit") == State.Pressed) {
+		else if(vpad.getActionState(ACTION_CONFIRM) == State.Pressed
+				|| vpad.getActionState(ACTION_QUIT) == State.Pressed) {
 			
 			pause.activate();
 			return;
@@ -129,7 +136,7 @@ public class GameField extends Scene {
 		objMan.update(vpad, timeMan, stage, statMan, tm);
 		
 		// Reset button
-		if(vpad.getButtonByName("reset") == State.Pressed) {
+		if(vpad.getActionState(ACTION_RESET) == State.Pressed) {
 			
 			fadeAndReset();
 		}
@@ -157,7 +164,7 @@ public class GameField extends Scene {
 		if(!stageClear.isActive()) {
 			
 			Mode m = leaving ? Mode.Out : trans.getMode();
-			float time = leaving ? 1.0f - trans.getTimer() : trans.getTimer();
+			float time = leaving ? 1.0f - trans.getTimer(g) : trans.getTimer(g);
 			stage.setTransform(g, trans.isActive(), m, time);
 		}
 		else if(stageClear.isFadingIn()) {
@@ -203,10 +203,11 @@ public class ObjectManager {
 	 */
 	public void draw(Graphics g) {
 		
-		// Draw non-player field objects
-		for(NonPlayerFieldObject o : objects) {
+		// Draw non-player field objects. An index loop
+		// avoids creating an iterator every frame
+		for(int i = 0; i < objects.size(); ++ i) {
 					
-			o.draw(g);
+			objects.get(i).draw(g);
 		}
 		
 		// Draw player
@@ -17,6 +17,9 @@ import core.utility.VoidCallback;
  *
  */
 public class Pause extends MenuContainer {
+	/** Quit action */
+	static private final int ACTION_QUIT = Gamepad.getAction("quit");
+	
 	
 	/** Amount of pause buttons */
 	static private int BUTTON_COUNT = 4;
@@ -123,7 +126,7 @@ public class Pause extends MenuContainer {
 		buttons.update(vpad, tm);
 		
 		// If quit pressed, quit
-		if(vpad.getButtonByName("quit") == State.Pressed) {
+		if(vpad.getActionState(ACTION_QUIT) == State.Pressed) {
 			
 			buttons.getButton(3).activate(0);
 		}
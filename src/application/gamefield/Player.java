@@ -4,6 +4,7 @@ import application.Gamepad;
 import core.renderer.Bitmap;
 import core.renderer.Flip;
 import core.renderer.Graphics;
+import core.renderer.Interpolator;
 import core.types.Direction;
 import core.types.Point;
 import core.types.Vector2;
@@ -32,6 +33,8 @@ public class Player extends FieldObject {
 	
 	/** Eye position */
 	private Vector2 eyePos;
+	/** Smooths the eye position between updates */
+	private Interpolator eyeInterp = new Interpolator();
 	
 	/** Fadings */
 	private Fading[] fadings;
@@ -250,17 +253,19 @@ public class Player extends FieldObject {
 		g.setColor(0.5f, 1, 0, 
 				OUTLINE_OPAQUE_START + s * OUTLINE_OPAQUE_DELTA);
 		
+		Vector2 p = getDrawPosition(g);
 		float outline = OUTLINE_START - s * OUTLINE_DELTA;
-		g.fillRect(vpos.x-outline, vpos.y-outline, scaleValue.x+outline*2, scaleValue.y+outline*2);
+		g.fillRect(p.x-outline, p.y-outline, scaleValue.x+outline*2, scaleValue.y+outline*2);
 		g.setColor();
 		
 		// Base block
 		g.drawScaledBitmapRegion(bmpPlayer, 0, 0, 128, 128,
-				vpos.x, vpos.y, scaleValue.x, scaleValue.y, Flip.NONE);
+				p.x, p.y, scaleValue.x, scaleValue.y, Flip.NONE);
 		
 		// Calculate "true" eye position
-		float eyeX = vpos.x + (vpos.x-eyePos.x);
-		float eyeY= vpos.y + (vpos.y-eyePos.y);
+		Vector2 eye = eyeInterp.get(g, eyePos);
+		float eyeX = p.x + (p.x-eye.x);
+		float eyeY= p.y + (p.y-eye.y);
 		
 		// Draw eyes
 		g.drawScaledBitmapRegion(bmpPlayer, 128, 0, 128, 128,
@@ -1,11 +1,19 @@
 package application.gamefield;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import application.global.Transition;
 import core.renderer.Bitmap;
 import core.renderer.Flip;
+import core.renderer.Framebuffer;
 import core.renderer.Graphics;
+import core.renderer.LavaShader;
+import core.renderer.QuadMesh;
+import core.renderer.Shader;
 import core.renderer.Transformations;
-import core.types.Vector2;
+import core.utility.AssetHandle;
 import core.utility.AssetPack;
 import core.utility.RGBFloat;
 import core.utility.Tilemap;
@@ -26,6 +34,20 @@ public class Stage {
 		true,false,true,true, false,false,true,false,  false, true, false, false,
 		true, true, false, true,  false, false, false, true,
 	};
+	/** Lava border color */
+	static private final RGBFloat LAVA_BORDER_COLOR = new RGBFloat(0.40f,0.0f,0.0f);
+	/** Purple lava border color */
+	static private final RGBFloat PURPLE_LAVA_BORDER_COLOR = new RGBFloat(0.20f,0.0f,0.40f);
+	/** Lava container border color */
+	static private final RGBFloat CONTAINER_BORDER_COLOR = new RGBFloat(0.05f,0.27f,0.27f);
+	
+	/** Lava alpha groups, the index of the groupAlpha 
+	 *  component. Purple lava that appears fades in, and
+	 *  the lava that it replaces fades out */
+	static private final float LAVA_GROUP_OPAQUE = 0.0f;
+	static private final float LAVA_GROUP_FADE_IN = 1.0f;
+	static private final float LAVA_GROUP_FADE_OUT = 2.0f;
+	
 	/** Solid tiles */
 	static final boolean[] SOLID_TILES = new boolean[] {
 		true,true,true,true, false,false,true,false, false,true,false,false,
@@ -33,6 +55,27 @@ public class Stage {
 	};
 	
 	
+	/** Neighbour mask bits, set if the neighbour has the same value */
+	static public final int MASK_N = 1;
+	static public final int MASK_NE = 2;
+	static public final int MASK_E = 4;
+	static public final int MASK_SE = 8;
+	static public final int MASK_S = 16;
+	static public final int MASK_SW = 32;
+	static public final int MASK_W = 64;
+	static public final int MASK_NW = 128;
+	
+	/** Connected tile pieces for each neighbour mask */
+	static private final int[][] AUTOTILE_PIECES = new int[256][];
+	static {
+		
+		for(int i = 0; i < AUTOTILE_PIECES.length; ++ i) {
+			
+			AUTOTILE_PIECES[i] = computeAutotilePieces(i);
+		}
+	}
+	
+	
 	/** Stage map */
 	private Tilemap map;
 	
@@ -40,6 +83,8 @@ public class Stage {
 	private int[] tileData;
 	/** Solid data */
 	private int[] solidData;
+	/** Neighbour masks */
+	private int[] tileMasks;
 	
 	/** Stage width in tiles */
 	private int width;
@@ -48,6 +93,8 @@ public class Stage {
 	
 	/** Stage index */
 	private int stageIndex;
+	/** Stage tilemaps, the first one is stage 1 */
+	private List<AssetHandle<Tilemap>> stageMaps;
 	/** Stage name */
 	private String stageName = "";
 	/** Turn limit */
@@ -74,6 +121,30 @@ public class Stage {
 	/** Has the stage ended */
 	private boolean stageEnded;
 	
+	/** Static layer cache, null if not created */
+	private Framebuffer cache = null;
+	/** Tiles that must be redrawn to the cache */
+	private boolean[] dirty;
+	/** Must the whole cache be redrawn */
+	private boolean cacheInvalid = true;
+	/** Purple fading state when the cache was updated */
+	private boolean cacheFading = false;
+	
+	/** Lava shader */
+	private Shader shaderLava;
+	/** Lava shader uniforms */
+	private int unifPhase, unifScrollRange, unifTexelSize, unifGroupAlpha;
+	/** Lava tiles & their borders */
+	private QuadMesh lavaMesh;
+	/** Lava container borders */
+	private QuadMesh containerBorderMesh;
+	/** Must the lava meshes be rebuilt */
+	private boolean lavaMeshInvalid = true;
+	/** Purple fading state when the lava meshes were built */
+	private boolean lavaMeshFading = false;
+	/** Source UV storage */
+	private float[] lavaUV = new float[4];
+	
 	
 	/**
 	 * Is the tile in (X,Y) solid in static sense
@@ -91,104 +162,169 @@ public class Stage {
 	
 	
 	/**
-	 * Draw a piece of wall
-	 * TODO: Missing things, do it! (...what?)
-	 * @param g Graphics object
-	 * @param x X coordinate in tiles
-	 * @param y Y coordinate in tiles
-	 * @param value Value where to compare
-	 * @param sw Tile width
-	 * @param th Tile height
+	 * Put a connected tile piece to an array
+	 * @param out Output array
+	 * @param len Current length
+	 * @param sx Source x in quarter tiles
+	 * @param sy Source y in quarter tiles
+	 * @param dx Destination x in half tiles
+	 * @param dy Destination y in half tiles
+	 * @return New length
 	 */
-	private void drawConnectedTile(Graphics g, int x, int y, int value, int sw, int sh) {
+	static private int putPiece(int[] out, int len, int sx, int sy, int dx, int dy) {
 		
-		float dx = x * sw;
-		float dy = y * sh;
+		out[len] = sx;
+		out[len+1] = sy;
+		out[len+2] = dx;
+		out[len+3] = dy;
+		
+		return len + 4;
+	}
+	
+	
+	/**
+	 * Compute the pieces needed to draw a connected tile
+	 * with the given neighbour mask. Every piece is a quarter
+	 * tile, stored as source x & y in quarter tiles and 
+	 * destination x & y in half tiles
+	 * @param mask Neighbour mask
+	 * @return Pieces
+	 */
+	static private int[] computeAutotilePieces(int mask) {
+		
+		boolean n = (mask & MASK_N) != 0;
+		boolean ne = (mask & MASK_NE) != 0;
+		boolean e = (mask & MASK_E) != 0;
+		boolean se = (mask & MASK_SE) != 0;
+		boolean s = (mask & MASK_S) != 0;
+		boolean sw = (mask & MASK_SW) != 0;
+		boolean w = (mask & MASK_W) != 0;
+		boolean nw = (mask & MASK_NW) != 0;
+		
+		int[] out = new int[8 * 4];
+		int len = 0;
 		
 		// Bottom-right corner
-		if(getTile(x,y+1) != value && getTile(x+1,y) != value) {
-					
-			g.drawBitmapRegion(bmpStatic, sw / 2, sh / 2, sw / 2, sh / 2, dx+sw/2, dy+sh/2, Flip.NONE);
+		if(!s && !e) {
+			
+			len = putPiece(out, len, 2, 2, 1, 1);
 		}
-		else if(getTile(x+1,y) == value && getTile(x,y+1) != value) {
+		else if(e && !s) {
 			
-			g.drawBitmapRegion(bmpStatic, sw / 4, sw / 2, sw / 2, sh/2, dx+sw/2, dy+sh/2, Flip.NONE);
+			len = putPiece(out, len, 1, 2, 1, 1);
 		}
-		else if(getTile(x,y+1) == value && getTile(x+1,y) != value) {
+		else if(s && !e) {
 			
-			g.drawBitmapRegion(bmpStatic, sw / 2, sh / 4, sw / 2, sh / 2, dx+sw/2, dy+sh/2, Flip.NONE);
+			len = putPiece(out, len, 2, 1, 1, 1);
 		}
 		
-		
 		// Bottom-left
-		if(getTile(x,y+1) != value && getTile(x-1,y) != value) {
+		if(!s && !w) {
 			
-			g.drawBitmapRegion(bmpStatic, 0, sh / 2, sw / 2, sh / 2, dx, dy+sh/2, Flip.NONE);
+			len = putPiece(out, len, 0, 2, 0, 1);
 		}
-		else if(getTile(x-1,y) == value && getTile(x,y+1) != value) {
+		else if(w && !s) {
 			
-			g.drawBitmapRegion(bmpStatic, sw / 4, sh / 2, sw / 2, sh / 2, dx, dy+sh/2, Flip.NONE);
+			len = putPiece(out, len, 1, 2, 0, 1);
 		}
-		else if(getTile(x,y+1) == value && getTile(x-1,y) != value) {
+		else if(s && !w) {
 			
-			g.drawBitmapRegion(bmpStatic, 0, sh / 4, sw / 2, sh / 2, dx, dy+sh/2, Flip.NONE);
+			len = putPiece(out, len, 0, 1, 0, 1);
 		}
 		
-		
 		// Upper-right
-		if(getTile(x,y-1) != value && getTile(x+1,y) != value) {
-					
-			g.drawBitmapRegion(bmpStatic, sw / 2, 0, sw / 2, sh / 2, dx+sw/2, dy, Flip.NONE);
+		if(!n && !e) {
+			
+			len = putPiece(out, len, 2, 0, 1, 0);
 		}
-		else if(getTile(x+1,y) == value && getTile(x,y-1) != value) {
+		else if(e && !n) {
 			
-			g.drawBitmapRegion(bmpStatic, sw / 4, 0, sw / 2, sh / 2, dx+sw/2, dy, Flip.NONE);
+			len = putPiece(out, len, 1, 0, 1, 0);
 		}
-		else if(getTile(x,y-1) == value && getTile(x+1,y) != value) {
+		else if(n && !e) {
 			
-			g.drawBitmapRegion(bmpStatic, sw / 2, sh / 4, sw / 2, sh / 2, dx+sw/2, dy, Flip.NONE);
+			len = putPiece(out, len, 2, 1, 1, 0);
 		}
 		
-		
 		// Upper-left
-		if(getTile(x,y-1) != value && getTile(x-1,y) != value) {
-							
-			g.drawBitmapRegion(bmpStatic, 0, 0, sw / 2, sh / 2, dx, dy, Flip.NONE);
+		if(!n && !w) {
+			
+			len = putPiece(out, len, 0, 0, 0, 0);
 		}
-		else if(getTile(x-1,y) == value && getTile(x,y-1) != value) {
+		else if(w && !n) {
 			
-			g.drawBitmapRegion(bmpStatic, sw / 4, 0, sw / 2, sh / 2, dx, dy, Flip.NONE);
+			len = putPiece(out, len, 1, 0, 0, 0);
 		}
-		else if(getTile(x,y-1) == value && getTile(x-1,y) != value) {
+		else if(n && !w) {
 			
-			g.drawBitmapRegion(bmpStatic, 0, sh / 4, sw / 2, sh / 2, dx, dy, Flip.NONE);
+			len = putPiece(out, len, 0, 1, 0, 0);
 		}
 		
-		
-		
-		// Bottom-right corner empty, but tiles close to it not
-		if(getTile(x,y+1) == value && getTile(x+1,y) == value
-		&& getTile(x+1,y+1) != value) {
-							
-			g.drawBitmapRegion(bmpStatic, sw + sw/2, sh / 2, sw / 2, sh / 2, dx+sw/2, dy+sh/2, Flip.NONE);
+		// Corners empty, but tiles close to them not
+		if(s && e && !se) {
+			
+			len = putPiece(out, len, 6, 2, 1, 1);
 		}
-		// Bottom-left corner empty ...
-		if(getTile(x,y+1) == value && getTile(x-1,y) == value
-		&& getTile(x-1,y+1) != value) {
-									
-			g.drawBitmapRegion(bmpStatic, sw, sh  / 2, sw / 2, sh / 2, dx, dy+sh/2, Flip.NONE);
+		if(s && w && !sw) {
+			
+			len = putPiece(out, len, 4, 2, 0, 1);
 		}
-		// Upper-right ...
-		if(getTile(x,y-1) == value && getTile(x+1,y) == value
-		&& getTile(x+1,y-1) != value) {
-							
-			g.drawBitmapRegion(bmpStatic, sw + sw/2, 0, sw / 2, sh / 2, dx+sw/2, dy, Flip.NONE);
+		if(n && e && !ne) {
+			
+			len = putPiece(out, len, 6, 0, 1, 0);
 		}
-		// Upper-left ...
-		if(getTile(x,y-1) == value && getTile(x-1,y) == value
-		&& getTile(x-1,y-1) != value) {
-									
-			g.drawBitmapRegion(bmpStatic, sw, 0, sw / 2, sh / 2, dx, dy, Flip.NONE);
+		if(n && w && !nw) {
+			
+			len = putPiece(out, len, 4, 0, 0, 0);
+		}
+		
+		return Arrays.copyOf(out, len);
+	}
+	
+	
+	/**
+	 * Compute the neighbour mask of a tile
+	 * @param i Tile index
+	 * @return Mask
+	 */
+	private int computeTileMask(int i) {
+		
+		int x = i % width;
+		int y = i / width;
+		int value = tileData[i];
+		
+		int mask = 0;
+		if(getTile(x, y-1) == value) mask |= MASK_N;
+		if(getTile(x+1, y-1) == value) mask |= MASK_NE;
+		if(getTile(x+1, y) == value) mask |= MASK_E;
+		if(getTile(x+1, y+1) == value) mask |= MASK_SE;
+		if(getTile(x, y+1) == value) mask |= MASK_S;
+		if(getTile(x-1, y+1) == value) mask |= MASK_SW;
+		if(getTile(x-1, y) == value) mask |= MASK_W;
+		if(getTile(x-1, y-1) == value) mask |= MASK_NW;
+		
+		return mask;
+	}
+	
+	
+	/**
+	 * Draw a piece of wall
+	 * @param g Graphics object
+	 * @param x X coordinate in tiles
+	 * @param y Y coordinate in tiles
+	 * @param sw Tile width
+	 * @param th Tile height
+	 */
+	private void drawConnectedTile(Graphics g, int x, int y, int sw, int sh) {
+		
+		float dx = x * sw;
+		float dy = y * sh;
+		
+		int[] pieces = AUTOTILE_PIECES[tileMasks[y*width + x]];
+		for(int i = 0; i < pieces.length; i += 4) {
+			
+			g.drawBitmapRegion(bmpStatic, pieces[i] * sw/4, pieces[i+1] * sh/4, sw / 2, sh / 2, 
+					dx + pieces[i+2] * sw/2, dy + pieces[i+3] * sh/2, Flip.NONE);
 		}
 	}
 	
@@ -267,46 +403,167 @@ public class Stage {
 	
 	
 	/**
-	 * Get lava source position
-	 * @param phase Movement phase
-	 * @return Position
+	 * Add tile borders to a mesh
+	 * @param mesh Mesh
+	 * @param x X coordinate in tiles
+	 * @param y Y coordinate in tiles
+	 * @param bsize Border size
+	 * @param col Color
+	 * @param group Alpha group
 	 */
-	private Vector2 getLavaSourcePos(float phase) {
-		
-		int tw = (int) (phase * (bmpLava.getWidth() / 4.0f));
-		int th = (int) ( (1.0f-phase) * (bmpLava.getHeight() / 2.0f));
+	private void addBorders(QuadMesh mesh, int x, int y, float bsize, RGBFloat col, float group) {
 		
-		return new Vector2(tw, th);
+		float dx = x * tileSize;
+		float dy = y * tileSize;
+		float s = tileSize;
+		
+		// Right, left, bottom, up
+		if(!isStaticSolid(x+1,y))
+			mesh.addQuad(dx + s-bsize, dy, bsize, s, -1, 0, 0, 0, col.r, col.g, col.b, group);
+		if(!isStaticSolid(x-1,y))
+			mesh.addQuad(dx, dy, bsize, s, -1, 0, 0, 0, col.r, col.g, col.b, group);
+		if(!isStaticSolid(x,y+1))
+			mesh.addQuad(dx, dy + s-bsize, s, bsize, -1, 0, 0, 0, col.r, col.g, col.b, group);
+		if(!isStaticSolid(x,y-1))
+			mesh.addQuad(dx, dy, s, bsize, -1, 0, 0, 0, col.r, col.g, col.b, group);
+		
+		// Corners
+		if(!isStaticSolid(x+1,y+1))
+			mesh.addQuad(dx + s-bsize, dy + s-bsize, bsize, bsize, -1, 0, 0, 0, col.r, col.g, col.b, group);
+		if(!isStaticSolid(x-1,y+1))
+			mesh.addQuad(dx, dy + s-bsize, bsize, bsize, -1, 0, 0, 0, col.r, col.g, col.b, group);
+		if(!isStaticSolid(x+1,y-1))
+			mesh.addQuad(dx + s-bsize, dy, bsize, bsize, -1, 0, 0, 0, col.r, col.g, col.b, group);
+		if(!isStaticSolid(x-1,y-1))
+			mesh.addQuad(dx, dy, bsize, bsize, -1, 0, 0, 0, col.r, col.g, col.b, group);
 	}
 	
 	
 	/**
-	 * Draw lava tile
+	 * Rebuild the lava meshes
 	 * @param g Graphics object
-	 * @param tx X translation
-	 * @param x X coordinate in tiles
-	 * @param y Y coordinate in tiles
-	 * @param phase Movement phase
 	 */
-	private void drawLava(Graphics g, int tx, int x, int y, float phase, RGBFloat borders) {
+	private void buildLavaMeshes(Graphics g) {
 		
-		final float COLOR_MOD = 0.125f;
 		final float BORDER_WIDTH = 8.0f;
+		final float LOCK_BORDER_WIDTH = 8.0f;
 		
-		// Draw lava tile
-		int tw = (int) (phase * (bmpLava.getWidth() / 4.0f));
-		int th = (int) ( (1.0f-phase) * (bmpLava.getHeight() / 2.0f));
-		float color = 1.0f + COLOR_MOD * (float)Math.sin(phase * Math.PI * 2.0f);
-
-		g.setColor(color, color, color);
-		g.drawScaledBitmapRegion(bmpLava, tw + tx, th, 128, 128, 
-				x*tileSize, y*tileSize, tileSize, tileSize, Flip.NONE);
+		lavaMesh.clear();
+		containerBorderMesh.clear();
+		
+		// Lava tiles first, so the borders are drawn on top
+		int tile, tx, x, y;
+		float group;
+		for(int i = 0; i < tileData.length; ++ i) {
+			
+			tile = tileData[i];
+			tx = 256;
+			group = LAVA_GROUP_OPAQUE;
+			switch(tile) {
+			
+			case 3:
+			case 13:
+				tx = 0;
+				break;
+				
+			case 14:
+				break;
+				
+			case 10:
+				if(purpleFading)
+					group = LAVA_GROUP_FADE_IN;
+				break;
+				
+			case 9:
+				if(!purpleFading) continue;
+				group = LAVA_GROUP_FADE_OUT;
+				break;
+				
+			default:
+				continue;
+			}
+			
+			x = i % width;
+			y = i / width;
+			g.getSourceUV(bmpLava, tx, 0, 128, 128, lavaUV);
+			lavaMesh.addQuad(x*tileSize, y*tileSize, tileSize, tileSize, 
+					lavaUV[0], lavaUV[1], lavaUV[2], lavaUV[3], 1, 1, 1, group);
+		}
+		
+		// Borders
+		for(int i = 0; i < tileData.length; ++ i) {
+			
+			tile = tileData[i];
+			x = i % width;
+			y = i / width;
+			
+			if(tile == 3) {
+				
+				addBorders(lavaMesh, x, y, BORDER_WIDTH, LAVA_BORDER_COLOR, LAVA_GROUP_OPAQUE);
+			}
+			else if(tile == 10) {
+				
+				addBorders(lavaMesh, x, y, BORDER_WIDTH, PURPLE_LAVA_BORDER_COLOR, 
+						purpleFading ? LAVA_GROUP_FADE_IN : LAVA_GROUP_OPAQUE);
+			}
+			// Containers cover the lava borders, so only
+			// their own borders are needed
+			else if(tile == 13 || tile == 14) {
+				
+				addBorders(containerBorderMesh, x, y, LOCK_BORDER_WIDTH, 
+						CONTAINER_BORDER_COLOR, LAVA_GROUP_OPAQUE);
+			}
+		}
+		
+		lavaMeshInvalid = false;
+		lavaMeshFading = purpleFading;
+	}
+	
+	
+	/**
+	 * Draw lava, lava containers and their borders
+	 * @param g Graphics object
+	 */
+	private void drawLavaField(Graphics g) {
+		
+		if(lavaMeshInvalid || lavaMeshFading != purpleFading)
+			buildLavaMeshes(g);
+		
+		// Calculate purple tile alpha
+		float purpleAlpha = 1.0f;
+		if(purpleFading) {
+			
+			purpleAlpha = purpleFadingTimer / purpleInitialTime;
+		}
+		
+		// Draw lava
+		g.useShader(shaderLava);
+		shaderLava.setUniform(unifPhase, lavaPhase);
+		shaderLava.setUniform(unifScrollRange, bmpLava.getWidth() / 4.0f, bmpLava.getHeight() / 2.0f);
+		shaderLava.setUniform(unifTexelSize, 1.0f / bmpLava.getTextureWidth(), 
+				1.0f / bmpLava.getTextureHeight());
+		// Opaque, fading in & fading out groups
+		shaderLava.setUniform(unifGroupAlpha, 1.0f, 1.0f - purpleAlpha, purpleAlpha);
+		g.drawMesh(lavaMesh, bmpLava);
+		
+		// Draw containers
+		g.setColor();
+		int tile;
+		for(int i = 0; i < tileData.length; ++ i) {
+			
+			tile = tileData[i];
+			if(tile == 13 || tile == 14) {
+				
+				g.drawScaledBitmapRegion(bmpStatic, 0, 256, 128, 128, 
+						(i % width)*tileSize, (i / width)*tileSize, tileSize, tileSize, Flip.NONE);
+			}
+		}
 		
-		// Draw borders
-		if(borders != null) {
+		// Draw container borders
+		if(containerBorderMesh.getQuadCount() > 0) {
 			
-			g.setColor(borders.r, borders.g, borders.b);
-			drawBorders(g, x, y, tileSize, tileSize, BORDER_WIDTH);
+			g.useShader(shaderLava);
+			g.drawMesh(containerBorderMesh, bmpLava);
 		}
 	}
 	
@@ -342,7 +599,7 @@ public class Stage {
 			g.fillRect(dx, dy, tileSize, tileSize);
 			
 			// Draw borders
-			drawConnectedTile(g, x, y, 1, tileSize, tileSize);
+			drawConnectedTile(g, x, y, tileSize, tileSize);
 			
 			break;
 			
@@ -350,20 +607,13 @@ public class Stage {
 		case 3:
 		case 10:
 			
-			// If purple fading, draw the replacing tile
+			// If purple fading, draw the replacing tile. The
+			// lava itself is drawn later by drawLavaField
 			if(purpleFading && tile == 10) {
 										
 				g.drawScaledBitmapRegion(bmpStatic, 384, 128, 128, 128, 
 					dx, dy, tileSize, tileSize, Flip.NONE);
-										
-				g.setGlobalAlpha(1.0f - purpleAlpha);
 			}
-			
-			drawLava(g, tile == 3 ? 0 : 256, x, y, lavaPhase,
-					tile == 3 ? new RGBFloat(0.40f,0.0f,0.0f)
-					: new RGBFloat(0.20f,0.0f,0.40f));
-			g.setGlobalAlpha();
-
 			break;
 			
 		// Lock
@@ -394,6 +644,7 @@ public class Stage {
 				
 				g.setColor(1, 1, 1, purpleAlpha);
 				
+				// (fading in lava is drawn by drawLavaField)
 				if(tile == 6) {
 				
 					// Draw background
@@ -402,16 +653,10 @@ public class Stage {
 	
 					// Draw borders
 					g.setSourceTranslation(256, 0);
-					drawConnectedTile(g, x, y, 6, tileSize, tileSize);
+					drawConnectedTile(g, x, y, tileSize, tileSize);
 					g.setSourceTranslation(0, 0);
 				
 				}
-				else {
-					
-					Vector2 lavaPos = getLavaSourcePos(lavaPhase);
-					g.drawScaledBitmapRegion(bmpLava, 256 + (int)lavaPos.x, (int)lavaPos.y, 128, 128, 
-							dx, dy, tileSize, tileSize, Flip.NONE);
-				}
 			}
 			
 			break;
@@ -435,32 +680,16 @@ public class Stage {
 
 			// Draw borders
 			g.setSourceTranslation(256, 0);
-			drawConnectedTile(g, x, y, 7, tileSize, tileSize);
+			drawConnectedTile(g, x, y, tileSize, tileSize);
 			g.setSourceTranslation(0, 0);
 
 			break;
 			
 		
-		// Lava container
+		// Lava container, drawn by drawLavaField
 		case 13:
 		case 14:
-			
-			// Draw lava
-			drawLava(g, tile == 13 ? 0 : 256, x, y, lavaPhase,
-					tile == 13 ? new RGBFloat(0.40f,0.0f,0.0f)
-					: new RGBFloat(0.20f,0.0f,0.40f));
-			g.setGlobalAlpha();
-			
-			// Draw container
-			g.setColor();
-			g.drawScaledBitmapRegion(bmpStatic, 0, 256, 128, 128, 
-					dx, dy, tileSize, tileSize, Flip.NONE);
-			
-			// Borders
-			g.setColor(0.05f,0.27f,0.27f);
-			drawBorders(g, x, y, tileSize, tileSize, LOCK_BORDER_WIDTH);
-			
-		break;
+			break;
 		
 		// Green star container
 		case 20:
@@ -486,15 +715,158 @@ public class Stage {
 	}
 	
 	
+	/**
+	 * Is the tile drawn every frame instead of
+	 * being stored to the static layer cache
+	 * @param tile Tile index
+	 * @return True, if dynamic
+	 */
+	private boolean isDynamicTile(int tile) {
+		
+		// Lava
+		if(tile == 3 || tile == 10 || tile == 13 || tile == 14)
+			return true;
+		
+		// Purple tiles while fading
+		return purpleFading && (tile == 6 || tile == 7 || tile == 9);
+	}
+	
+	
+	/**
+	 * Recompute the neighbour masks of a tile and its
+	 * neighbours, and mark them to be redrawn to the cache.
+	 * Note that neighbours are found the same way getTile
+	 * does, so the row edges wrap
+	 * @param i Tile index
+	 */
+	private void refreshNeighbourhood(int i) {
+		
+		int j;
+		for(int y = -1; y <= 1; ++ y) {
+			
+			for(int x = -1; x <= 1; ++ x) {
+				
+				j = i + y*width + x;
+				if(j >= 0 && j < dirty.length) {
+					
+					tileMasks[j] = computeTileMask(j);
+					dirty[j] = true;
+				}
+			}
+		}
+		lavaMeshInvalid = true;
+	}
+	
+	
+	/**
+	 * Redraw the dirty tiles to the static layer cache
+	 * @param g Graphics object
+	 */
+	private void updateCache(Graphics g) {
+		
+		int w = width * tileSize;
+		int h = height * tileSize;
+		
+		// (Re)create the cache, if the size has changed
+		if(cache == null || cache.getWidth() != w || cache.getHeight() != h) {
+			
+			if(cache != null)
+				cache.dispose();
+			
+			cache = new Framebuffer(w, h);
+			cacheInvalid = true;
+		}
+		
+		// If purple tiles started or stopped fading,
+		// they move to or from the cache
+		if(cacheFading != purpleFading) {
+			
+			int t;
+			for(int i = 0; i < dirty.length; ++ i) {
+				
+				t = tileData[i];
+				if(t == 6 || t == 7 || t == 9 || t == 10)
+					dirty[i] = true;
+			}
+			cacheFading = purpleFading;
+		}
+		
+		// Check if there is anything to redraw
+		if(cacheInvalid) {
+			
+			Arrays.fill(dirty, true);
+		}
+		else {
+			
+			boolean found = false;
+			for(int i = 0; i < dirty.length && !found; ++ i) {
+				
+				found = dirty[i];
+			}
+			if(!found) return;
+		}
+		
+		g.beginOffscreen(cache);
+		if(cacheInvalid) {
+			
+			g.clearRegion(0, 0, w, h);
+		}
+		
+		// Redraw tiles
+		int x, y, tile;
+		for(int i = 0; i < dirty.length; ++ i) {
+			
+			if(!dirty[i]) continue;
+			dirty[i] = false;
+			
+			x = i % width;
+			y = i / width;
+			tile = tileData[i];
+			
+			// Dynamic tiles leave a hole to the cache
+			if(!cacheInvalid) {
+				
+				g.clearRegion(x*tileSize, y*tileSize, tileSize, tileSize);
+			}
+			if(!isDynamicTile(tile)) {
+				
+				drawTile(g, tile, x, y);
+			}
+		}
+		g.endOffscreen();
+		
+		cacheInvalid = false;
+	}
+	
+	
 	/**
 	 * Constructor
 	 * @param assets Asset package
+	 * @throws Exception If the lava shader cannot be created
 	 */
-	public Stage(AssetPack assets) {
+	public Stage(AssetPack assets) throws Exception {
 	
 		// Get assets
 		bmpStatic = assets.getBitmap("static");
 		bmpLava = assets.getBitmap("lava");
+		
+		// Find stage tilemaps, they are numbered from 1
+		stageMaps = new ArrayList<AssetHandle<Tilemap>> ();
+		AssetHandle<Tilemap> handle;
+		while((handle = assets.getTilemapHandle(Integer.toString(stageMaps.size() + 1))) != null) {
+			
+			stageMaps.add(handle);
+		}
+		
+		// Create lava shader & meshes
+		shaderLava = new Shader(LavaShader.VERTEX, LavaShader.FRAGMENT);
+		unifPhase = shaderLava.getUniformLocation("phase");
+		unifScrollRange = shaderLava.getUniformLocation("scrollRange");
+		unifTexelSize = shaderLava.getUniformLocation("texelSize");
+		unifGroupAlpha = shaderLava.getUniformLocation("groupAlpha");
+		
+		lavaMesh = new QuadMesh();
+		containerBorderMesh = new QuadMesh();
 	}
 	
 	
@@ -528,6 +900,18 @@ public class Stage {
 		// Clone tile data to solid data
 		solidData = tileData.clone();
 		
+		// Compute neighbour masks
+		tileMasks = new int[width*height];
+		for(int i = 0; i < width*height; ++ i) {
+			
+			tileMasks[i] = computeTileMask(i);
+		}
+		
+		// Redraw the cache
+		dirty = new boolean[width*height];
+		cacheInvalid = true;
+		lavaMeshInvalid = true;
+		
 		// Set flags
 		stageEnded = false;
 	}
@@ -542,7 +926,8 @@ public class Stage {
 		stageIndex = index;
 		
 		// Get the tilemap
-		map = assets.getTilemap(Integer.toString(index));
+		map = index >= 1 && index <= stageMaps.size() ? 
+				assets.getTilemap(stageMaps.get(index -1)) : null;
 		
 		resetMap();
 	}
@@ -599,13 +984,12 @@ public class Stage {
 			float scale = mode == Transition.Mode.Out 
 					? (1.0f-SCALE_IN_FACTOR) + t*SCALE_IN_FACTOR :  
 					   1.0f + t * SCALE_OUT_FACTOR;
-			Vector2 center = tr.getViewport().clone();
-			center.x /= 2;
-			center.y /= 2;
+			float cx = tr.getViewport().x / 2;
+			float cy = tr.getViewport().y / 2;
 			
-			tr.translate(center.x, center.y);
+			tr.translate(cx, cy);
 			tr.scale(scale, scale);
-			tr.translate(-center.x, -center.y);
+			tr.translate(-cx, -cy);
 		}
 		
 		// Calculate x translation
@@ -621,14 +1005,41 @@ public class Stage {
 	 */
 	public void draw(Graphics g) {
 		
-		// Draw static tiles
+		// Without framebuffers, draw all the tiles
+		if(!Framebuffer.isSupported()) {
+			
+			for(int y = 0; y < height; ++ y) {
+				
+				for(int x = 0; x < width; ++ x) {
+					
+					drawTile(g, getTile(x, y), x, y);
+				}
+			}
+			drawLavaField(g);
+			return;
+		}
+		
+		// Draw the static layer. The framebuffer
+		// content is upside down
+		updateCache(g);
+		g.setColor();
+		g.drawScaledBitmap(cache.getBitmap(), 0, 0, 
+				width*tileSize, height*tileSize, Flip.VERTICAL);
+		
+		// Draw dynamic tiles on top of it
+		int tile;
 		for(int y = 0; y < height; ++ y) {
 			
 			for(int x = 0; x < width; ++ x) {
 				
-				drawTile(g, getTile(x, y), x, y);
+				tile = getTile(x, y);
+				if(isDynamicTile(tile))
+					drawTile(g, tile, x, y);
 			}
 		}
+		
+		// Lava is drawn on top of the tiles
+		drawLavaField(g);
 	}
 	
 	
@@ -683,8 +1094,16 @@ public class Stage {
 		
 		if(i < 0 || i >= tileData.length) return;
 		
+		if(tileData[i] == value) {
+			
+			solidData[i] = value;
+			return;
+		}
+		
 		tileData[i] = value;
 		solidData[i] = value;
+		
+		refreshNeighbourhood(i);
 	}
 	
 	
@@ -778,6 +1197,23 @@ public class Stage {
 	}
 	
 	
+	/**
+	 * Get the neighbour mask of a tile, i.e. which
+	 * neighbours have the same value (see MASK_*)
+	 * @param x X coordinate
+	 * @param y Y coordinate
+	 * @return Mask, 0 if outside the stage
+	 */
+	public int getTileMask(int x, int y) {
+		
+		int index = y*width + x;
+		if(index < 0 || index >= tileMasks.length)
+			return 0;
+		
+		return tileMasks[index];
+	}
+	
+	
 	/**
 	 * Get a tile "solidity" value in the current tile data array
 	 * @param x X coordinate
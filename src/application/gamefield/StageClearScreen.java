@@ -299,9 +299,9 @@ public class StageClearScreen {
 			
 			float scale = 1.0f;
 			if(restarting)
-				scale = 1.0f + (1.0f-trans.getTimer()) * SCALE_IN;
+				scale = 1.0f + (1.0f-trans.getTimer(g)) * SCALE_IN;
 			else
-				scale = 1.0f - (1.0f-trans.getTimer())*SCALE_OUT;
+				scale = 1.0f - (1.0f-trans.getTimer(g))*SCALE_OUT;
 			
 			tr.translate(view.x/2, view.y/2);
 			tr.scale(scale, scale);
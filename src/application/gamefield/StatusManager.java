@@ -41,6 +41,15 @@ public class StatusManager {
 	/** Stage index */
 	private int stageIndex;
 	
+	/** Stage text */
+	private String stageText = "";
+	/** Turn count text */
+	private String turnText = "";
+	/** Turn limit text */
+	private String limitText = "";
+	/** Turn count the turn text was created for */
+	private int turnTextCount = -1;
+	
 	/** Item appearance timer*/
 	private float itemAppearanceTimer = 0.0f;
 	/** Old key count */
@@ -73,7 +82,22 @@ public class StatusManager {
 	 */
 	private float getDrawnTextPos(Graphics g, String str, Bitmap font, float xoff, float scale) {
 		
-		return g.transform().getViewport().x - (str.length() +1) * (bmpFont.getWidth()/16.0f + xoff) * scale;
+		return getDrawnTextPos(g, str.length(), font, xoff, scale);
+	}
+	
+	
+	/**
+	 * Get drawn text position
+	 * @param g
+	 * @param len Text length
+	 * @param font
+	 * @param xoff
+	 * @param scale Float scale
+	 * @return Position
+	 */
+	private float getDrawnTextPos(Graphics g, int len, Bitmap font, float xoff, float scale) {
+		
+		return g.transform().getViewport().x - (len +1) * (bmpFont.getWidth()/16.0f + xoff) * scale;
 	}
 	
 	
@@ -103,21 +127,28 @@ public class StatusManager {
 
 		// Draw stage index
 		float viewx = g.transform().getViewport().x;
-		String sname = "Stage " + Integer.toString(stageIndex) + ": " + stageName;
+		String sname = stageText;
 		if( (sname.length()+1) * ( 64.0f + XOFF1) * FONT_SCALE > viewx / LIMIT_DIV)
 			sname = stageName;
 
 		g.drawText(bmpFont, sname,
 				tx + STAGE_X, ty + TEXT_Y, XOFF1, YOFF, false, FONT_SCALE);
 		
-		// Create turn strings
+		// Create turn strings, only if the turn has changed
+		if(turnTextCount != turnCount) {
+			
+			turnText = Integer.toString(turnCount);
+			turnTextCount = turnCount;
+		}
 		String turnStr1 = "Turn: ";
-		String turnStr2 =  Integer.toString(turnCount);
-		String turnStr3 = "  (~" + Integer.toString(turnLimit) + ")"; 	
+		String turnStr2 = turnText;
+		String turnStr3 = limitText; 	
 		
 		// Calculate positions
-		float pos1 = getDrawnTextPos(g, turnStr1+turnStr2+turnStr3, bmpFont, XOFF1, FONT_SCALE);
-		float pos2 = getDrawnTextPos(g, turnStr2+turnStr3, bmpFont, XOFF1, FONT_SCALE);
+		float pos1 = getDrawnTextPos(g, turnStr1.length() + turnStr2.length() + turnStr3.length(), 
+				bmpFont, XOFF1, FONT_SCALE);
+		float pos2 = getDrawnTextPos(g, turnStr2.length() + turnStr3.length(), 
+				bmpFont, XOFF1, FONT_SCALE);
 		float pos3 = getDrawnTextPos(g, turnStr3, bmpFont, XOFF2, FONT_SCALE);
 
 		// Draw texts
@@ -238,6 +269,10 @@ public class StatusManager {
 		turnLimit = stage.getTurnLimit();
 		stageIndex = stage.getStageIndex();
 		
+		// Create texts that do not change during the stage
+		stageText = "Stage " + Integer.toString(stageIndex) + ": " + stageName;
+		limitText = "  (~" + Integer.toString(turnLimit) + ")";
+		
 		keyCount = 0;
 		turnCount = 0;
 	}
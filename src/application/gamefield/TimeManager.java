@@ -1,5 +1,7 @@
 package application.gamefield;
 
+import core.LatencyMonitor;
+
 
 /**
  * Manager time (read: turns)
@@ -70,8 +72,13 @@ public class TimeManager {
 		turnTimer = time;
 		turnLength = time;
 		waiting = true;
-		if(playTurn)
+		if(playTurn) {
+			
 			++ turn;
+			
+			// The player has moved
+			LatencyMonitor.actionTaken();
+		}
 	}
 	
 	
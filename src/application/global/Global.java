@@ -24,6 +24,8 @@ public class Global extends Scene {
 	private Transition trans;
 	/** Save manager */
 	private SaveManager saveMan;
+	/** Has the transition changed since the previous draw */
+	private boolean changed = true;
 	
 	
 	@Override
@@ -47,6 +49,8 @@ public class Global extends Scene {
 	public void update(Gamepad vpad, float tm) {
 		
 		// Update transitions
+		if(trans.isActive())
+			changed = true;
 		trans.update(tm);
 	}
 	
@@ -56,6 +60,7 @@ public class Global extends Scene {
 		
 		// Draw transition
 		trans.draw(g);
+		changed = false;
 	}
 	
 
@@ -73,6 +78,13 @@ public class Global extends Scene {
 	}
 
 	
+	@Override
+	public boolean needsRedraw() {
+		
+		return changed || trans.isActive();
+	}
+	
+	
 	/**
 	 * Get global transition manager
 	 * @return Transition manager
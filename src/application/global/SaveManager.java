@@ -103,8 +103,12 @@ public class SaveManager {
 		try {
 			
 			reader = new BufferedReader(new FileReader(filename));
-			// Read completion data
-			completion = (new CSVParser()).parseInt(reader.readLine());
+			// Read completion data. There must be a value
+			// for each stage, or the defaults are kept
+			int[] data = new int[completion.length];
+			if((new CSVParser()).parseInt(reader.readLine(), data) != data.length)
+				throw new NumberFormatException("Missing completion data");
+			completion = data;
 			// Read latest stage data
 			currentStage = Integer.parseInt(reader.readLine());
 			// Read the ending state
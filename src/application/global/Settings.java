@@ -61,6 +61,19 @@ public class Settings extends MenuContainer {
 	}
 	
 	
+	/**
+	 * Update frame rate button text
+	 */
+	private void updateFrameRateButtonText() {
+		
+		if(eventMan.isFrameInterpolationEnabled())
+			buttons.getButton(3).setText(BUTTON_TEXT[3] + "Smooth");
+		else
+			buttons.getButton(3).setText(BUTTON_TEXT[3] + 
+					Integer.toString(eventMan.getFrameRate()) + " FPS");
+	}
+	
+	
 	
 	/**
 	 * Save settings
@@ -91,6 +104,9 @@ public class Settings extends MenuContainer {
 			writer.write(Integer.toString(
 					eventMan.getFrameRate())
 					+ "\n");
+			// Write frame interpolation state
+			writer.write(
+					Integer.toString(eventMan.isFrameInterpolationEnabled() ? 1 : 0) + "\n");
 
 			
 		} catch (Exception e) {
@@ -177,13 +193,28 @@ public class Settings extends MenuContainer {
 			@Override
 			public void execute(int index) {
 				
-				// Update frame rate
+				// Update frame rate. Cycles 30 FPS, 60 FPS and
+				// 60 updates per second drawn at the refresh rate
 				int fps = eventMan.getFrameRate();
-				fps = fps == 30 ? 60 : 30;				
+				boolean smooth = eventMan.isFrameInterpolationEnabled();
+				if(smooth) {
+					
+					fps = 30;
+					smooth = false;
+				}
+				else if(fps == 30) {
+					
+					fps = 60;
+				}
+				else {
+					
+					smooth = true;
+				}
 				eventMan.setFrameRate(fps);
+				eventMan.setFrameInterpolation(smooth);
 				
 				// Update string
-				buttons.getButton(3).setText(BUTTON_TEXT[3] + Integer.toString(fps) + " FPS");
+				updateFrameRateButtonText();
 			}
 		};
 		leftCbs[3] = cbs[3];
@@ -215,8 +246,7 @@ public class Settings extends MenuContainer {
 		}
 		
 		// Update button texts
-		int fps = eventMan.getFrameRate();
-		buttons.getButton(3).setText(BUTTON_TEXT[3] + Integer.toString(fps) + " FPS");
+		updateFrameRateButtonText();
 		updateVolumeButtonText(buttons.getButton(1), 1, audioMan.getMusicVolume());
 		updateVolumeButtonText(buttons.getButton(2), 2, audioMan.getSoundVolume());
 	}
@@ -312,6 +342,12 @@ public class Settings extends MenuContainer {
 			eventMan.setFrameRate(
 					Integer.parseInt(reader.readLine())
 					);
+			
+			// Read frame interpolation state, might be
+			// missing from older files
+			String line = reader.readLine();
+			if(line != null)
+				eventMan.setFrameInterpolation(Integer.parseInt(line) == 1);
 		}
 		catch(FileNotFoundException e) {
 			
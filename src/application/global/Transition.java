@@ -1,6 +1,7 @@
 package application.global;
 
 import core.renderer.Graphics;
+import core.renderer.Interpolator;
 import core.renderer.Transformations;
 import core.utility.RGBFloat;
 import core.utility.VoidCallback;
@@ -42,6 +43,8 @@ public class Transition {
 	private RGBFloat color = new RGBFloat(1.0f, 1.0f, 1.0f);
 	/** Callback */
 	private VoidCallback cb = null;
+	/** Smooths the timer between updates */
+	private Interpolator progressInterp = new Interpolator();
 	
 	
 	/**
@@ -50,7 +53,7 @@ public class Transition {
 	 */
 	private void drawFading(Graphics g) {
 		
-		float t = timer / FADE_TIME;
+		float t = getTimer(g);
 		float alpha = mode == Mode.In ? 1.0f-t :  t;
 		
 		// Set transform
@@ -144,6 +147,9 @@ public class Transition {
 		this.timer = FADE_TIME;
 		
 		active = true;
+		
+		// Do not interpolate from the previous transition
+		progressInterp = new Interpolator();
 	}
 	
 	
@@ -167,6 +173,27 @@ public class Transition {
 	}
 	
 	
+	/**
+	 * Get timer value interpolated between updates, 
+	 * scaled to [0,1]. Use when drawing
+	 * @param g Graphics object
+	 * @return Timer value in range [0, 1]
+	 */
+	public float getTimer(Graphics g) {
+		
+		// Progress grows through both modes, so it can 
+		// be interpolated over the mode change
+		float progress = mode == Mode.In ? FADE_TIME - timer : 2*FADE_TIME - timer;
+		float p = progressInterp.get(g, progress);
+		float t = mode == Mode.In ? FADE_TIME - p : 2*FADE_TIME - p;
+		
+		// Do not cross the mode change
+		t = Math.max(0.0f, Math.min(FADE_TIME, t));
+		
+		return t / FADE_TIME;
+	}
+	
+	
 	/**
 	 * Get fading mode
 	 * @return
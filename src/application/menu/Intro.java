@@ -23,6 +23,9 @@ import core.utility.VoidCallback;
  */
 public class Intro extends Scene {
 
+	/** Confirm action */
+	static private final int ACTION_CONFIRM = Gamepad.getAction("confirm");
+	
 	/** Initial time */
 	static private final float INITIAL_TIME = 90.0f;
 	
@@ -93,7 +96,7 @@ public class Intro extends Scene {
 		
 		// Update timer
 		timer -= 1.0f * tm;
-		if(timer <= 0.0f || vpad.getButtonByName("confirm") == State.Pressed) {
+		if(timer <= 0.0f || vpad.getActionState(ACTION_CONFIRM) == State.Pressed) {
 			
 			// Move to the title screen
 			trans.activate(Mode.In, Type.Fade, 1.0f, new RGBFloat(1, 1, 1), 
@@ -30,6 +30,11 @@ import core.utility.VoidCallback;
  */
 public class TitleMenu extends Scene {
 
+	/** Confirm action */
+	static private final int ACTION_CONFIRM = Gamepad.getAction("confirm");
+	/** Quit action */
+	static private final int ACTION_QUIT = Gamepad.getAction("quit");
+	
 	/** Initial phase timer */
 	static private final float INITIAL_PHASE_TIME = 30.0f;
 	/** Button count */
@@ -56,6 +61,8 @@ public class TitleMenu extends Scene {
 	private boolean leaving = false;
 	/** If entering for the first time */
 	private boolean enteringFirstTime = true;
+	/** Has the menu changed since the previous draw */
+	private boolean changed = true;
 	
 	/** Title phase */
 	private int phase = 0;
@@ -275,6 +282,20 @@ public class TitleMenu extends Scene {
 	}
 	
 	
+	/**
+	 * Is the menu animating, i.e. would it look
+	 * different in the next frame
+	 * @return True, if animating
+	 */
+	private boolean isAnimating() {
+		
+		// "Press any key" blinks until the buttons appear
+		return phase < 2 || phaseTimer > 0.0f ||
+			buttons.isAnimating() || 
+			settings.isAnimating() || confBox.isAnimating();
+	}
+	
+	
 	/**
 	 * Update different phases
 	 * @param vpad Gamepad
@@ -288,7 +309,7 @@ public class TitleMenu extends Scene {
 		case 1:	
 			
 			// Check if enter pressed
-			if(vpad.getButtonByName("confirm") == State.Pressed) {
+			if(vpad.getActionState(ACTION_CONFIRM) == State.Pressed) {
 									
 				phaseTimer = INITIAL_PHASE_TIME;
 			}
@@ -399,6 +420,9 @@ public class TitleMenu extends Scene {
 		
 		final float TEXT_ALPHA_SPEED = 0.05f;
 		
+		if(vpad.hasInput() || isAnimating())
+			changed = true;
+		
 		// If transition active, do nothing
 		if(trans.isActive()) {
 			
@@ -441,7 +465,7 @@ public class TitleMenu extends Scene {
 		textAlphaFactor += TEXT_ALPHA_SPEED * tm;
 		
 		// If quit button pressed, quit
-		if(vpad.getButtonByName("quit") == State.Pressed) {
+		if(vpad.getActionState(ACTION_QUIT) == State.Pressed) {
 						
 			quit();
 		}
@@ -473,14 +497,14 @@ public class TitleMenu extends Scene {
 			if(trans.getMode() == Mode.In) {
 				
 				if(leaving) 
-					scale = 1.0f - FADE_SCALE_OUT* (1.0f-trans.getTimer());
+					scale = 1.0f - FADE_SCALE_OUT* (1.0f-trans.getTimer(g));
 				
 				else
-					scale = 1.0f + FADE_SCALE_IN* (1.0f-trans.getTimer());
+					scale = 1.0f + FADE_SCALE_IN* (1.0f-trans.getTimer(g));
 			}
 			else if(enteringFirstTime) {
 				
-				scale = 1.0f + FADE_SCALE_IN_FIRST* (trans.getTimer());
+				scale = 1.0f + FADE_SCALE_IN_FIRST* (trans.getTimer(g));
 			}
 			
 			tr.translate(view.x / 2, view.y/2);
@@ -536,6 +560,8 @@ public class TitleMenu extends Scene {
 		
 		// Draw confirm box
 		drawMenuContainer(g, confBox);
+		
+		changed = false;
 	}
 
 	
@@ -552,5 +578,12 @@ public class TitleMenu extends Scene {
 		// Set defaults
 		textAlphaFactor = 0.0f;
 	}
+	
+	
+	@Override
+	public boolean needsRedraw() {
+		
+		return changed;
+	}
 
 }
@@ -3,6 +3,7 @@ package application.stagemenu;
 import core.renderer.Bitmap;
 import core.renderer.Flip;
 import core.renderer.Graphics;
+import core.renderer.Interpolator;
 import core.renderer.Transformations;
 import core.types.Vector2;
 import core.utility.AssetPack;
@@ -18,6 +19,13 @@ public class Mirror {
 	static private Bitmap bmpMirror;
 	/** Icons bitmap */
 	static private Bitmap bmpIcons;
+	
+	/** Mirror frame scale amplitude */
+	static private final float SCALE_MULTIPLIER1 = 0.05f;
+	/** Glass scale amplitude */
+	static private final float SCALE_MULTIPLIER2 = 0.1f;
+	/** Pointer floating amplitude */
+	static private final float FLOAT_AMPLITUDE = 8.0f;
 
 	
 	/** Size factor */
@@ -27,11 +35,20 @@ public class Mirror {
 	private Vector2 cursorPos;
 	/** Pointer position */
 	private Vector2 pointerPos;
+	/** Smooths the pointer position between updates */
+	private Interpolator pointerInterp = new Interpolator();
 	/** Cursor floating factor */
 	private float floatFactor;
 	/** Has the pointer been initialized (i.e initial pos set) */
 	private boolean pointerInitialized;
 	
+	/** Size factor when drawn the last time */
+	private float drawnSizeFactor;
+	/** Floating factor when drawn the last time */
+	private float drawnFloatFactor;
+	/** Pointer position when drawn the last time */
+	private Vector2 drawnPointerPos;
+	
 	/** Width */
 	private float width;
 	/** Height */
@@ -107,8 +124,6 @@ public class Mirror {
 		final float MARKER_SCALE_Y = 1.0f;
 		final float CURSOR_SCALE = 1.5f;
 		
-		final float FLOAT_AMPLITUDE = 8.0f;
-		
 		// Draw marker
 		float w = 64.0f * MARKER_SCALE_X;
 		float h = 64.0f * MARKER_SCALE_Y;
@@ -121,8 +136,9 @@ public class Mirror {
 		float cursorOff = -FLOAT_AMPLITUDE + (float)Math.sin(floatFactor) * FLOAT_AMPLITUDE;
 		w = 64.0f * CURSOR_SCALE;
 		h = 64.0f * CURSOR_SCALE;
-		x = dx + pointerPos.x - w/2;
-		y = dy + pointerPos.y - h + cursorOff;
+		Vector2 p = pointerInterp.get(g, pointerPos);
+		x = dx + p.x - w/2;
+		y = dy + p.y - h + cursorOff;
 		g.drawScaledBitmapRegion(bmpIcons, 0, 0, 64, 64, 
 				x, y, w, h, Flip.NONE);
 		
@@ -176,6 +192,7 @@ public class Mirror {
 		sizeFactor = 0.0f;
 		cursorPos = new Vector2();
 		pointerPos = new Vector2();
+		drawnPointerPos = new Vector2(-1.0f, -1.0f);
 		floatFactor = 0.0f;
 		pointerInitialized = false;
 		
@@ -213,8 +230,6 @@ public class Mirror {
 		
 		final float POS_X_P = 0.66f;
 		final float POS_Y_P = 0.45f;
-		final float SCALE_MULTIPLIER1 = 0.05f;
-		final float SCALE_MULTIPLIER2 = 0.1f;
 		final float ALPHA_START = 0.3f;
 		final float ALPHA_FACTOR = 0.1f;
 		final float SHADOW_OFF = 16.0f;
@@ -268,6 +283,34 @@ public class Mirror {
 		// Draw cursor
 		if(pointerInitialized)
 			drawCursor(g, x, y);
+		
+		// Store the drawn state
+		drawnSizeFactor = sizeFactor;
+		drawnFloatFactor = floatFactor;
+		drawnPointerPos.x = pointerPos.x;
+		drawnPointerPos.y = pointerPos.y;
+	}
+	
+	
+	/**
+	 * Has the mirror moved at least a pixel since
+	 * it was drawn the last time. The animation is 
+	 * slow, so most ticks move it less than that
+	 * @return True, if moved
+	 */
+	public boolean hasMoved() {
+		
+		final float LIMIT = 1.0f;
+		
+		// The glass scales the most
+		float scaleDelta = Math.abs((float)Math.sin(sizeFactor) - 
+				(float)Math.sin(drawnSizeFactor)) * SCALE_MULTIPLIER2 * width;
+		float floatDelta = Math.abs((float)Math.sin(floatFactor) - 
+				(float)Math.sin(drawnFloatFactor)) * FLOAT_AMPLITUDE;
+		float pointerDelta = (float)Math.hypot(pointerPos.x - drawnPointerPos.x, 
+				pointerPos.y - drawnPointerPos.y);
+		
+		return scaleDelta >= LIMIT || floatDelta >= LIMIT || pointerDelta >= LIMIT;
 	}
 
 
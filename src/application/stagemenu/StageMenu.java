@@ -1,5 +1,8 @@
 package application.stagemenu;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import application.Gamepad;
 import application.Scene;
 import application.global.Global;
@@ -13,6 +16,7 @@ import core.renderer.Bitmap;
 import core.renderer.Graphics;
 import core.renderer.Transformations;
 import core.types.Vector2;
+import core.utility.AssetHandle;
 import core.utility.AssetPack;
 import core.utility.RGBFloat;
 import core.utility.Tilemap;
@@ -25,6 +29,9 @@ import core.utility.VoidCallback;
  */
 public class StageMenu extends Scene {
 
+	/** Quit action */
+	static private final int ACTION_QUIT = Gamepad.getAction("quit");
+	
 	/** Amount of buttons (= stage count + back button) */
 	static public final int BUTTON_COUNT = 35 +1;
 	
@@ -60,6 +67,9 @@ public class StageMenu extends Scene {
 	 * 1 if bad played, 2 if good (and thus all) played */
 	private int endingPlayed = 0;
 	
+	/** Has the menu changed since the previous draw */
+	private boolean changed = true;
+	
 	
 	/**
 	 * Quit
@@ -172,25 +182,23 @@ public class StageMenu extends Scene {
 	
 	
 	/**
-	 * Get the amount of active buttons (i.e amount of stages
-	 * that exist). NOTE: If 1 & 2 exist, and 3 not, it does not 
-	 * matter if 4 exists, this returns 2.
+	 * Get the stage tilemaps, one for each active button.
+	 * NOTE: If 1 & 2 exist, and 3 not, it does not 
+	 * matter if 4 exists, this returns 2 tilemaps.
 	 * @param assets Asset pack
-	 * @return Active button count
+	 * @return Stage tilemap handles
 	 */
-	private int getActiveButtonCount(AssetPack assets) {
+	private List<AssetHandle<Tilemap>> getStageMaps(AssetPack assets) {
 		
-		int count = 0;
-		for(int i = 1; i < BUTTON_COUNT; ++ i) {
+		List<AssetHandle<Tilemap>> maps = new ArrayList<AssetHandle<Tilemap>> ();
+		AssetHandle<Tilemap> handle;
+		while(maps.size() < BUTTON_COUNT-1 && 
+			(handle = assets.getTilemapHandle(Integer.toString(maps.size() + 1))) != null) {
 			
-			if(assets.getTilemap(Integer.toString(i)) == null) {
-				
-				break;
-			}
-			++ count;
+			maps.add(handle);
 		}
 		
-		return count;
+		return maps;
 	}
 	
 	
@@ -356,7 +364,8 @@ public class StageMenu extends Scene {
 		stageButtons = new VerticalButtonList();
 		
 		// Get active button count
-		int bcount = getActiveButtonCount(assets);
+		List<AssetHandle<Tilemap>> stageMaps = getStageMaps(assets);
+		int bcount = stageMaps.size();
 		
 		// Get stage names & difficulties
 		stageNames = new String[bcount];
@@ -364,7 +373,7 @@ public class StageMenu extends Scene {
 		Tilemap map;
 		for(int i = 1; i <= bcount; ++ i) {
 			
-			map = assets.getTilemap(Integer.toString(i));
+			map = assets.getTilemap(stageMaps.get(i -1));
 			stageNames[i -1] = map.getProperty("name");
 			difficulties[i -1] = Integer.parseInt(map.getProperty("difficulty"));
 		}
@@ -438,6 +447,9 @@ public class StageMenu extends Scene {
 	@Override
 	public void update(Gamepad vpad, float tm) {
 		
+		if(vpad.hasInput() || stageButtons.isAnimating() || mirror.hasMoved())
+			changed = true;
+		
 		// If fading, wait
 		if(trans.isActive())
 			return;
@@ -457,7 +469,7 @@ public class StageMenu extends Scene {
 		mirror.update(tm);
 		
 		// Check if quit button pressed
-		if(vpad.getButtonByName("quit") == State.Pressed) {
+		if(vpad.getActionState(ACTION_QUIT) == State.Pressed) {
 			
 			quit();
 		}
@@ -484,18 +496,18 @@ public class StageMenu extends Scene {
 			float scale = 1.0f;
 			if(leaving) {
 				
-				scale = 1.0f - FADE_SCALE* (1.0f-trans.getTimer());
+				scale = 1.0f - FADE_SCALE* (1.0f-trans.getTimer(g));
 			}
 			else if(entering) {
 				
-				scale = 1.0f - FADE_SCALE* trans.getTimer();
+				scale = 1.0f - FADE_SCALE* trans.getTimer(g);
 			}
 			else {
 				
 				if(trans.getMode() == Mode.Out)
-					scale = 1.0f + FADE_SCALE* trans.getTimer();
+					scale = 1.0f + FADE_SCALE* trans.getTimer(g);
 				else
-					scale = 1.0f + FADE_SCALE* (1.0f-trans.getTimer());
+					scale = 1.0f + FADE_SCALE* (1.0f-trans.getTimer(g));
 			}
 			
 			tr.translate(view.x/2, view.y/2);
@@ -516,6 +528,8 @@ public class StageMenu extends Scene {
 		
 		// Draw info box
 		drawInfoBox(g);
+		
+		changed = false;
 	}
 
 	
@@ -621,5 +635,12 @@ public class StageMenu extends Scene {
 		}
 		
 	}
+	
+	
+	@Override
+	public boolean needsRedraw() {
+		
+		return changed;
+	}
 
 }
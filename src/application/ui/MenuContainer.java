@@ -142,6 +142,18 @@ public abstract class MenuContainer {
 	}
 	
 	
+	/**
+	 * Is the container animating, i.e. would it
+	 * look different in the next frame
+	 * @return True, if animating
+	 */
+	public boolean isAnimating() {
+		
+		return active && 
+			(timer > 0.0f || (buttons != null && buttons.isAnimating()));
+	}
+	
+	
 	/**
 	 * Is ready for "full action"
 	 * @return True or false
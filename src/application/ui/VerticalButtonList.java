@@ -20,6 +20,11 @@ import core.utility.AssetPack;
  */
 public class VerticalButtonList {
 
+	/** Confirm action */
+	static private final int ACTION_CONFIRM = Gamepad.getAction("confirm");
+	/** Fire1 action */
+	static private final int ACTION_FIRE1 = Gamepad.getAction("fire1");
+	
 	/** Time required cursor to move from button to button */
 	static private final float CURSOR_TIME = 12.0f;
 	
@@ -148,8 +153,8 @@ public class VerticalButtonList {
 			}
 			
 			// Check action buttons
-			if(vpad.getButtonByName("confirm") == State.Pressed ||
-			   vpad.getButtonByName("fire1") == State.Pressed) {
+			if(vpad.getActionState(ACTION_CONFIRM) == State.Pressed ||
+			   vpad.getActionState(ACTION_FIRE1) == State.Pressed) {
 				
 				buttons.get(cursorPos).activate(cursorPos);
 			}
@@ -318,6 +323,17 @@ public class VerticalButtonList {
 	}
 	
 	
+	/**
+	 * Is the list animating, i.e. would it look
+	 * different in the next frame
+	 * @return True, if animating
+	 */
+	public boolean isAnimating() {
+		
+		return cursorMoving || ytrans != ytarget;
+	}
+	
+	
 	/**
 	 * Reset cursor
 	 */
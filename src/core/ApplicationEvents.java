@@ -46,6 +46,14 @@ public class ApplicationEvents extends EventListener {
 	protected void onDraw() {};
 	
 	
+	/**
+	 * Does the application look different than when
+	 * it was drawn the last time
+	 * @return True, if needs to be drawn
+	 */
+	protected boolean needsRedraw() { return true; }
+	
+	
 	/**
 	 * Called when the application is destroyed
 	 */
@@ -76,6 +84,14 @@ public class ApplicationEvents extends EventListener {
 	protected void eventJoyUp(int button) { }
 	
 	
+	@Override
+	protected void eventFocus(boolean focused) { }
+	
+	
+	@Override
+	protected void eventIconify(boolean iconified) { }
+	
+	
 	/**
 	 * Is the application running
 	 * @return True, if running
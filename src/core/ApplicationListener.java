@@ -2,8 +2,24 @@ package core;
 
 import static org.lwjgl.glfw.GLFW.*;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.locks.LockSupport;
+
+import com.sun.management.ThreadMXBean;
+
 import core.audio.AudioManager;
+import core.renderer.Bitmap;
+import core.renderer.CommandBackend;
+import core.renderer.CommandList;
 import core.renderer.Graphics;
+import core.renderer.NullBackend;
+import core.renderer.RecordingBackend;
+import core.renderer.RenderBackend;
+import core.renderer.Renderer;
+import core.renderer.TripleBuffer;
 import core.utility.AssetPack;
 
 
@@ -19,6 +35,17 @@ public class ApplicationListener extends WindowListener {
 	static final int COMPARABLE_FRAME_RATE = 60;
 	/** Default frame rate */
 	static final int DEFALT_FRAME_RATE = 30;
+	/** Default amount of frames to run when headless */
+	static final int DEFAULT_HEADLESS_FRAMES = 1000;
+	/** Default tick rate when the window is not focused */
+	static final int DEFAULT_BACKGROUND_TICK_RATE = 10;
+	
+	/** Loop mode: focused, running normally */
+	static public final int MODE_ACTIVE = 0;
+	/** Loop mode: not focused, ticking slowly */
+	static public final int MODE_BACKGROUND = 1;
+	/** Loop mode: iconified, ticking slowly without drawing */
+	static public final int MODE_MINIMISED = 2;
 
 	/** Input manager, handles input */
 	protected InputManager input;
@@ -34,6 +61,83 @@ public class ApplicationListener extends WindowListener {
 	
 	/** Time sum */
 	private double timeSum;
+	/** Time when the previous loop started */
+	private double loopTime;
+	
+	/** Is frame interpolation enabled, i.e. are frames
+	 *  drawn between the update ticks */
+	private boolean interpolate;
+	/** Amount of update ticks so far */
+	private int tickCount = 0;
+	
+	/** Frame pacer, sleeps between the frames */
+	private FramePacer pacer;
+	/** Display refresh rate */
+	private int refreshRate;
+	
+	/** Is the window focused */
+	private boolean focused = true;
+	/** Is the window iconified */
+	private boolean iconified = false;
+	/** Tick rate when not focused */
+	private int backgroundTickRate;
+	/** Time spent in each loop mode, in seconds */
+	private double[] modeTime = new double[3];
+	
+	/** Is a frame drawn only if something has changed */
+	private boolean redrawOnChange;
+	/** Must the next frame be drawn anyway */
+	private boolean forceRedraw = true;
+	
+	/** Is the input latency histogram drawn */
+	private boolean latencyOverlay;
+	/** Latency overlay font */
+	private Bitmap latencyFont;
+	/** Latency samples when the overlay was drawn */
+	private int latencyOverlaySamples = 0;
+	
+	/** Are rendering statistics printed */
+	private boolean printStats;
+	/** Time since the statistics were printed */
+	private double statsTimer;
+	/** Thread info, used to measure allocations. Null if not available */
+	private ThreadMXBean threadInfo = null;
+	/** Bytes allocated while drawing the previous frame */
+	private long drawAllocatedBytes;
+	
+	/** Backend used when headless, null otherwise */
+	private NullBackend headlessBackend = null;
+	/** Backend used with a render thread, null otherwise */
+	private CommandBackend commandBackend = null;
+	/** Render thread, null if rendering on the main thread */
+	private RenderThread renderThread = null;
+	
+	
+	/**
+	 * Load assets. A precompiled bundle is used if
+	 * one is given and it exists, otherwise the assets 
+	 * are loaded from the original files
+	 * @throws Exception If something goes wrong
+	 */
+	private void loadAssets() throws Exception {
+		
+		String xmlPath = conf.getParameterValueString("asset_path", "assets/assets.xml");
+		String bundle = conf.getParameterValueString("asset_bundle", "");
+		if(bundle.length() > 0 && new File(bundle).exists()) {
+			
+			try {
+				
+				assets.loadBundle(bundle, xmlPath);
+				return;
+			}
+			catch(IOException e) {
+				
+				System.out.println("Could not load the asset bundle: " + 
+						e.getMessage() + ", loading the original files instead");
+			}
+		}
+		assets.parseXML(xmlPath);
+	}
 	
 	
 	/**
@@ -48,34 +152,86 @@ public class ApplicationListener extends WindowListener {
 		// Create components
 		input = new InputManager();
 		
-		// Create a window and its context
-		initWindowContext();
+		// Create a window and its context. When headless,
+		// everything is drawn to a backend that only counts
+		// (and possibly logs) the calls
+		if(conf.getParameterValueInt("headless", 0) == 1) {
+			
+			String log = conf.getParameterValueString("render_log", "");
+			if(log.length() > 0)
+				headlessBackend = new RecordingBackend(new FileOutputStream(log));
+			else
+				headlessBackend = new NullBackend();
+			
+			Renderer.setBackend(headlessBackend);
+			initHeadlessContext();
+		}
+		else {
+			
+			initWindowContext();
+			
+			// Record the rendering and let another 
+			// thread pass it to GL
+			if(conf.getParameterValueInt("render_thread", 0) == 1) {
+				
+				RenderBackend gl = Renderer.backend();
+				TripleBuffer<CommandList> lists = new TripleBuffer<CommandList> (
+						new CommandList(), new CommandList(), new CommandList());
+				commandBackend = new CommandBackend(lists, 
+						gl.getMaxTextureSize(), gl.isFramebufferSupported());
+				
+				Renderer.setBackend(commandBackend);
+				renderThread = startRenderThread(lists);
+			}
+		}
 		
 		// Initialize graphics
 		graph = new Graphics();
 		int[] winSize = getWindowSize();
 		graph.setViewport(winSize[0], winSize[1]);
+		graph.setBatching(conf.getParameterValueInt("batch_rendering", 1) == 1);
+		printStats = conf.getParameterValueInt("render_stats", 0) == 1;
+		if(printStats && ManagementFactory.getThreadMXBean() instanceof ThreadMXBean) {
+			
+			threadInfo = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+			if(!threadInfo.isThreadAllocatedMemorySupported())
+				threadInfo = null;
+		}
 
 		// Create audio manager
 		audioMan = new AudioManager();
 		
 		// Read certain data from configuration
 		frameRate = conf.getParameterValueInt("frame_rate", DEFALT_FRAME_RATE);
+		interpolate = conf.getParameterValueInt("frame_interpolation", 0) == 1;
+		refreshRate = getRefreshRate();
+		backgroundTickRate = conf.getParameterValueInt("background_tick_rate", 
+				DEFAULT_BACKGROUND_TICK_RATE);
+		redrawOnChange = conf.getParameterValueInt("redraw_on_change", 1) == 1;
+		LatencyMonitor.setEnabled(conf.getParameterValueInt("latency_monitor", 0) == 1);
+		latencyOverlay = LatencyMonitor.isEnabled() && 
+				conf.getParameterValueInt("latency_overlay", 0) == 1;
+		pacer = new FramePacer(headlessBackend == null);
 		
 		// Call user-defined initialization method now
 		onInit();
 		
 		// Load assets
 		assets = new AssetPack();
-		assets.parseXML(conf.getParameterValueString("asset_path", "assets/assets.xml"));
+		assets.setWorkerCount(conf.getParameterValueInt("asset_threads", 0));
+		assets.setTimingReport(conf.getParameterValueInt("asset_timings", 0) == 1);
+		loadAssets();
+		latencyFont = assets.getBitmap("font");
 		
 		// Loading finished, call post-loading initialization
 		// method
 		onLoaded();
 		
 		// Reset timer
-		glfwSetTime(0.0);
+		if(headlessBackend == null)
+			glfwSetTime(0.0);
 		timeSum = 0.0;
+		loopTime = 0.0;
 		
 	}
 	
@@ -84,9 +240,33 @@ public class ApplicationListener extends WindowListener {
 	protected void eventResize(int w, int h) { 
 		
 		graph.setViewport(w, h);
+		forceRedraw = true;
 	}
 
 
+	@Override
+	protected void eventFocus(boolean focused) {
+		
+		this.focused = focused;
+		
+		// Do not keep sleeping at the background rate
+		if(focused)
+			pacer.wake();
+	}
+	
+	
+	@Override
+	protected void eventIconify(boolean iconified) {
+		
+		this.iconified = iconified;
+		if(!iconified) {
+			
+			forceRedraw = true;
+			pacer.wake();
+		}
+	}
+	
+	
 	@Override
 	protected void eventKeyDown(int key) { 
 		
@@ -128,8 +308,15 @@ public class ApplicationListener extends WindowListener {
 	 */
 	private void update(float tm) {
 		
+		// Handle the input events that happened 
+		// since the previous update
+		input.processEvents();
+		if(input.getPressTime() >= 0.0)
+			LatencyMonitor.inputHandled(input.getPressTime());
+		
 		// Call user-defined frame update method
 		onUpdate(tm);
+		++ tickCount;
 		
 		// Update input
 		input.update();
@@ -137,13 +324,107 @@ public class ApplicationListener extends WindowListener {
 	}
 	
 	
+	/**
+	 * Get the amount of bytes allocated by
+	 * the current thread so far
+	 * @return Allocated bytes, 0 if not measured
+	 */
+	private long getAllocatedBytes() {
+		
+		if(threadInfo == null) return 0;
+		
+		return threadInfo.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	
 	/**
 	 * Draw application
+	 * @param interpolation Position between the latest 
+	 * update tick and the next one
 	 */
-	private void draw() {
+	private void draw(float interpolation) {
+		
+		long allocStart = getAllocatedBytes();
 		
 		// Call user-defined frame rendering method
+		graph.setFrameTiming(tickCount, interpolation);
+		graph.beginFrame();
 		onDraw();
+		if(latencyOverlay) {
+			
+			LatencyMonitor.drawOverlay(graph, latencyFont);
+			latencyOverlaySamples = LatencyMonitor.getSampleCount();
+		}
+		graph.endFrame();
+		forceRedraw = false;
+		LatencyMonitor.frameDrawn();
+		
+		drawAllocatedBytes = getAllocatedBytes() - allocStart;
+	}
+	
+	
+	/**
+	 * Draw application and pass the recorded frame
+	 * to the render thread
+	 * @param interpolation Position between the latest 
+	 * update tick and the next one
+	 */
+	private void drawThreaded(float interpolation) {
+		
+		final long WAIT_TIME = 500000;
+		
+		if(renderThread.getError() != null) {
+			
+			throw renderThread.getError();
+		}
+		
+		// If the render thread has not taken the previous
+		// frame yet, drawing now would drop it
+		if(!commandBackend.canPublish()) {
+			
+			LockSupport.parkNanos(WAIT_TIME);
+			return;
+		}
+		
+		draw(interpolation);
+		commandBackend.publish();
+		renderThread.wake();
+	}
+	
+	
+	/**
+	 * Print rendering statistics, once per second
+	 * @param delta Time passed since the previous call
+	 */
+	private void updateStats(double delta) {
+		
+		final double STATS_INTERVAL = 1.0;
+		
+		if(!printStats) return;
+		
+		statsTimer += delta;
+		if(statsTimer >= STATS_INTERVAL) {
+			
+			System.out.println("Draw calls per frame: " + 
+					Integer.toString(graph.getDrawCallCount()) + 
+					(graph.isBatchingEnabled() ? " (batched)" : " (not batched)"));
+			System.out.println("GL state calls per frame: " + 
+					Integer.toString(graph.getStateCallsIssued()) + " issued, " +
+					Integer.toString(graph.getStateCallsSkipped()) + " skipped");
+			if(threadInfo != null) {
+				
+				System.out.println("Bytes allocated per frame: " + 
+						Long.toString(drawAllocatedBytes));
+			}
+			System.out.println("Time in loop modes: " + 
+					String.format("%.1f", modeTime[MODE_ACTIVE]) + " s active, " +
+					String.format("%.1f", modeTime[MODE_BACKGROUND]) + " s background, " +
+					String.format("%.1f", modeTime[MODE_MINIMISED]) + " s minimised");
+			System.out.println("Time spent sleeping: " + 
+					Integer.toString((int)Math.round(pacer.getSleepShare() * 100.0)) + " %");
+			pacer.resetCounters();
+			statsTimer -= STATS_INTERVAL;
+		}
 	}
 	
 	
@@ -158,31 +439,62 @@ public class ApplicationListener extends WindowListener {
 		// to be updated.
 		final int MAX_FRAME_UPDATE = 5;
 		
-		boolean redraw = true;
+		int mode = getLoopMode();
+		boolean active = mode == MODE_ACTIVE;
+		
+		boolean redraw = active;
 		final double frameWait = 1.0 / frameRate; 
 		
+		// In the background, tick once at a time at a 
+		// lower rate and let the rest of the time go
+		final double tickWait = active ? frameWait : 1.0 / backgroundTickRate;
+		final int maxUpdate = active ? MAX_FRAME_UPDATE : 1;
+		
 		// Wait until enough time has passed, 
 		// then update the frame
-		timeSum += glfwGetTime();
-		glfwSetTime(0.0);
+		// The timer is not reset, since input 
+		// events are timestamped with it
+		double now = glfwGetTime();
+		double delta = now - loopTime;
+		loopTime = now;
+		timeSum += delta;
+		modeTime[mode] += delta;
+		if(!active)
+			timeSum = Math.min(timeSum, tickWait);
+		
 		int updateCount = 0;
-		while(timeSum >= frameWait) {
+		while(timeSum >= tickWait) {
 
 			// Update frame and set frame to be redrawable
 			update((float)COMPARABLE_FRAME_RATE / (float)frameRate);
 			redraw = true;
 			
-			timeSum -= frameWait;
+			timeSum -= tickWait;
 			
-			if(++ updateCount >= MAX_FRAME_UPDATE)
+			if(++ updateCount >= maxUpdate)
 				break;
 		}
 
-		// Draw frame, if necessary
-		if(redraw) {
+		// Draw frame, if necessary. With interpolation every
+		// refresh is drawn, in between the update ticks.
+		// Nothing is drawn when minimised, or if nothing
+		// has changed since the previous frame
+		boolean drawn = false;
+		if(latencyOverlay && latencyOverlaySamples != LatencyMonitor.getSampleCount())
+			forceRedraw = true;
+		if(mode != MODE_MINIMISED && ((interpolate && active) || redraw) &&
+		   (!redrawOnChange || forceRedraw || needsRedraw())) {
 			
-			draw();
+			float interpolation = (interpolate && active) ? 
+					(float)Math.min(1.0, timeSum / frameWait) : 1.0f;
+			
+			if(renderThread != null)
+				drawThreaded(interpolation);
+			else
+				draw(interpolation);
+			drawn = true;
 		}
+		updateStats(delta);
 		
 		// If close button pressed
 		if(shouldClose()) {
@@ -190,13 +502,80 @@ public class ApplicationListener extends WindowListener {
 			terminate();
 		}
 		
-		// Refresh frame
-		refresh();
+		// Refresh frame. If nothing was drawn, the
+		// previous frame stays on the screen
+		if(drawn && renderThread == null) {
+			
+			refresh();
+			LatencyMonitor.frameShown(glfwGetTime());
+		}
+		else if(renderThread != null) {
+			
+			LatencyMonitor.frameShown(renderThread.getSwapCount(), 
+					renderThread.getSwapTime());
+		}
 		
 		// Poll events
 		glfwPollEvents();
 		// Call update event
 		updateJoyEvents();
+		
+		// Sleep until the next update tick is due. With 
+		// interpolation, until the next display refresh.
+		// If VSync works, the buffer swap has already
+		// used most of the time
+		double wait = (interpolate && active) ? 
+				1.0 / refreshRate : tickWait - timeSum;
+		pacer.waitFor(wait - (glfwGetTime() - loopTime));
+	}
+	
+	
+	/**
+	 * Get the current loop mode
+	 * @return Loop mode
+	 */
+	private int getLoopMode() {
+		
+		if(iconified) return MODE_MINIMISED;
+		
+		return focused ? MODE_ACTIVE : MODE_BACKGROUND;
+	}
+	
+	
+	/**
+	 * Run a fixed amount of frames as fast as possible
+	 * without a window and print what they cost
+	 */
+	private void runHeadless() {
+		
+		int frames = conf.getParameterValueInt("headless_frames", DEFAULT_HEADLESS_FRAMES);
+		float tm = (float)COMPARABLE_FRAME_RATE / (float)frameRate;
+		
+		headlessBackend.resetCounters();
+		long start = System.nanoTime();
+		
+		int count = 0;
+		while(count < frames && isRunning()) {
+			
+			update(tm);
+			draw(1.0f);
+			++ count;
+		}
+		
+		double time = (System.nanoTime() - start) / 1000000000.0;
+		if(count == 0) count = 1;
+		
+		System.out.println("Headless frames: " + Integer.toString(count) + 
+				" in " + String.format("%.3f", time) + " s (" + 
+				String.format("%.1f", count / time) + " fps)");
+		System.out.println("Per frame: " + 
+				Long.toString(headlessBackend.getCallCount() / count) + " calls, " + 
+				Long.toString(headlessBackend.getDrawCallCount() / count) + " draw calls, " +
+				Long.toString(headlessBackend.getVertexCount() / count) + " vertices, " +
+				Long.toString(headlessBackend.getTextureSwitchCount() / count) + " texture switches");
+		
+		if(headlessBackend instanceof RecordingBackend)
+			((RecordingBackend)headlessBackend).close();
 	}
 	
 	
@@ -217,6 +596,21 @@ public class ApplicationListener extends WindowListener {
 			// destroying "critical" content
 			onDestroy();
 		}
+		
+		// Store the input latency measurements
+		String path = conf.getParameterValueString("latency_dump", "");
+		if(LatencyMonitor.isEnabled() && path.length() > 0) {
+			
+			try {
+				
+				LatencyMonitor.dump(path);
+			}
+			catch(Exception e) {
+				
+				System.out.println("Failed to write the latency measurements: " + 
+						e.getMessage());
+			}
+		}
 	}
 	
 	
@@ -233,9 +627,16 @@ public class ApplicationListener extends WindowListener {
 			init();
 			
 			// Start the main loop
-			while(isRunning()) {
+			if(headlessBackend != null) {
+				
+				runHeadless();
+			}
+			else {
 				
-				loop();
+				while(isRunning()) {
+					
+					loop();
+				}
 			}
 		}
 		catch(Exception e) {
@@ -272,6 +673,39 @@ public class ApplicationListener extends WindowListener {
 	}
 	
 	
+	/**
+	 * Is frame interpolation enabled
+	 * @return True, if enabled
+	 */
+	public boolean isFrameInterpolationEnabled() {
+		
+		return interpolate;
+	}
+	
+	
+	/**
+	 * Enable or disable frame interpolation. When enabled,
+	 * updates still happen at the frame rate, but frames
+	 * are drawn at the display refresh rate
+	 * @param state State
+	 */
+	public void setFrameInterpolation(boolean state) {
+		
+		interpolate = state;
+	}
+	
+	
+	/**
+	 * Get the time spent in a loop mode
+	 * @param mode Loop mode
+	 * @return Time in seconds
+	 */
+	public double getModeTime(int mode) {
+		
+		return modeTime[mode];
+	}
+	
+	
 	/**
 	 * Get audio manager
 	 * @return Audio manager
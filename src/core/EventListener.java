@@ -2,12 +2,12 @@ package core;
 
 import org.lwjgl.glfw.*;
 
-import core.types.Vector2;
-
 import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+import java.nio.IntBuffer;
 
-import java.nio.ByteBuffer;
-import java.nio.FloatBuffer;
+import org.lwjgl.BufferUtils;
 
 
 /**
@@ -17,10 +17,25 @@ import java.nio.FloatBuffer;
  */
 public abstract class EventListener {
 
-	/** Joystick button buffer. We have it here because we want
-	 * to emulate event-driven joystick handling that GLFW
-	 * does not support yet. */
-	private int[] joyButtonBuffer = new int[InputManager.MAX_JOY_BUTTON];
+	/** The maximum amount of joysticks */
+	static private final int MAX_JOYSTICKS = GLFW_JOYSTICK_LAST + 1;
+	
+	/** Joystick buttons held down in the previous poll, one bit
+	 * per button. We have it here because we want to emulate
+	 * event-driven joystick handling that GLFW does not support yet. */
+	private int joyButtonMask = 0;
+	/** Combined joystick axes */
+	private float joyAxisX = 0.0f, joyAxisY = 0.0f;
+	/** Is a joystick connected */
+	private boolean[] joyConnected = new boolean[MAX_JOYSTICKS];
+	/** Amount of connected joysticks */
+	private int joyCount = 0;
+	/** Gamepad state, reused for every gamepad */
+	private GLFWGamepadState gamepadState;
+	/** Where GLFW stores the amount of axes, buttons or hats */
+	private IntBuffer countBuffer;
+	/** Address of the count buffer */
+	private long countAddress;
 	
 	
 	/**
@@ -67,6 +82,20 @@ public abstract class EventListener {
 	protected abstract void eventJoyUp(int button);
 	
 	
+	/**
+	 * Window focus gained or lost event
+	 * @param focused Is the window focused
+	 */
+	protected abstract void eventFocus(boolean focused);
+	
+	
+	/**
+	 * Window iconified or restored event
+	 * @param iconified Is the window iconified
+	 */
+	protected abstract void eventIconify(boolean iconified);
+	
+	
 	/**
 	 * Handle keyboard event
 	 * @param window Window
@@ -104,83 +133,170 @@ public abstract class EventListener {
 	
 	
 	/**
-	 * Update joystick, try to emulate
-	 * event-driven joystick input handling.
+	 * Get the axes and the buttons of a joystick that
+	 * has a gamepad mapping
+	 * @param jid Joystick ID
+	 * @return Button mask
 	 */
-	protected void updateJoyEvents() {
+	private int pollGamepad(int jid) {
+		
+		final int DPAD_COUNT = 4;
 		
-		// If not present, ignore
-		if(!(glfwJoystickPresent(GLFW_JOYSTICK_1))) return;
+		if(!glfwGetGamepadState(jid, gamepadState))
+			return 0;
 		
-		// Get joystick axes & buttons & hats
-		FloatBuffer abuf = glfwGetJoystickAxes(GLFW_JOYSTICK_1);
-		ByteBuffer bbuf = glfwGetJoystickButtons(GLFW_JOYSTICK_1);
-		ByteBuffer hbuf = glfwGetJoystickHats(GLFW_JOYSTICK_1);
-		try {
+		int mask = 0;
+		for(int i = 0; i <= GLFW_GAMEPAD_BUTTON_LAST && i < InputManager.MAX_JOY_BUTTON; ++ i) {
 			
-			// Send axis event request
-			if(abuf != null) {
-				
-				// Get first two axes
-				eventJoyAxis(abuf.get(), abuf.get());
-			}
+			if(gamepadState.buttons(i) == GLFW_PRESS)
+				mask |= 1 << i;
+		}
+		
+		// The directional pad overrides the stick
+		float x = gamepadState.axes(GLFW_GAMEPAD_AXIS_LEFT_X);
+		float y = gamepadState.axes(GLFW_GAMEPAD_AXIS_LEFT_Y);
+		int dpad = (mask >> GLFW_GAMEPAD_BUTTON_DPAD_UP) & ((1 << DPAD_COUNT) - 1);
+		if(dpad != 0) {
 			
-			// Convert hats to axis and send axis event request
-			if(hbuf != null) {
-				
-				Vector2 axis = new Vector2();
-				boolean changed = false;
-				int state = hbuf.get();
-				// TODO: Bitwise operators!
-				if(state == GLFW_HAT_UP || state == GLFW_HAT_RIGHT_UP || state == GLFW_HAT_LEFT_UP) {
-					
-					changed = true; 
-					axis.y = -1.0f; 
-				}
-				if(state == GLFW_HAT_DOWN || state == GLFW_HAT_RIGHT_DOWN  || state == GLFW_HAT_LEFT_DOWN) {
-					
-					changed = true; 
-					axis.y = 1.0f; 
-				}
-				if(state == GLFW_HAT_RIGHT || state == GLFW_HAT_RIGHT_UP || state == GLFW_HAT_RIGHT_DOWN) {
-					
-					changed = true; 
-					axis.x = 1.0f; 
-				}
-				if(state == GLFW_HAT_LEFT || state == GLFW_HAT_LEFT_UP || state == GLFW_HAT_LEFT_DOWN) {
-					
-					changed = true;  
-					axis.x = -1.0f; 
-				}
-				
-				if(changed)
-					eventJoyAxis(axis.x, axis.y);
+			x = 0.0f;
+			y = 0.0f;
+			if((mask & (1 << GLFW_GAMEPAD_BUTTON_DPAD_UP)) != 0) y = -1.0f;
+			if((mask & (1 << GLFW_GAMEPAD_BUTTON_DPAD_DOWN)) != 0) y = 1.0f;
+			if((mask & (1 << GLFW_GAMEPAD_BUTTON_DPAD_RIGHT)) != 0) x = 1.0f;
+			if((mask & (1 << GLFW_GAMEPAD_BUTTON_DPAD_LEFT)) != 0) x = -1.0f;
+		}
+		storeAxes(x, y);
+		
+		return mask;
+	}
+	
+	
+	/**
+	 * Get the axes and the buttons of a joystick 
+	 * without a gamepad mapping
+	 * @param jid Joystick ID
+	 * @return Button mask
+	 */
+	private int pollJoystick(int jid) {
+		
+		float x = 0.0f, y = 0.0f;
+		
+		// Get the first two axes
+		long axes = nglfwGetJoystickAxes(jid, countAddress);
+		if(axes != NULL && memGetInt(countAddress) >= 2) {
+			
+			x = memGetFloat(axes);
+			y = memGetFloat(axes + 4);
+		}
+		
+		// Convert the first hat to axes
+		long hats = nglfwGetJoystickHats(jid, countAddress);
+		if(hats != NULL && memGetInt(countAddress) >= 1) {
+			
+			int state = memGetByte(hats);
+			if(state != GLFW_HAT_CENTERED) {
 				
+				x = 0.0f;
+				y = 0.0f;
+				if((state & GLFW_HAT_UP) != 0) y = -1.0f;
+				if((state & GLFW_HAT_DOWN) != 0) y = 1.0f;
+				if((state & GLFW_HAT_RIGHT) != 0) x = 1.0f;
+				if((state & GLFW_HAT_LEFT) != 0) x = -1.0f;
 			}
+		}
+		storeAxes(x, y);
+		
+		// Get buttons
+		int mask = 0;
+		long buttons = nglfwGetJoystickButtons(jid, countAddress);
+		if(buttons != NULL) {
 			
-			// Send button event request
-			if(bbuf != null) {
+			int count = Math.min(memGetInt(countAddress), InputManager.MAX_JOY_BUTTON);
+			for(int i = 0; i < count; ++ i) {
 				
-				// Get buttons
-				int state = 0;
-				for(int i = 0; i < InputManager.MAX_JOY_BUTTON; ++ i) {
-					
-					// Compare to the previous 
-					state = (int)bbuf.get();
-					if(state != joyButtonBuffer[i]) {
-						
-						if(state == 1)
-							eventJoyDown(i);
-						
-						else if(state == 0)
-							eventJoyUp(i);
-					}
-					joyButtonBuffer[i] = state;
-				}
+				if(memGetByte(buttons + i) == GLFW_PRESS)
+					mask |= 1 << i;
 			}
 		}
-		catch(Exception e) {}
+		return mask;
+	}
+	
+	
+	/**
+	 * Store the axes of a joystick, if they are
+	 * tilted more than the ones stored before
+	 * @param x X axis
+	 * @param y Y axis
+	 */
+	private void storeAxes(float x, float y) {
+		
+		if(x*x + y*y > joyAxisX*joyAxisX + joyAxisY*joyAxisY) {
+			
+			joyAxisX = x;
+			joyAxisY = y;
+		}
+	}
+	
+	
+	/**
+	 * Handle joystick connected or disconnected event
+	 * @param jid Joystick ID
+	 * @param event Event
+	 */
+	private void joystickEvent(int jid, int event) {
+		
+		if(jid < 0 || jid >= MAX_JOYSTICKS) return;
 		
+		boolean connected = event == GLFW_CONNECTED;
+		if(connected == joyConnected[jid]) return;
+		
+		joyConnected[jid] = connected;
+		joyCount += connected ? 1 : -1;
+	}
+	
+	
+	/**
+	 * Update joysticks, try to emulate event-driven
+	 * joystick input handling. The buttons and axes
+	 * of all the joysticks are combined
+	 */
+	protected void updateJoyEvents() {
+		
+		// Nothing to do, unless a joystick has been
+		// connected, or a button was left down
+		if(joyCount == 0 && joyButtonMask == 0 && 
+		   joyAxisX == 0.0f && joyAxisY == 0.0f) 
+			return;
+		
+		joyAxisX = 0.0f;
+		joyAxisY = 0.0f;
+		int mask = 0;
+		for(int jid = 0; jid < MAX_JOYSTICKS && joyCount > 0; ++ jid) {
+			
+			if(!joyConnected[jid]) continue;
+			
+			if(glfwJoystickIsGamepad(jid))
+				mask |= pollGamepad(jid);
+			else
+				mask |= pollJoystick(jid);
+		}
+		
+		// Send axis event request
+		eventJoyAxis(joyAxisX, joyAxisY);
+		
+		// Send button event requests for the 
+		// buttons that have changed
+		int changed = mask ^ joyButtonMask;
+		for(int i = 0; changed != 0; ++ i, changed >>>= 1) {
+			
+			if((changed & 1) == 0) continue;
+			
+			if((mask & (1 << i)) != 0)
+				eventJoyDown(i);
+			else
+				eventJoyUp(i);
+		}
+		joyButtonMask = mask;
 	}
 	
 	
@@ -208,10 +324,42 @@ public abstract class EventListener {
 			}
 		});
 		
-		// Clear joystick buffer
-		for(int i = 0; i < joyButtonBuffer.length; ++ i) {
+		// Set focus callback
+		glfwSetWindowFocusCallback(window, new GLFWWindowFocusCallbackI() {
+			@Override
+			public void invoke(long win, boolean focused) {
+				
+				eventFocus(focused);
+			}
+		});
+		
+		// Set iconify callback
+		glfwSetWindowIconifyCallback(window, new GLFWWindowIconifyCallbackI() {
+			@Override
+			public void invoke(long win, boolean iconified) {
+				
+				eventIconify(iconified);
+			}
+		});
+		
+		// Set joystick callback
+		glfwSetJoystickCallback(new GLFWJoystickCallbackI() {
+			@Override
+			public void invoke(int jid, int event) {
+				
+				joystickEvent(jid, event);
+			}
+		});
+		
+		// Find the joysticks that are already connected
+		gamepadState = GLFWGamepadState.create();
+		countBuffer = BufferUtils.createIntBuffer(1);
+		countAddress = memAddress(countBuffer);
+		joyButtonMask = 0;
+		for(int jid = 0; jid < MAX_JOYSTICKS; ++ jid) {
 			
-			joyButtonBuffer[i] = 0;
+			if(glfwJoystickPresent(jid))
+				joystickEvent(jid, GLFW_CONNECTED);
 		}
 		
 	}
@@ -0,0 +1,116 @@
+package core;
+
+import static org.lwjgl.glfw.GLFW.*;
+
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Waits for the next frame without keeping a core
+ * busy. Most of the wait is slept, only the last 
+ * moment is spent spinning, since sleeping is not
+ * precise enough for that
+ * @author Jani Nykänen
+ *
+ */
+public class FramePacer {
+
+	/** The last part of the wait that is spun, in nanoseconds */
+	static private final long SPIN_TIME = 1000000;
+	/** Waits longer than this are spent waiting for events, 
+	 *  in nanoseconds */
+	static private final long EVENT_WAIT_TIME = 4000000;
+	
+	/** Are events waited for when idle */
+	private boolean waitEvents;
+	/** Should the current wait end early */
+	private boolean woken = false;
+	
+	/** Time spent sleeping since the last reset, in nanoseconds */
+	private long sleepTime = 0;
+	/** Time passed since the last reset, in nanoseconds */
+	private long totalTime = 0;
+	/** The previous call time */
+	private long lastTime;
+	
+	
+	/**
+	 * Constructor
+	 * @param waitEvents Are events waited for when idle. 
+	 * Needs a window, and must be called from the main thread
+	 */
+	public FramePacer(boolean waitEvents) {
+		
+		this.waitEvents = waitEvents;
+		lastTime = System.nanoTime();
+	}
+	
+	
+	/**
+	 * Wait for a while
+	 * @param time Time to wait, in seconds
+	 */
+	public void waitFor(double time) {
+		
+		long start = System.nanoTime();
+		long deadline = start + (long)(time * 1000000000.0);
+		
+		totalTime += start - lastTime;
+		
+		long remaining;
+		while(!woken && (remaining = deadline - System.nanoTime()) > SPIN_TIME) {
+			
+			// Wake up to events, so the input is handled
+			// as early as possible
+			if(waitEvents && remaining > EVENT_WAIT_TIME) {
+				
+				glfwWaitEventsTimeout((remaining - SPIN_TIME) / 1000000000.0);
+			}
+			else {
+				
+				LockSupport.parkNanos(remaining - SPIN_TIME);
+			}
+		}
+		
+		// Spin the rest
+		while(!woken && System.nanoTime() < deadline);
+		woken = false;
+		
+		lastTime = System.nanoTime();
+		sleepTime += lastTime - start;
+		totalTime += lastTime - start;
+	}
+	
+	
+	/**
+	 * End the current wait early, or skip the next one.
+	 * Meant to be called from an event callback
+	 */
+	public void wake() {
+		
+		woken = true;
+	}
+	
+	
+	/**
+	 * Get the share of time spent sleeping
+	 * since the last reset
+	 * @return Share, between 0 and 1
+	 */
+	public double getSleepShare() {
+		
+		if(totalTime == 0) return 0.0;
+		
+		return (double)sleepTime / (double)totalTime;
+	}
+	
+	
+	/**
+	 * Reset the counters
+	 */
+	public void resetCounters() {
+		
+		sleepTime = 0;
+		totalTime = 0;
+	}
+}
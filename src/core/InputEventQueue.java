@@ -0,0 +1,188 @@
+package core;
+
+
+/**
+ * A fixed size ring buffer of input events. Events
+ * are stored in primitive arrays, so nothing is allocated
+ * when they are added or removed. One thread may add
+ * events while another removes them
+ * @author Jani Nykänen
+ *
+ */
+public class InputEventQueue {
+
+	/** Event type: key pressed */
+	static public final int KEY_DOWN = 0;
+	/** Event type: key released */
+	static public final int KEY_UP = 1;
+	/** Event type: joystick button pressed */
+	static public final int JOY_DOWN = 2;
+	/** Event type: joystick button released */
+	static public final int JOY_UP = 3;
+	/** Event type: joystick axes moved */
+	static public final int JOY_AXIS = 4;
+	
+	
+	/** Index mask, capacity - 1 */
+	private int mask;
+	
+	/** Event types */
+	private int[] types;
+	/** Key or button codes */
+	private int[] codes;
+	/** Axis values */
+	private float[] xs, ys;
+	/** Timestamps, in seconds */
+	private double[] times;
+	
+	/** Amount of events added so far. Only
+	 *  changed by the adding thread */
+	private volatile int head = 0;
+	/** Amount of events removed so far. Only
+	 *  changed by the removing thread */
+	private volatile int tail = 0;
+	/** Events dropped because the queue was full */
+	private int dropped = 0;
+	
+	
+	/**
+	 * Constructor
+	 * @param capacity Capacity, rounded up to a power of two
+	 */
+	public InputEventQueue(int capacity) {
+		
+		int size = 1;
+		while(size < capacity) 
+			size <<= 1;
+		
+		mask = size - 1;
+		types = new int[size];
+		codes = new int[size];
+		xs = new float[size];
+		ys = new float[size];
+		times = new double[size];
+	}
+	
+	
+	/**
+	 * Add an event
+	 * @param type Event type
+	 * @param code Key or button code
+	 * @param x Axis x, if any
+	 * @param y Axis y, if any
+	 * @param time Timestamp
+	 * @return False, if the queue was full
+	 */
+	public boolean push(int type, int code, float x, float y, double time) {
+		
+		int h = head;
+		if(h - tail > mask) {
+			
+			++ dropped;
+			return false;
+		}
+		
+		int i = h & mask;
+		types[i] = type;
+		codes[i] = code;
+		xs[i] = x;
+		ys[i] = y;
+		times[i] = time;
+		
+		// Publish after the data has been written
+		head = h + 1;
+		
+		return true;
+	}
+	
+	
+	/**
+	 * Is the queue empty
+	 * @return True, if empty
+	 */
+	public boolean isEmpty() {
+		
+		return head == tail;
+	}
+	
+	
+	/**
+	 * Get the amount of queued events
+	 * @return Event count
+	 */
+	public int size() {
+		
+		return head - tail;
+	}
+	
+	
+	/**
+	 * Remove the oldest event
+	 */
+	public void pop() {
+		
+		if(head != tail)
+			tail = tail + 1;
+	}
+	
+	
+	/**
+	 * Get the type of the oldest event
+	 * @return Event type
+	 */
+	public int peekType() {
+		
+		return types[tail & mask];
+	}
+	
+	
+	/**
+	 * Get the key or button code of the oldest event
+	 * @return Code
+	 */
+	public int peekCode() {
+		
+		return codes[tail & mask];
+	}
+	
+	
+	/**
+	 * Get the axis x of the oldest event
+	 * @return Axis x
+	 */
+	public float peekX() {
+		
+		return xs[tail & mask];
+	}
+	
+	
+	/**
+	 * Get the axis y of the oldest event
+	 * @return Axis y
+	 */
+	public float peekY() {
+		
+		return ys[tail & mask];
+	}
+	
+	
+	/**
+	 * Get the timestamp of the oldest event
+	 * @return Time in seconds
+	 */
+	public double peekTime() {
+		
+		return times[tail & mask];
+	}
+	
+	
+	/**
+	 * Get the amount of events dropped because
+	 * the queue was full
+	 * @return Dropped event count
+	 */
+	public int getDroppedCount() {
+		
+		return dropped;
+	}
+}
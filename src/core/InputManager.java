@@ -15,6 +15,8 @@ public class InputManager {
 	static private final int KEY_COUNT = GLFW_KEY_LAST;
 	/** The maximum allowed joystick button index */
 	static public final int MAX_JOY_BUTTON = 16;
+	/** Event queue capacity */
+	static private final int QUEUE_CAPACITY = 256;
 	
 	/** Keyboard key states */
 	private State[] keyStates = new State[KEY_COUNT];
@@ -27,15 +29,40 @@ public class InputManager {
 	/** If any key/button was pressed */
 	private boolean anyPressed = false;
 	
+	/** Keys that have changed during the frame */
+	private int[] changedKeys = new int[KEY_COUNT];
+	/** Amount of changed keys */
+	private int changedKeyCount = 0;
+	/** Joystick buttons that have changed during the frame */
+	private int[] changedButtons = new int[MAX_JOY_BUTTON];
+	/** Amount of changed joystick buttons */
+	private int changedButtonCount = 0;
+	/** Have the axes changed during the frame */
+	private boolean axesChanged = false;
+	/** Did anything change during the previous frame */
+	private boolean changedBefore = true;
+	
+	/** Events waiting to be handled */
+	private InputEventQueue events = new InputEventQueue(QUEUE_CAPACITY);
+	/** Time of the latest press handled during the 
+	 *  frame, negative if none */
+	private double pressTime = -1.0;
+	/** The latest queued axes */
+	private float queuedAxisX = 0.0f, queuedAxisY = 0.0f;
+	
 	
 	/**
-	 * Update a state array
+	 * Update the changed values of a state array
 	 * @param arr State array
+	 * @param changed Changed indices
+	 * @param count Amount of changed indices
 	 */
-	private void updateStateArray(State[] arr) {
+	private void updateStateArray(State[] arr, int[] changed, int count) {
 		
-		for(int i = 0; i < arr.length; ++ i) {
+		int i;
+		for(int j = 0; j < count; ++ j) {
 			
+			i = changed[j];
 			if(arr[i] == State.Pressed)
 				arr[i] = State.Down;
 			
@@ -73,18 +100,64 @@ public class InputManager {
 	}
 	
 	
+	/**
+	 * Set a state pressed
+	 * @param arr State array
+	 * @param index Value index
+	 * @param time Event time
+	 * @return Changed state, -1 if the state has already
+	 * changed during this frame, 0 if ignored
+	 */
+	private int setPressed(State[] arr, int index, double time) {
+		
+		if(arr[index] == State.Pressed || arr[index] == State.Released)
+			return -1;
+		
+		// If already down, ignore
+		if(arr[index] == State.Down)
+			return 0;
+		
+		arr[index] = State.Pressed;
+		anyPressed = true;
+		pressTime = time;
+		
+		return 1;
+	}
+	
+	
+	/**
+	 * Set a state released
+	 * @param arr State array
+	 * @param index Value index
+	 * @return Changed state, -1 if the state has already
+	 * changed during this frame, 0 if ignored
+	 */
+	private int setReleased(State[] arr, int index) {
+		
+		if(arr[index] == State.Pressed || arr[index] == State.Released)
+			return -1;
+		
+		// If already up, ignore
+		if(arr[index] == State.Up)
+			return 0;
+		
+		arr[index] = State.Released;
+		
+		return 1;
+	}
+	
+	
 	/**
 	 * Handle key pressed event
 	 * @param key Key
 	 */
 	public void onKeyPressed(int key) {
 		
-		// If key is out of range or already down, ignore
-		if(key < 0 || key >= KEY_COUNT || keyStates[key] == State.Down) 
+		// If key is out of range, ignore
+		if(key < 0 || key >= KEY_COUNT) 
 			return;
 		
-		keyStates[key] = State.Pressed;
-		anyPressed = true;
+		events.push(InputEventQueue.KEY_DOWN, key, 0.0f, 0.0f, glfwGetTime());
 	}
 	
 	
@@ -94,11 +167,11 @@ public class InputManager {
 	 */
 	public void onKeyReleased(int key) {
 		
-		// If key is out of range or already up, ignore
-		if(key < 0 || key >= KEY_COUNT || keyStates[key] == State.Up) 
+		// If key is out of range, ignore
+		if(key < 0 || key >= KEY_COUNT) 
 			return;
 		
-		keyStates[key] = State.Released;
+		events.push(InputEventQueue.KEY_UP, key, 0.0f, 0.0f, glfwGetTime());
 	}
 	
 	
@@ -109,8 +182,16 @@ public class InputManager {
 	 */
 	public void onJoyAxis(float x, float y) {
 		
-		joyAxis.x = x;
-		joyAxis.y = y;
+		// The axes are polled, so most of the 
+		// events would not change anything
+		if(x == queuedAxisX && y == queuedAxisY)
+			return;
+		
+		if(events.push(InputEventQueue.JOY_AXIS, 0, x, y, glfwGetTime())) {
+			
+			queuedAxisX = x;
+			queuedAxisY = y;
+		}
 	}
 	
 	
@@ -120,12 +201,11 @@ public class InputManager {
 	 */
 	public void onJoyPressed(int button) {
 		
-		// If the button is out of range or already down, ignore
-		if(button < 0 || button >= MAX_JOY_BUTTON || joyStates[button] == State.Down) 
+		// If the button is out of range, ignore
+		if(button < 0 || button >= MAX_JOY_BUTTON) 
 			return;
 				
-		joyStates[button] = State.Pressed;
-		anyPressed = true;
+		events.push(InputEventQueue.JOY_DOWN, button, 0.0f, 0.0f, glfwGetTime());
 	}
 	
 	
@@ -135,11 +215,63 @@ public class InputManager {
 	 */
 	public void onJoyReleased(int button) {
 		
-		// If the button is out of range or already down, ignore
-		if(button < 0 || button >= MAX_JOY_BUTTON || joyStates[button] == State.Up) 
+		// If the button is out of range, ignore
+		if(button < 0 || button >= MAX_JOY_BUTTON) 
 			return;
 				
-		joyStates[button] = State.Released;
+		events.push(InputEventQueue.JOY_UP, button, 0.0f, 0.0f, glfwGetTime());
+	}
+	
+	
+	/**
+	 * Handle the queued events. If a key or a button
+	 * changes twice, the rest of the events are left
+	 * to the next frame, so quick taps are not lost
+	 */
+	public void processEvents() {
+		
+		pressTime = -1.0;
+		
+		int result;
+		int code;
+		while(!events.isEmpty()) {
+			
+			code = events.peekCode();
+			switch(events.peekType()) {
+			
+			case InputEventQueue.KEY_DOWN:
+			case InputEventQueue.KEY_UP:
+				result = events.peekType() == InputEventQueue.KEY_DOWN ?
+						setPressed(keyStates, code, events.peekTime()) :
+						setReleased(keyStates, code);
+				if(result == 1)
+					changedKeys[changedKeyCount ++] = code;
+				break;
+				
+			case InputEventQueue.JOY_DOWN:
+			case InputEventQueue.JOY_UP:
+				result = events.peekType() == InputEventQueue.JOY_DOWN ?
+						setPressed(joyStates, code, events.peekTime()) :
+						setReleased(joyStates, code);
+				if(result == 1)
+					changedButtons[changedButtonCount ++] = code;
+				break;
+				
+			case InputEventQueue.JOY_AXIS:
+				joyAxis.x = events.peekX();
+				joyAxis.y = events.peekY();
+				axesChanged = true;
+				result = 1;
+				break;
+				
+			default:
+				result = 0;
+				break;
+			}
+			
+			if(result < 0) break;
+			events.pop();
+		}
 	}
 	
 	
@@ -148,10 +280,15 @@ public class InputManager {
 	 */
 	public void update() {
 		
-		// Update keyboard states
-		updateStateArray(keyStates);
-		// Update joystick button states
-		updateStateArray(joyStates);
+		// Update the keyboard and joystick button 
+		// states that have changed
+		updateStateArray(keyStates, changedKeys, changedKeyCount);
+		updateStateArray(joyStates, changedButtons, changedButtonCount);
+		
+		changedBefore = changedKeyCount > 0 || changedButtonCount > 0;
+		changedKeyCount = 0;
+		changedButtonCount = 0;
+		axesChanged = false;
 		
 		anyPressed = false;
 	}
@@ -199,6 +336,42 @@ public class InputManager {
 	}
 	
 	
+	/**
+	 * Are the states and the axes the same as in the
+	 * previous frame, i.e. has nothing changed
+	 * during this frame or turned from pressed to
+	 * down (or released to up) after the previous one
+	 * @return True, if nothing has changed
+	 */
+	public boolean isIdle() {
+		
+		return !changedBefore && !axesChanged &&
+			changedKeyCount == 0 && changedButtonCount == 0;
+	}
+	
+	
+	/**
+	 * Get the time of the latest key or button press
+	 * handled during the frame
+	 * @return Time in seconds, negative if nothing pressed
+	 */
+	public double getPressTime() {
+		
+		return pressTime;
+	}
+	
+	
+	/**
+	 * Get the amount of events dropped because
+	 * the queue was full
+	 * @return Dropped event count
+	 */
+	public int getDroppedEventCount() {
+		
+		return events.getDroppedCount();
+	}
+	
+	
 	/**
 	 * Constructor
 	 */
@@ -206,6 +379,7 @@ public class InputManager {
 		
 		// Initialize all input state arrays
 		initStateArray(keyStates);
+		initStateArray(joyStates);
 		
 		// Initialize other components
 		joyAxis = new Vector2();
@@ -0,0 +1,318 @@
+package core;
+
+import static org.lwjgl.glfw.GLFW.*;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import core.renderer.Bitmap;
+import core.renderer.Graphics;
+import core.renderer.Transformations;
+
+
+/**
+ * Measures the time from a key or button press to 
+ * the buffer swap that shows what gameplay did about
+ * it. One press is followed at a time
+ * @author Jani Nykänen
+ *
+ */
+public final class LatencyMonitor {
+
+	/** Histogram bucket size, in milliseconds */
+	static public final int BUCKET_SIZE = 4;
+	/** Amount of histogram buckets, the last one
+	 *  holds everything longer */
+	static public final int BUCKET_COUNT = 40;
+	/** Amount of latest samples in the rolling histogram */
+	static public final int ROLLING_SIZE = 128;
+	/** Presses older than this are not followed, in seconds */
+	static private final double MAX_DELAY = 0.5;
+	
+	/** State: waiting for a press */
+	static private final int STATE_IDLE = 0;
+	/** State: waiting for gameplay to act */
+	static private final int STATE_PRESSED = 1;
+	/** State: waiting for a frame to be drawn */
+	static private final int STATE_ACTED = 2;
+	/** State: waiting for the frame to be shown */
+	static private final int STATE_DRAWN = 3;
+	
+	/** Is enabled */
+	static private boolean enabled = false;
+	/** Current state */
+	static private int state = STATE_IDLE;
+	
+	/** Press time */
+	static private double pressTime;
+	/** Time gameplay acted */
+	static private double actionTime;
+	/** Frames drawn so far */
+	static private long frames = 0;
+	/** Frames drawn before the press */
+	static private long pressFrame;
+	/** The frame that shows the action */
+	static private long targetFrame;
+	
+	/** All the samples */
+	static private int[] histogram = new int[BUCKET_COUNT];
+	/** The latest samples */
+	static private int[] rollingHistogram = new int[BUCKET_COUNT];
+	/** Buckets of the latest samples */
+	static private int[] rollingBuckets = new int[ROLLING_SIZE];
+	/** Amount of samples */
+	static private int sampleCount = 0;
+	/** Sum of press to action times, in seconds */
+	static private double actionTimeSum = 0.0;
+	/** Sum of press to swap times, in seconds */
+	static private double totalTimeSum = 0.0;
+	/** Sum of frames drawn between a press and a swap */
+	static private long frameSum = 0;
+	
+	
+	/**
+	 * Add a sample
+	 * @param time Press to swap time, in seconds
+	 * @param frameCount Frames drawn meanwhile
+	 */
+	static private void addSample(double time, long frameCount) {
+		
+		int bucket = (int)(time * 1000.0) / BUCKET_SIZE;
+		bucket = Math.max(0, Math.min(BUCKET_COUNT-1, bucket));
+		
+		++ histogram[bucket];
+		
+		// Replace the oldest sample in the rolling histogram
+		int i = sampleCount % ROLLING_SIZE;
+		if(sampleCount >= ROLLING_SIZE)
+			-- rollingHistogram[rollingBuckets[i]];
+		rollingBuckets[i] = bucket;
+		++ rollingHistogram[bucket];
+		
+		++ sampleCount;
+		actionTimeSum += actionTime - pressTime;
+		totalTimeSum += time;
+		frameSum += frameCount;
+	}
+	
+	
+	/**
+	 * Get a percentile from a histogram
+	 * @param hist Histogram
+	 * @param p Percentile, in [0,1]
+	 * @return Upper bound of the bucket, in milliseconds
+	 */
+	static private int getPercentile(int[] hist, float p) {
+		
+		int total = 0;
+		for(int i = 0; i < hist.length; ++ i)
+			total += hist[i];
+		
+		int limit = (int)Math.ceil(total * p);
+		int sum = 0;
+		for(int i = 0; i < hist.length; ++ i) {
+			
+			sum += hist[i];
+			if(sum >= limit && sum > 0)
+				return (i+1) * BUCKET_SIZE;
+		}
+		return 0;
+	}
+	
+	
+	/**
+	 * Enable or disable
+	 * @param state State
+	 */
+	static public void setEnabled(boolean state) {
+		
+		enabled = state;
+	}
+	
+	
+	/**
+	 * Is enabled
+	 * @return True, if enabled
+	 */
+	static public boolean isEnabled() {
+		
+		return enabled;
+	}
+	
+	
+	/**
+	 * A key or a button press has been handled. If
+	 * a press is already waiting for gameplay to act, 
+	 * the newer one replaces it
+	 * @param time Press time
+	 */
+	static public void inputHandled(double time) {
+		
+		if(!enabled || state > STATE_PRESSED) return;
+		
+		pressTime = time;
+		pressFrame = frames;
+		state = STATE_PRESSED;
+	}
+	
+	
+	/**
+	 * Gameplay has acted on input, e.g. started 
+	 * a move. Called by gameplay code
+	 */
+	static public void actionTaken() {
+		
+		if(!enabled || state != STATE_PRESSED) return;
+		
+		actionTime = glfwGetTime();
+		
+		// Too old to be the cause
+		if(actionTime - pressTime > MAX_DELAY) {
+			
+			state = STATE_IDLE;
+			return;
+		}
+		state = STATE_ACTED;
+	}
+	
+	
+	/**
+	 * A frame has been drawn
+	 */
+	static public void frameDrawn() {
+		
+		++ frames;
+		if(state == STATE_ACTED) {
+			
+			targetFrame = frames;
+			state = STATE_DRAWN;
+		}
+	}
+	
+	
+	/**
+	 * Frames have been shown, i.e. the buffers swapped
+	 * @param frame Amount of frames shown so far
+	 * @param time Swap time
+	 */
+	static public void frameShown(long frame, double time) {
+		
+		if(state != STATE_DRAWN || frame < targetFrame) return;
+		
+		addSample(time - pressTime, targetFrame - pressFrame);
+		state = STATE_IDLE;
+	}
+	
+	
+	/**
+	 * The latest frame has been shown
+	 * @param time Swap time
+	 */
+	static public void frameShown(double time) {
+		
+		frameShown(frames, time);
+	}
+	
+	
+	/**
+	 * Get the amount of samples
+	 * @return Sample count
+	 */
+	static public int getSampleCount() {
+		
+		return sampleCount;
+	}
+	
+	
+	/**
+	 * Draw the rolling histogram
+	 * @param g Graphics object
+	 * @param font Font bitmap, null if no text
+	 */
+	static public void drawOverlay(Graphics g, Bitmap font) {
+		
+		final float VIEW_HEIGHT = 720.0f;
+		final float X = 16.0f;
+		final float Y = 16.0f;
+		final float BAR_WIDTH = 8.0f;
+		final float HEIGHT = 96.0f;
+		final float XOFF = -28.0f;
+		final float TEXT_SCALE = 0.40f;
+		
+		Transformations tr = g.transform();
+		tr.fitViewHeight(VIEW_HEIGHT);
+		tr.identity();
+		tr.use();
+		
+		// Background
+		g.setGlobalAlpha();
+		g.setColor(0, 0, 0, 0.5f);
+		g.fillRect(X, Y, BAR_WIDTH * BUCKET_COUNT, HEIGHT);
+		
+		// Bars
+		int max = 1;
+		for(int i = 0; i < BUCKET_COUNT; ++ i)
+			max = Math.max(max, rollingHistogram[i]);
+		
+		g.setColor(0.25f, 1.0f, 0.25f);
+		float h;
+		for(int i = 0; i < BUCKET_COUNT; ++ i) {
+			
+			if(rollingHistogram[i] == 0) continue;
+			
+			h = HEIGHT * rollingHistogram[i] / max;
+			g.fillRect(X + i * BAR_WIDTH, Y + HEIGHT - h, BAR_WIDTH - 1, h);
+		}
+		
+		// Text
+		if(font != null) {
+			
+			int n = Math.min(sampleCount, ROLLING_SIZE);
+			String text = "p50 " + Integer.toString(getPercentile(rollingHistogram, 0.5f)) + 
+					" ms p95 " + Integer.toString(getPercentile(rollingHistogram, 0.95f)) + 
+					" ms (" + Integer.toString(n) + ")";
+			g.setColor(1, 1, 0);
+			g.drawText(font, text, X, Y + HEIGHT, XOFF, 0.0f, false, TEXT_SCALE);
+		}
+		g.setColor();
+	}
+	
+	
+	/**
+	 * Write all the samples to a file
+	 * @param path File path
+	 * @throws Exception If fails to write
+	 */
+	static public void dump(String path) throws Exception {
+		
+		Writer writer = new BufferedWriter(new OutputStreamWriter(
+	              new FileOutputStream(path), "utf-8"));
+		try {
+			
+			int n = Math.max(1, sampleCount);
+			writer.write("samples," + Integer.toString(sampleCount) + "\n");
+			writer.write("mean_press_to_action_ms," + 
+					String.format("%.2f", actionTimeSum / n * 1000.0) + "\n");
+			writer.write("mean_press_to_swap_ms," + 
+					String.format("%.2f", totalTimeSum / n * 1000.0) + "\n");
+			writer.write("mean_frames," + 
+					String.format("%.2f", (double)frameSum / n) + "\n");
+			writer.write("p50_ms," + Integer.toString(getPercentile(histogram, 0.5f)) + "\n");
+			writer.write("p95_ms," + Integer.toString(getPercentile(histogram, 0.95f)) + "\n");
+			
+			// Histogram, bucket start & count
+			writer.write("bucket_ms,count\n");
+			for(int i = 0; i < BUCKET_COUNT; ++ i) {
+				
+				writer.write(Integer.toString(i * BUCKET_SIZE) + "," + 
+						Integer.toString(histogram[i]) + "\n");
+			}
+		}
+		finally {
+			
+			writer.close();
+		}
+	}
+}
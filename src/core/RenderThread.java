@@ -0,0 +1,153 @@
+package core;
+
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.lwjgl.opengl.GL;
+
+import core.renderer.CommandList;
+import core.renderer.CommandReplayer;
+import core.renderer.GLBackend;
+import core.renderer.TripleBuffer;
+
+
+/**
+ * Owns the GL context when rendering is done on a
+ * thread of its own. Executes the command lists the 
+ * main thread publishes and swaps the buffers
+ * @author Jani Nykänen
+ *
+ */
+public class RenderThread extends Thread {
+
+	/** Longest time to wait for a new list, in nanoseconds */
+	static private final long IDLE_WAIT = 2000000;
+	
+	/** Window */
+	private long window;
+	/** Command lists */
+	private TripleBuffer<CommandList> lists;
+	
+	/** Is running */
+	private volatile boolean running = true;
+	/** Error that stopped the thread, null if none */
+	private volatile RuntimeException error = null;
+	
+	/** Time of the latest buffer swap */
+	private volatile double swapTime = 0.0;
+	/** Amount of buffer swaps so far */
+	private volatile long swapCount = 0;
+	
+	
+	/**
+	 * Constructor
+	 * @param window Window whose context is used
+	 * @param lists Command lists
+	 */
+	public RenderThread(long window, TripleBuffer<CommandList> lists) {
+		
+		super("Render");
+		
+		this.window = window;
+		this.lists = lists;
+	}
+	
+	
+	@Override
+	public void run() {
+		
+		// Take the context
+		glfwMakeContextCurrent(window);
+		GL.createCapabilities();
+		
+		CommandReplayer replayer = new CommandReplayer(new GLBackend());
+		try {
+			
+			CommandList list;
+			while(running) {
+				
+				list = lists.acquire();
+				if(list == null) {
+					
+					LockSupport.parkNanos(IDLE_WAIT);
+					continue;
+				}
+				
+				replayer.execute(list);
+				glfwSwapBuffers(window);
+				
+				swapTime = glfwGetTime();
+				swapCount = swapCount + 1;
+			}
+		}
+		catch(RuntimeException e) {
+			
+			error = e;
+		}
+		finally {
+			
+			glfwMakeContextCurrent(NULL);
+		}
+	}
+	
+	
+	/**
+	 * Wake up, a new list has been published
+	 */
+	public void wake() {
+		
+		LockSupport.unpark(this);
+	}
+	
+	
+	/**
+	 * Stop and wait for the thread to finish
+	 */
+	public void finish() {
+		
+		running = false;
+		wake();
+		
+		try {
+			
+			join();
+		}
+		catch(InterruptedException e) {
+			
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	
+	/**
+	 * Get the amount of buffer swaps so far, i.e.
+	 * the amount of frames shown
+	 * @return Swap count
+	 */
+	public long getSwapCount() {
+		
+		return swapCount;
+	}
+	
+	
+	/**
+	 * Get the time of the latest buffer swap
+	 * @return Time in seconds
+	 */
+	public double getSwapTime() {
+		
+		return swapTime;
+	}
+	
+	
+	/**
+	 * Get the error that stopped the thread
+	 * @return Error, null if none
+	 */
+	public RuntimeException getError() {
+		
+		return error;
+	}
+}
@@ -73,6 +73,26 @@ public class WeakEventManager {
 	}
 	
 	
+	/**
+	 * Is frame interpolation enabled
+	 * @return True, if enabled
+	 */
+	public boolean isFrameInterpolationEnabled() {
+		
+		return app.isFrameInterpolationEnabled();
+	}
+	
+	
+	/**
+	 * Enable or disable frame interpolation
+	 * @param state State
+	 */
+	public void setFrameInterpolation(boolean state) {
+		
+		app.setFrameInterpolation(state);
+	}
+	
+	
 	/**
 	 * Get audio manager
 	 * @return Audio manager
@@ -3,8 +3,12 @@ package core;
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.system.MemoryUtil.*;
 
+import org.lwjgl.glfw.GLFWVidMode;
 import org.lwjgl.opengl.GL;
 
+import core.renderer.CommandList;
+import core.renderer.TripleBuffer;
+
 
 /**
  * Handles window-related behavior
@@ -21,6 +25,13 @@ public class WindowListener extends ApplicationEvents {
 	
 	/** Full screen manager */
 	private FullScreenManager fsManager;
+	
+	/** Is there no window at all */
+	private boolean headless = false;
+	/** Window size when headless */
+	private int[] headlessSize;
+	/** Render thread, null if rendering on this thread */
+	private RenderThread renderThread = null;
 
 	/**
 	 * Get the current window size
@@ -28,6 +39,8 @@ public class WindowListener extends ApplicationEvents {
 	 */
 	protected int[] getWindowSize() {
 		
+		if(headless) return headlessSize;
+		
 		return fsManager.getWindowSize();
 	}
 	
@@ -86,11 +99,51 @@ public class WindowListener extends ApplicationEvents {
 	}
 	
 	
+	/**
+	 * Initialize without a window. Nothing is shown and
+	 * no GL context is created, so the renderer must be
+	 * given a backend that does not need one
+	 */
+	public void initHeadlessContext() {
+		
+		final int DEFAULT_WIN_WIDTH = 640;
+		final int DEFAULT_WIN_HEIGHT = 480;
+		
+		headless = true;
+		headlessSize = new int[] {
+			conf.getParameterValueInt("window_width", DEFAULT_WIN_WIDTH),
+			conf.getParameterValueInt("window_height", DEFAULT_WIN_HEIGHT)
+		};
+	}
+	
+	
+	/**
+	 * Hand the GL context over to a render thread 
+	 * and start the thread
+	 * @param lists Command lists the thread executes
+	 * @return Render thread
+	 */
+	public RenderThread startRenderThread(TripleBuffer<CommandList> lists) {
+		
+		glfwMakeContextCurrent(NULL);
+		
+		renderThread = new RenderThread(window, lists);
+		renderThread.start();
+		
+		return renderThread;
+	}
+	
+	
 	/**
 	 * Destroy the window and its context
 	 */
 	public void destroyWindowContext() {
 		
+		if(headless) return;
+		
+		if(renderThread != null)
+			renderThread.finish();
+		
 		glfwDestroyWindow(window);
 	}
 
@@ -101,6 +154,8 @@ public class WindowListener extends ApplicationEvents {
 	 */
 	public boolean shouldClose() {
 		
+		if(headless) return false;
+		
 		return glfwWindowShouldClose(window);
 	}
 	
@@ -110,10 +165,23 @@ public class WindowListener extends ApplicationEvents {
 	 */
 	public void refresh() {
 		
+		// The render thread swaps buffers itself
+		if(headless || renderThread != null) return;
+		
 		glfwSwapBuffers(window);
 	}
 	
 	
+	/**
+	 * Is there no window
+	 * @return True, if headless
+	 */
+	public boolean isHeadless() {
+		
+		return headless;
+	}
+	
+	
 	/**
 	 * Pass configuration data object
 	 * @param conf Configuration data
@@ -129,6 +197,8 @@ public class WindowListener extends ApplicationEvents {
 	 */
 	public void toggleFullScreen() {
 		
+		if(headless) return;
+		
 		fsManager.toggleFullScreen();
 	}
 	
@@ -139,8 +209,28 @@ public class WindowListener extends ApplicationEvents {
 	 */
 	public boolean isFullscreenEnabled() {
 		
+		if(headless) return false;
+		
 		return fsManager.getState();
 	}
 	
 	
+	/**
+	 * Get the refresh rate of the primary monitor
+	 * @return Refresh rate, 60 if not known
+	 */
+	public int getRefreshRate() {
+		
+		final int DEFAULT_REFRESH_RATE = 60;
+		
+		if(headless) return DEFAULT_REFRESH_RATE;
+		
+		GLFWVidMode video = glfwGetVideoMode(glfwGetPrimaryMonitor());
+		if(video == null || video.refreshRate() <= 0)
+			return DEFAULT_REFRESH_RATE;
+		
+		return video.refreshRate();
+	}
+	
+	
 }
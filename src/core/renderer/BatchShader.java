@@ -0,0 +1,59 @@
+package core.renderer;
+
+/**
+ * Includes the shaders used by the sprite batch. Unlike
+ * the default shader, position, UV and color are passed
+ * per vertex, so a whole batch can be drawn at once.
+ * @author Jani Nykänen
+ *
+ */
+public final class BatchShader {
+
+	/** Batch vertex shader */
+	static public final String VERTEX = "#version 120\n" +
+			"attribute vec2 vertexPos;\n" +
+			"attribute vec2 vertexUV;\n" +
+			"attribute vec4 vertexColor;\n" +
+			"   \n" +
+			"uniform mat3 model;\n" +
+			"uniform mat3 project;\n" +
+			"   \n" +
+			"varying vec2 uv;\n" +
+			"varying vec4 col;\n" +
+			"   \n" +
+			"// Main\n" +
+			"void main() {\n" +
+			"   \n" +
+			"    // Position\n" +
+			"    gl_Position = vec4(project * model * vec3(vertexPos.x, vertexPos.y, 1), 1);\n" +
+			"       \n" +
+			"    // Texture coordinates & color\n" +
+			"    uv = vertexUV;\n" +
+			"    col = vertexColor;\n" +
+			"}";
+
+
+	/** Batch fragment shader */
+	static public final String FRAGMENT = "#version 120\n" +
+			"varying vec2 uv;\n" +
+			"varying vec4 col;\n" +
+			"\n" +
+			"uniform sampler2D texSampler;\n" +
+			"\n" +
+			"// Main\n" +
+			"void main() {\n" +
+			"\n" +
+			"    const float DELTA = 0.01;\n" +
+			"\n" +
+			"    // Check if the color alpha is not too small\n" +
+			"    vec4 res = col * texture2D(texSampler, uv);\n" +
+			"    if(res.a <= DELTA) {\n" +
+			"        \n" +
+			"        discard;\n" +
+			"    }\n" +
+			"\n" +
+			"    // Set color\n" +
+			"    gl_FragColor = res;\n" +
+			"}";
+
+}
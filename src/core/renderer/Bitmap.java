@@ -1,14 +1,8 @@
 package core.renderer;
 
 
-import static org.lwjgl.opengl.GL20.*;
-
-import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
-import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import javax.imageio.ImageIO;
 
 import org.lwjgl.BufferUtils;
 
@@ -20,9 +14,6 @@ import org.lwjgl.BufferUtils;
  */
 public class Bitmap {
 
-	/** Previously bound texture */
-	static private int prevTex = -1;
-	
 	/** Bitmap width */
 	private int width;
 	/** Bitmap height */
@@ -30,6 +21,15 @@ public class Bitmap {
 	/** GL texture index */
 	private int texture;
 	
+	/** Horizontal position in the texture */
+	private int offsetX = 0;
+	/** Vertical position in the texture */
+	private int offsetY = 0;
+	/** Texture width */
+	private int textureWidth;
+	/** Texture height */
+	private int textureHeight;
+	
 	
 	/**
 	 * Create a texture
@@ -39,25 +39,41 @@ public class Bitmap {
 	 */
 	public void createTexture(byte data[], int w, int h) {
 	
+		// Set data to a buffer. No data means an
+		// empty texture (e.g. a render target)
+		ByteBuffer bytes = null;
+		if(data != null) {
+			
+			bytes = BufferUtils.createByteBuffer(data.length);
+		    bytes.put(data);
+		    bytes.flip();
+		}
+		
+		createTexture(bytes, w, h);
+	}
+	
+	
+	/**
+	 * Create a texture
+	 * @param bytes Pixel data (in RGBA format), null
+	 * for an empty texture
+	 * @param w Width
+	 * @param h Height
+	 */
+	public void createTexture(ByteBuffer bytes, int w, int h) {
+	
 		// Store dimensions
 		width = w;
 		height = h;
+		textureWidth = w;
+		textureHeight = h;
 				
 		// Create texture
-		texture = glGenTextures();
-		glBindTexture(GL_TEXTURE_2D, texture);
-
-		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
-		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
-			    
-		// Set data to a buffer
-		ByteBuffer bytes = BufferUtils.createByteBuffer(data.length);
-	    bytes.put(data);
-	    bytes.flip();
+		texture = Renderer.backend().genTexture();
+		GLState.bindTexture(texture);
 
 	    // Pass data to the texture
-	    glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, w, h, 0, GL_RGBA,
-	    GL_UNSIGNED_BYTE,bytes);
+	    Renderer.backend().texImage2D(w, h, bytes);
 	}
 	
 	
@@ -73,6 +89,40 @@ public class Bitmap {
 	}
 	
 	
+	/**
+	 * Construct a bitmap from given data
+	 * @param data Pixel data (in RGBA format), e.g.
+	 * a part of a mapped file
+	 * @param w Width
+	 * @param h Height
+	 */
+	public Bitmap(ByteBuffer data, int w, int h) {
+		
+		createTexture(data, w, h);
+	}
+	
+	
+	/**
+	 * Construct an empty bitmap
+	 * @param w Width
+	 * @param h Height
+	 */
+	public Bitmap(int w, int h) {
+		
+		createTexture((ByteBuffer) null, w, h);
+	}
+	
+	
+	/**
+	 * Construct a bitmap from decoded data
+	 * @param data Bitmap data
+	 */
+	public Bitmap(BitmapData data) {
+		
+		createTexture(data.getPixels(), data.getWidth(), data.getHeight());
+	}
+	
+	
 	/**
 	 * Construct a bitmap by loading a file
 	 * @param path File path
@@ -80,26 +130,29 @@ public class Bitmap {
 	 */
 	public Bitmap(String path) throws IOException {
 		
-		// Load image
-		BufferedImage imgBuf = ImageIO.read(this.getClass().getClassLoader().getResourceAsStream(path));
-		
-		// Get bytes
-		WritableRaster raster = imgBuf.getRaster();
-		DataBufferByte data  = (DataBufferByte) raster.getDataBuffer();
-		byte[] bytes = data.getData();
-		
-		// Reorder the bytes
-		byte[] ordered = new byte[bytes.length];
-		for(int i = 0; i < bytes.length; i += 4) {
-			
-			ordered[i] = bytes[i+3];
-			ordered[i+1] = bytes[i+2];
-			ordered[i+2] = bytes[i+1];
-			ordered[i+3] = bytes[i];
-		}
+		this(new BitmapData(path));
+	}
+	
+	
+	/**
+	 * Construct a bitmap that is a region of another
+	 * bitmap's texture (e.g. an atlas page)
+	 * @param page Bitmap that owns the texture
+	 * @param x Region x
+	 * @param y Region y
+	 * @param w Region width
+	 * @param h Region height
+	 */
+	public Bitmap(Bitmap page, int x, int y, int w, int h) {
 		
-		createTexture(ordered, imgBuf.getWidth(), imgBuf.getHeight());
+		texture = page.texture;
+		textureWidth = page.textureWidth;
+		textureHeight = page.textureHeight;
 		
+		offsetX = x;
+		offsetY = y;
+		width = w;
+		height = h;
 	}
 	
 	
@@ -123,16 +176,73 @@ public class Bitmap {
 	}
 	
 	
+	/**
+	 * Get the GL texture index
+	 * @return Texture index
+	 */
+	int getTextureID() {
+		
+		return texture;
+	}
+	
+	
+	/**
+	 * Get the horizontal position in the texture
+	 * @return X offset
+	 */
+	int getOffsetX() {
+		
+		return offsetX;
+	}
+	
+	
+	/**
+	 * Get the vertical position in the texture
+	 * @return Y offset
+	 */
+	int getOffsetY() {
+		
+		return offsetY;
+	}
+	
+	
+	/**
+	 * Get the width of the texture the bitmap lives in
+	 * @return Texture width
+	 */
+	public int getTextureWidth() {
+		
+		return textureWidth;
+	}
+	
+	
+	/**
+	 * Get the height of the texture the bitmap lives in
+	 * @return Texture height
+	 */
+	public int getTextureHeight() {
+		
+		return textureHeight;
+	}
+	
+	
+	/**
+	 * Destroy the texture. Do not call for
+	 * bitmaps that are atlas regions
+	 */
+	public void dispose() {
+		
+		Renderer.backend().deleteTexture(texture);
+		GLState.textureDeleted(texture);
+	}
+	
+	
 	/**
 	 * Bind this texture
 	 */
 	public void bind() {
 		
-		if(texture != prevTex) {
-			
-			prevTex = texture;
-			glBindTexture(GL_TEXTURE_2D, texture);
-		}
+		GLState.bindTexture(texture);
 	}
 	
 }
@@ -0,0 +1,100 @@
+package core.renderer;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+
+/**
+ * Decoded bitmap pixel data that has not
+ * been passed to the GPU yet
+ * @author Jani Nykänen
+ *
+ */
+public class BitmapData {
+
+	/** Width */
+	private int width;
+	/** Height */
+	private int height;
+	/** Pixel data (in RGBA format) */
+	private byte[] pixels;
+
+
+	/**
+	 * Construct from given data
+	 * @param pixels Pixel data (in RGBA format)
+	 * @param w Width
+	 * @param h Height
+	 */
+	public BitmapData(byte[] pixels, int w, int h) {
+
+		this.pixels = pixels;
+		this.width = w;
+		this.height = h;
+	}
+
+
+	/**
+	 * Construct by loading a file
+	 * @param path File path
+	 * @throws IOException If file is not found
+	 */
+	public BitmapData(String path) throws IOException {
+
+		// Load image
+		BufferedImage imgBuf = ImageIO.read(this.getClass().getClassLoader().getResourceAsStream(path));
+
+		// Get bytes
+		WritableRaster raster = imgBuf.getRaster();
+		DataBufferByte data  = (DataBufferByte) raster.getDataBuffer();
+		byte[] bytes = data.getData();
+
+		// Reorder the bytes
+		byte[] ordered = new byte[bytes.length];
+		for(int i = 0; i < bytes.length; i += 4) {
+
+			ordered[i] = bytes[i+3];
+			ordered[i+1] = bytes[i+2];
+			ordered[i+2] = bytes[i+1];
+			ordered[i+3] = bytes[i];
+		}
+
+		pixels = ordered;
+		width = imgBuf.getWidth();
+		height = imgBuf.getHeight();
+	}
+
+
+	/**
+	 * Get width
+	 * @return Width
+	 */
+	public int getWidth() {
+
+		return width;
+	}
+
+
+	/**
+	 * Get height
+	 * @return Height
+	 */
+	public int getHeight() {
+
+		return height;
+	}
+
+
+	/**
+	 * Get pixel data
+	 * @return Pixel data (in RGBA format)
+	 */
+	public byte[] getPixels() {
+
+		return pixels;
+	}
+}
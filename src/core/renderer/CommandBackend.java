@@ -0,0 +1,459 @@
+package core.renderer;
+
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER_COMPLETE;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+
+/**
+ * Render backend that records the calls to command
+ * lists, which are passed to a render thread through
+ * a triple buffer. Objects get indices of their own 
+ * right away; the render thread maps them to the GL
+ * ones when it creates the objects. Like GL names, the
+ * indices of deleted objects are reused
+ * @author Jani Nykänen
+ *
+ */
+public class CommandBackend implements RenderBackend {
+
+	/** Command lists */
+	private TripleBuffer<CommandList> lists;
+	/** List being recorded */
+	private CommandList list;
+	
+	/** Next object index */
+	private int nextID = 1;
+	/** Indices of deleted objects, to be reused */
+	private int[] freeIDs;
+	/** Amount of reusable indices */
+	private int freeCount;
+	
+	/** Maximum texture size of the real context */
+	private int maxTextureSize;
+	/** Does the real context support framebuffers */
+	private boolean framebufferSupported;
+	
+	
+	/**
+	 * Copy pixel data, so the caller may reuse its buffer
+	 * @param pixels Pixel data, might be null
+	 * @return Copy, null if no data
+	 */
+	private byte[] copyBytes(ByteBuffer pixels) {
+		
+		if(pixels == null) return null;
+		
+		byte[] out = new byte[pixels.remaining()];
+		pixels.duplicate().get(out);
+		return out;
+	}
+	
+	
+	/**
+	 * Get an index for a new texture, buffer or framebuffer
+	 * @return Index
+	 */
+	private int genID() {
+		
+		if(freeCount > 0)
+			return freeIDs[-- freeCount];
+		
+		return nextID ++;
+	}
+	
+	
+	/**
+	 * Release the index of a deleted object. The delete
+	 * command is recorded before any command that
+	 * reuses the index, so the render thread sees them
+	 * in the same order
+	 * @param id Index
+	 */
+	private void releaseID(int id) {
+		
+		if(id <= 0) return;
+		
+		if(freeCount >= freeIDs.length)
+			freeIDs = Arrays.copyOf(freeIDs, freeIDs.length * 2);
+		
+		freeIDs[freeCount ++] = id;
+	}
+	
+	
+	/**
+	 * Constructor
+	 * @param lists Command lists
+	 * @param maxTextureSize Maximum texture size of the real context
+	 * @param framebufferSupported Does the real context support framebuffers
+	 */
+	public CommandBackend(TripleBuffer<CommandList> lists, 
+			int maxTextureSize, boolean framebufferSupported) {
+		
+		this.lists = lists;
+		this.maxTextureSize = maxTextureSize;
+		this.framebufferSupported = framebufferSupported;
+		
+		freeIDs = new int[64];
+		
+		list = lists.getBack();
+		list.clear();
+	}
+	
+	
+	@Override
+	public int genTexture() {
+		
+		int id = genID();
+		list.putInt(RecordingBackend.OP_GEN_TEXTURE);
+		list.putInt(id);
+		return id;
+	}
+	
+	
+	@Override
+	public void texImage2D(int w, int h, ByteBuffer pixels) {
+		
+		list.putInt(RecordingBackend.OP_TEX_IMAGE_2D);
+		list.putInt(w);
+		list.putInt(h);
+		list.putObject(copyBytes(pixels));
+	}
+	
+	
+	@Override
+	public void deleteTexture(int id) {
+		
+		list.putInt(RecordingBackend.OP_DELETE_TEXTURE);
+		list.putInt(id);
+		releaseID(id);
+	}
+	
+	
+	@Override
+	public void bindTexture(int id) {
+		
+		list.putInt(RecordingBackend.OP_BIND_TEXTURE);
+		list.putInt(id);
+	}
+	
+	
+	@Override
+	public void activeTexture(int unit) {
+		
+		list.putInt(RecordingBackend.OP_ACTIVE_TEXTURE);
+		list.putInt(unit);
+	}
+	
+	
+	@Override
+	public int getMaxTextureSize() {
+		
+		return maxTextureSize;
+	}
+	
+	
+	@Override
+	public boolean isFramebufferSupported() {
+		
+		return framebufferSupported;
+	}
+	
+	
+	@Override
+	public int genFramebuffer() {
+		
+		int id = genID();
+		list.putInt(RecordingBackend.OP_GEN_FRAMEBUFFER);
+		list.putInt(id);
+		return id;
+	}
+	
+	
+	@Override
+	public void bindFramebuffer(int id) {
+		
+		list.putInt(RecordingBackend.OP_BIND_FRAMEBUFFER);
+		list.putInt(id);
+	}
+	
+	
+	@Override
+	public void framebufferTexture(int texture) {
+		
+		list.putInt(RecordingBackend.OP_FRAMEBUFFER_TEXTURE);
+		list.putInt(texture);
+	}
+	
+	
+	@Override
+	public int checkFramebufferStatus() {
+		
+		list.putInt(RecordingBackend.OP_CHECK_FRAMEBUFFER_STATUS);
+		// Checked when replayed
+		return GL_FRAMEBUFFER_COMPLETE;
+	}
+	
+	
+	@Override
+	public void deleteFramebuffer(int id) {
+		
+		list.putInt(RecordingBackend.OP_DELETE_FRAMEBUFFER);
+		list.putInt(id);
+		releaseID(id);
+	}
+	
+	
+	@Override
+	public int createProgram(String vertexSrc, String fragmentSrc) throws RuntimeException {
+		
+		int id = nextID ++;
+		list.putInt(RecordingBackend.OP_CREATE_PROGRAM);
+		list.putObject(vertexSrc);
+		list.putObject(fragmentSrc);
+		list.putInt(id);
+		return id;
+	}
+	
+	
+	@Override
+	public void useProgram(int id) {
+		
+		list.putInt(RecordingBackend.OP_USE_PROGRAM);
+		list.putInt(id);
+	}
+	
+	
+	@Override
+	public int getUniformLocation(int program, String name) {
+		
+		int id = nextID ++;
+		list.putInt(RecordingBackend.OP_GET_UNIFORM_LOCATION);
+		list.putInt(program);
+		list.putObject(name);
+		list.putInt(id);
+		return id;
+	}
+	
+	
+	@Override
+	public void uniform1f(int loc, float x) {
+		
+		list.putInt(RecordingBackend.OP_UNIFORM1F);
+		list.putInt(loc);
+		list.putFloat(x);
+	}
+	
+	
+	@Override
+	public void uniform2f(int loc, float x, float y) {
+		
+		list.putInt(RecordingBackend.OP_UNIFORM2F);
+		list.putInt(loc);
+		list.putFloat(x);
+		list.putFloat(y);
+	}
+	
+	
+	@Override
+	public void uniform3f(int loc, float x, float y, float z) {
+		
+		list.putInt(RecordingBackend.OP_UNIFORM3F);
+		list.putInt(loc);
+		list.putFloat(x);
+		list.putFloat(y);
+		list.putFloat(z);
+	}
+	
+	
+	@Override
+	public void uniform4f(int loc, float x, float y, float z, float w) {
+		
+		list.putInt(RecordingBackend.OP_UNIFORM4F);
+		list.putInt(loc);
+		list.putFloat(x);
+		list.putFloat(y);
+		list.putFloat(z);
+		list.putFloat(w);
+	}
+	
+	
+	@Override
+	public void uniformMatrix3(int loc, FloatBuffer mat) {
+		
+		list.putInt(RecordingBackend.OP_UNIFORM_MATRIX3);
+		list.putInt(loc);
+		list.putFloats(mat, 9);
+	}
+	
+	
+	@Override
+	public int genBuffer() {
+		
+		int id = genID();
+		list.putInt(RecordingBackend.OP_GEN_BUFFER);
+		list.putInt(id);
+		return id;
+	}
+	
+	
+	@Override
+	public void deleteBuffer(int id) {
+		
+		list.putInt(RecordingBackend.OP_DELETE_BUFFER);
+		list.putInt(id);
+		releaseID(id);
+	}
+	
+	
+	@Override
+	public void bindBuffer(int target, int id) {
+		
+		list.putInt(RecordingBackend.OP_BIND_BUFFER);
+		list.putInt(target);
+		list.putInt(id);
+	}
+	
+	
+	@Override
+	public void bufferData(int target, FloatBuffer data, int usage) {
+		
+		list.putInt(RecordingBackend.OP_BUFFER_DATA_FLOAT);
+		list.putInt(target);
+		list.putInt(data.remaining());
+		list.putFloats(data, data.remaining());
+		list.putInt(usage);
+	}
+	
+	
+	@Override
+	public void bufferData(int target, ShortBuffer data, int usage) {
+		
+		list.putInt(RecordingBackend.OP_BUFFER_DATA_SHORT);
+		list.putInt(target);
+		list.putInt(data.remaining());
+		list.putShorts(data);
+		list.putInt(usage);
+	}
+	
+	
+	@Override
+	public void enableVertexAttribArray(int index) {
+		
+		list.putInt(RecordingBackend.OP_ENABLE_VERTEX_ATTRIB_ARRAY);
+		list.putInt(index);
+	}
+	
+	
+	@Override
+	public void disableVertexAttribArray(int index) {
+		
+		list.putInt(RecordingBackend.OP_DISABLE_VERTEX_ATTRIB_ARRAY);
+		list.putInt(index);
+	}
+	
+	
+	@Override
+	public void vertexAttribPointer(int index, int size, int stride, long offset) {
+		
+		list.putInt(RecordingBackend.OP_VERTEX_ATTRIB_POINTER);
+		list.putInt(index);
+		list.putInt(size);
+		list.putInt(stride);
+		list.putInt((int)offset);
+	}
+	
+	
+	@Override
+	public void drawElements(int count, long offset) {
+		
+		list.putInt(RecordingBackend.OP_DRAW_ELEMENTS);
+		list.putInt(count);
+		list.putInt((int)offset);
+	}
+	
+	
+	@Override
+	public void enable(int cap) {
+		
+		list.putInt(RecordingBackend.OP_ENABLE);
+		list.putInt(cap);
+	}
+	
+	
+	@Override
+	public void disable(int cap) {
+		
+		list.putInt(RecordingBackend.OP_DISABLE);
+		list.putInt(cap);
+	}
+	
+	
+	@Override
+	public void blendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+		
+		list.putInt(RecordingBackend.OP_BLEND_FUNC_SEPARATE);
+		list.putInt(srcRGB);
+		list.putInt(dstRGB);
+		list.putInt(srcAlpha);
+		list.putInt(dstAlpha);
+	}
+	
+	
+	@Override
+	public void viewport(int x, int y, int w, int h) {
+		
+		list.putInt(RecordingBackend.OP_VIEWPORT);
+		list.putInt(x);
+		list.putInt(y);
+		list.putInt(w);
+		list.putInt(h);
+	}
+	
+	
+	@Override
+	public void scissor(int x, int y, int w, int h) {
+		
+		list.putInt(RecordingBackend.OP_SCISSOR);
+		list.putInt(x);
+		list.putInt(y);
+		list.putInt(w);
+		list.putInt(h);
+	}
+	
+	
+	@Override
+	public void clear(float r, float g, float b, float a) {
+		
+		list.putInt(RecordingBackend.OP_CLEAR);
+		list.putFloat(r);
+		list.putFloat(g);
+		list.putFloat(b);
+		list.putFloat(a);
+	}
+	
+	
+	/**
+	 * Can a new list be published, i.e. has the render
+	 * thread taken the previous one. Publishing before
+	 * that would drop the previous list
+	 * @return True, if can
+	 */
+	public boolean canPublish() {
+		
+		return !lists.isPending();
+	}
+	
+	
+	/**
+	 * Publish the recorded commands and start a new list
+	 */
+	public void publish() {
+		
+		list = lists.publish();
+		list.clear();
+	}
+}
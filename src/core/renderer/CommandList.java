@@ -0,0 +1,142 @@
+package core.renderer;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+
+/**
+ * A recorded list of render backend calls. Opcodes and
+ * int arguments, floats, shorts and other objects are
+ * stored in separate streams and read back in the same
+ * order. The storage is reused, so recording a frame
+ * does not allocate once the arrays are big enough
+ * @author Jani Nykänen
+ *
+ */
+public class CommandList {
+
+	/** Opcodes & int arguments */
+	int[] ints;
+	/** Amount of ints */
+	int intCount;
+	/** Float arguments & data */
+	float[] floats;
+	/** Amount of floats */
+	int floatCount;
+	/** Short data */
+	short[] shorts;
+	/** Amount of shorts */
+	int shortCount;
+	/** Other arguments (strings, pixel data) */
+	ArrayList<Object> objects;
+	
+	
+	/**
+	 * Constructor
+	 */
+	public CommandList() {
+		
+		ints = new int[1024];
+		floats = new float[4096];
+		shorts = new short[256];
+		objects = new ArrayList<Object> ();
+	}
+	
+	
+	/**
+	 * Remove everything
+	 */
+	public void clear() {
+		
+		intCount = 0;
+		floatCount = 0;
+		shortCount = 0;
+		objects.clear();
+	}
+	
+	
+	/**
+	 * Is the list empty
+	 * @return True, if empty
+	 */
+	public boolean isEmpty() {
+		
+		return intCount == 0;
+	}
+	
+	
+	/**
+	 * Add an int
+	 * @param x Value
+	 */
+	void putInt(int x) {
+		
+		if(intCount == ints.length)
+			ints = Arrays.copyOf(ints, ints.length * 2);
+		
+		ints[intCount ++] = x;
+	}
+	
+	
+	/**
+	 * Add a float
+	 * @param x Value
+	 */
+	void putFloat(float x) {
+		
+		if(floatCount == floats.length)
+			floats = Arrays.copyOf(floats, floats.length * 2);
+		
+		floats[floatCount ++] = x;
+	}
+	
+	
+	/**
+	 * Add floats from a buffer, without
+	 * changing the buffer position
+	 * @param data Buffer
+	 * @param count Amount of floats
+	 */
+	void putFloats(FloatBuffer data, int count) {
+		
+		if(floatCount + count > floats.length)
+			floats = Arrays.copyOf(floats, Math.max(floats.length * 2, floatCount + count));
+		
+		int p = data.position();
+		for(int i = 0; i < count; ++ i) {
+			
+			floats[floatCount ++] = data.get(p + i);
+		}
+	}
+	
+	
+	/**
+	 * Add shorts from a buffer, without
+	 * changing the buffer position
+	 * @param data Buffer
+	 */
+	void putShorts(ShortBuffer data) {
+		
+		int count = data.remaining();
+		if(shortCount + count > shorts.length)
+			shorts = Arrays.copyOf(shorts, Math.max(shorts.length * 2, shortCount + count));
+		
+		int p = data.position();
+		for(int i = 0; i < count; ++ i) {
+			
+			shorts[shortCount ++] = data.get(p + i);
+		}
+	}
+	
+	
+	/**
+	 * Add an object
+	 * @param o Object
+	 */
+	void putObject(Object o) {
+		
+		objects.add(o);
+	}
+}
@@ -0,0 +1,316 @@
+package core.renderer;
+
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER_COMPLETE;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+import org.lwjgl.BufferUtils;
+
+
+/**
+ * Passes recorded command lists to a backend, mapping
+ * the object indices handed out while recording to the
+ * ones the backend creates
+ * @author Jani Nykänen
+ *
+ */
+public class CommandReplayer {
+
+	/** Backend */
+	private RenderBackend backend;
+	/** Recorded object index to backend index */
+	private int[] ids;
+	
+	/** Buffers for passing data, reused */
+	private FloatBuffer floatData;
+	private ShortBuffer shortData;
+	private FloatBuffer matrixData;
+	
+	/** Read positions */
+	private int ip, fp, sp, op;
+	
+	
+	/**
+	 * Map a recorded index
+	 * @param id Recorded index
+	 * @return Backend index
+	 */
+	private int map(int id) {
+		
+		return id < ids.length ? ids[id] : 0;
+	}
+	
+	
+	/**
+	 * Store a created object index
+	 * @param id Recorded index
+	 * @param real Backend index
+	 */
+	private void store(int id, int real) {
+		
+		if(id >= ids.length)
+			ids = Arrays.copyOf(ids, Math.max(ids.length * 2, id + 1));
+		
+		ids[id] = real;
+	}
+	
+	
+	/**
+	 * Read float data to the reusable buffer
+	 * @param list Command list
+	 * @param count Amount of floats
+	 * @return Buffer
+	 */
+	private FloatBuffer readFloats(CommandList list, int count) {
+		
+		if(floatData == null || floatData.capacity() < count)
+			floatData = BufferUtils.createFloatBuffer(count);
+		
+		floatData.clear();
+		floatData.put(list.floats, fp, count);
+		floatData.flip();
+		fp += count;
+		
+		return floatData;
+	}
+	
+	
+	/**
+	 * Read short data to the reusable buffer
+	 * @param list Command list
+	 * @param count Amount of shorts
+	 * @return Buffer
+	 */
+	private ShortBuffer readShorts(CommandList list, int count) {
+		
+		if(shortData == null || shortData.capacity() < count)
+			shortData = BufferUtils.createShortBuffer(count);
+		
+		shortData.clear();
+		shortData.put(list.shorts, sp, count);
+		shortData.flip();
+		sp += count;
+		
+		return shortData;
+	}
+	
+	
+	/**
+	 * Constructor
+	 * @param backend Backend to pass the commands to
+	 */
+	public CommandReplayer(RenderBackend backend) {
+		
+		this.backend = backend;
+		ids = new int[1024];
+		matrixData = BufferUtils.createFloatBuffer(9);
+	}
+	
+	
+	/**
+	 * Execute a command list
+	 * @param list Command list
+	 * @throws RuntimeException If the backend fails
+	 */
+	public void execute(CommandList list) throws RuntimeException {
+		
+		int[] in = list.ints;
+		float[] f = list.floats;
+		ip = 0; fp = 0; sp = 0; op = 0;
+		
+		int id, target, count;
+		while(ip < list.intCount) {
+			
+			switch(in[ip ++]) {
+			
+			case RecordingBackend.OP_GEN_TEXTURE:
+				store(in[ip ++], backend.genTexture());
+				break;
+				
+			case RecordingBackend.OP_TEX_IMAGE_2D:
+			{
+				int w = in[ip ++];
+				int h = in[ip ++];
+				byte[] pixels = (byte[])list.objects.get(op ++);
+				ByteBuffer bytes = null;
+				if(pixels != null) {
+					
+					bytes = BufferUtils.createByteBuffer(pixels.length);
+					bytes.put(pixels);
+					bytes.flip();
+				}
+				backend.texImage2D(w, h, bytes);
+				break;
+			}
+				
+			case RecordingBackend.OP_DELETE_TEXTURE:
+				id = in[ip ++];
+				backend.deleteTexture(map(id));
+				store(id, 0);
+				break;
+				
+			case RecordingBackend.OP_BIND_TEXTURE:
+				backend.bindTexture(map(in[ip ++]));
+				break;
+				
+			case RecordingBackend.OP_ACTIVE_TEXTURE:
+				backend.activeTexture(in[ip ++]);
+				break;
+				
+			case RecordingBackend.OP_GEN_FRAMEBUFFER:
+				store(in[ip ++], backend.genFramebuffer());
+				break;
+				
+			case RecordingBackend.OP_BIND_FRAMEBUFFER:
+				backend.bindFramebuffer(map(in[ip ++]));
+				break;
+				
+			case RecordingBackend.OP_FRAMEBUFFER_TEXTURE:
+				backend.framebufferTexture(map(in[ip ++]));
+				break;
+				
+			case RecordingBackend.OP_CHECK_FRAMEBUFFER_STATUS:
+			{
+				int status = backend.checkFramebufferStatus();
+				if(status != GL_FRAMEBUFFER_COMPLETE)
+					throw new RuntimeException("Failed to create a framebuffer, status: " + status);
+				break;
+			}
+				
+			case RecordingBackend.OP_DELETE_FRAMEBUFFER:
+				id = in[ip ++];
+				backend.deleteFramebuffer(map(id));
+				store(id, 0);
+				break;
+				
+			case RecordingBackend.OP_CREATE_PROGRAM:
+			{
+				String vertex = (String)list.objects.get(op ++);
+				String fragment = (String)list.objects.get(op ++);
+				store(in[ip ++], backend.createProgram(vertex, fragment));
+				break;
+			}
+				
+			case RecordingBackend.OP_USE_PROGRAM:
+				backend.useProgram(map(in[ip ++]));
+				break;
+				
+			case RecordingBackend.OP_GET_UNIFORM_LOCATION:
+			{
+				int program = map(in[ip ++]);
+				String name = (String)list.objects.get(op ++);
+				store(in[ip ++], backend.getUniformLocation(program, name));
+				break;
+			}
+				
+			case RecordingBackend.OP_UNIFORM1F:
+				backend.uniform1f(map(in[ip ++]), f[fp]);
+				fp += 1;
+				break;
+				
+			case RecordingBackend.OP_UNIFORM2F:
+				backend.uniform2f(map(in[ip ++]), f[fp], f[fp+1]);
+				fp += 2;
+				break;
+				
+			case RecordingBackend.OP_UNIFORM3F:
+				backend.uniform3f(map(in[ip ++]), f[fp], f[fp+1], f[fp+2]);
+				fp += 3;
+				break;
+				
+			case RecordingBackend.OP_UNIFORM4F:
+				backend.uniform4f(map(in[ip ++]), f[fp], f[fp+1], f[fp+2], f[fp+3]);
+				fp += 4;
+				break;
+				
+			case RecordingBackend.OP_UNIFORM_MATRIX3:
+				id = map(in[ip ++]);
+				matrixData.clear();
+				matrixData.put(f, fp, 9);
+				matrixData.flip();
+				fp += 9;
+				backend.uniformMatrix3(id, matrixData);
+				break;
+				
+			case RecordingBackend.OP_GEN_BUFFER:
+				store(in[ip ++], backend.genBuffer());
+				break;
+				
+			case RecordingBackend.OP_DELETE_BUFFER:
+				id = in[ip ++];
+				backend.deleteBuffer(map(id));
+				store(id, 0);
+				break;
+				
+			case RecordingBackend.OP_BIND_BUFFER:
+				target = in[ip ++];
+				backend.bindBuffer(target, map(in[ip ++]));
+				break;
+				
+			case RecordingBackend.OP_BUFFER_DATA_FLOAT:
+				target = in[ip ++];
+				count = in[ip ++];
+				backend.bufferData(target, readFloats(list, count), in[ip ++]);
+				break;
+				
+			case RecordingBackend.OP_BUFFER_DATA_SHORT:
+				target = in[ip ++];
+				count = in[ip ++];
+				backend.bufferData(target, readShorts(list, count), in[ip ++]);
+				break;
+				
+			case RecordingBackend.OP_ENABLE_VERTEX_ATTRIB_ARRAY:
+				backend.enableVertexAttribArray(in[ip ++]);
+				break;
+				
+			case RecordingBackend.OP_DISABLE_VERTEX_ATTRIB_ARRAY:
+				backend.disableVertexAttribArray(in[ip ++]);
+				break;
+				
+			case RecordingBackend.OP_VERTEX_ATTRIB_POINTER:
+				backend.vertexAttribPointer(in[ip], in[ip+1], in[ip+2], in[ip+3]);
+				ip += 4;
+				break;
+				
+			case RecordingBackend.OP_DRAW_ELEMENTS:
+				backend.drawElements(in[ip], in[ip+1]);
+				ip += 2;
+				break;
+				
+			case RecordingBackend.OP_ENABLE:
+				backend.enable(in[ip ++]);
+				break;
+				
+			case RecordingBackend.OP_DISABLE:
+				backend.disable(in[ip ++]);
+				break;
+				
+			case RecordingBackend.OP_BLEND_FUNC_SEPARATE:
+				backend.blendFuncSeparate(in[ip], in[ip+1], in[ip+2], in[ip+3]);
+				ip += 4;
+				break;
+				
+			case RecordingBackend.OP_VIEWPORT:
+				backend.viewport(in[ip], in[ip+1], in[ip+2], in[ip+3]);
+				ip += 4;
+				break;
+				
+			case RecordingBackend.OP_SCISSOR:
+				backend.scissor(in[ip], in[ip+1], in[ip+2], in[ip+3]);
+				ip += 4;
+				break;
+				
+			case RecordingBackend.OP_CLEAR:
+				backend.clear(f[fp], f[fp+1], f[fp+2], f[fp+3]);
+				fp += 4;
+				break;
+				
+			default:
+				throw new RuntimeException("Unknown command: " + in[ip-1]);
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package core.renderer;
+
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER_COMPLETE;
+
+
+/**
+ * An offscreen framebuffer with a bitmap
+ * as its color target
+ * @author Jani Nykänen
+ *
+ */
+public class Framebuffer {
+
+	/** GL framebuffer index */
+	private int framebuffer;
+	/** Target bitmap */
+	private Bitmap target;
+
+
+	/**
+	 * Are framebuffers supported by the current context
+	 * @return True, if supported
+	 */
+	static public boolean isSupported() {
+
+		return Renderer.backend().isFramebufferSupported();
+	}
+
+
+	/**
+	 * Constructor
+	 * @param w Width
+	 * @param h Height
+	 */
+	public Framebuffer(int w, int h) {
+
+		target = new Bitmap(w, h);
+
+		// Create framebuffer & attach the texture
+		RenderBackend backend = Renderer.backend();
+		framebuffer = backend.genFramebuffer();
+		backend.bindFramebuffer(framebuffer);
+		backend.framebufferTexture(target.getTextureID());
+
+		int status = backend.checkFramebufferStatus();
+		backend.bindFramebuffer(0);
+
+		if(status != GL_FRAMEBUFFER_COMPLETE) {
+
+			dispose();
+			throw new RuntimeException("Failed to create a framebuffer, status: " + status);
+		}
+	}
+
+
+	/**
+	 * Bind for rendering
+	 */
+	void bind() {
+
+		Renderer.backend().bindFramebuffer(framebuffer);
+	}
+
+
+	/**
+	 * Bind the default framebuffer
+	 */
+	void unbind() {
+
+		Renderer.backend().bindFramebuffer(0);
+	}
+
+
+	/**
+	 * Destroy the framebuffer and its texture
+	 */
+	public void dispose() {
+
+		Renderer.backend().deleteFramebuffer(framebuffer);
+		target.dispose();
+	}
+
+
+	/**
+	 * Get the target bitmap. Note that the
+	 * content is upside down
+	 * @return Bitmap
+	 */
+	public Bitmap getBitmap() {
+
+		return target;
+	}
+
+
+	/**
+	 * Get width
+	 * @return Width
+	 */
+	public int getWidth() {
+
+		return target.getWidth();
+	}
+
+
+	/**
+	 * Get height
+	 * @return Height
+	 */
+	public int getHeight() {
+
+		return target.getHeight();
+	}
+}
@@ -0,0 +1,347 @@
+package core.renderer;
+
+import static org.lwjgl.opengl.GL30.*;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+
+/**
+ * Render backend that passes everything to OpenGL.
+ * Requires a current GL context
+ * @author Jani Nykänen
+ *
+ */
+public class GLBackend implements RenderBackend {
+
+	/**
+	 * Get error log content
+	 * @param object Object (i.e. shader)
+	 * @return Error info
+	 */
+	private String getErrorLog(int object) {
+		
+		String log = glGetShaderInfoLog(object, glGetShaderi(object, GL_INFO_LOG_LENGTH));
+		
+		return log;
+	}
+	
+	
+	/**
+	 * Create a shader
+	 * @param src Source string
+	 * @param shaderType Shader type (vertex or fragment)
+	 * @return Shader
+	 */
+	private int createShader(String src, int shaderType) {
+		
+		// Create shader
+		int shader = glCreateShader(shaderType);
+		if(shader == 0) {
+			
+			throw new RuntimeException("Failed to create a shader!");
+		}
+		
+		// Attach source
+		glShaderSource(shader, src);
+		
+		// Compile shader
+		glCompileShader(shader);
+		
+		// Check for errors
+		if(glGetShaderi(shader, GL_COMPILE_STATUS) == GL_FALSE) {
+			
+			throw new RuntimeException("SHADER ERROR: " + getErrorLog(shader));
+		}
+		
+		return shader;
+	}
+	
+	
+	@Override
+	public int genTexture() {
+		
+		return glGenTextures();
+	}
+	
+	
+	@Override
+	public void texImage2D(int w, int h, ByteBuffer pixels) {
+		
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+		
+		glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, w, h, 0, GL_RGBA,
+			    GL_UNSIGNED_BYTE, pixels);
+	}
+	
+	
+	@Override
+	public void deleteTexture(int id) {
+		
+		glDeleteTextures(id);
+	}
+	
+	
+	@Override
+	public void bindTexture(int id) {
+		
+		glBindTexture(GL_TEXTURE_2D, id);
+	}
+	
+	
+	@Override
+	public void activeTexture(int unit) {
+		
+		glActiveTexture(unit);
+	}
+	
+	
+	@Override
+	public int getMaxTextureSize() {
+		
+		return glGetInteger(GL_MAX_TEXTURE_SIZE);
+	}
+	
+	
+	@Override
+	public boolean isFramebufferSupported() {
+		
+		GLCapabilities caps = GL.getCapabilities();
+		return caps.OpenGL30 || caps.GL_ARB_framebuffer_object;
+	}
+	
+	
+	@Override
+	public int genFramebuffer() {
+		
+		return glGenFramebuffers();
+	}
+	
+	
+	@Override
+	public void bindFramebuffer(int id) {
+		
+		glBindFramebuffer(GL_FRAMEBUFFER, id);
+	}
+	
+	
+	@Override
+	public void framebufferTexture(int texture) {
+		
+		glFramebufferTexture2D(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0,
+				GL_TEXTURE_2D, texture, 0);
+	}
+	
+	
+	@Override
+	public int checkFramebufferStatus() {
+		
+		return glCheckFramebufferStatus(GL_FRAMEBUFFER);
+	}
+	
+	
+	@Override
+	public void deleteFramebuffer(int id) {
+		
+		glDeleteFramebuffers(id);
+	}
+	
+	
+	@Override
+	public int createProgram(String vertexSrc, String fragmentSrc) throws RuntimeException {
+		
+		// Create vertex & fragment shaders
+		int vertex = createShader(vertexSrc, GL_VERTEX_SHADER);
+		int fragment = createShader(fragmentSrc, GL_FRAGMENT_SHADER);
+		
+		// Create shader program
+		int program = glCreateProgram();
+		// Attach shader components
+		glAttachShader(program, vertex);
+		glAttachShader(program, fragment);
+		
+		// Bind attribute locations
+		glBindAttribLocation(program, 0, Shader.POS_LOCATION_NAME);
+		glBindAttribLocation(program, 1, Shader.UV_LOCATION_NAME);
+		glBindAttribLocation(program, 2, Shader.COLOR_LOCATION_NAME);
+		glBindAttribLocation(program, 2, Shader.INDEX_LOCATION_NAME);
+		
+		// Link program
+		glLinkProgram(program);
+		// Check for errors
+		if (glGetProgrami(program, GL_LINK_STATUS) == GL_FALSE) {
+			
+			throw new RuntimeException("SHADER ERROR: " + getErrorLog(program));
+        }
+		
+		// Validate
+		glValidateProgram(program);
+		// Check for errors
+		if (glGetProgrami(program, GL_LINK_STATUS) == GL_FALSE) {
+			
+			throw new RuntimeException("SHADER ERROR: " + getErrorLog(program));
+        }
+		
+		return program;
+	}
+	
+	
+	@Override
+	public void useProgram(int id) {
+		
+		glUseProgram(id);
+	}
+	
+	
+	@Override
+	public int getUniformLocation(int program, String name) {
+		
+		return glGetUniformLocation(program, name);
+	}
+	
+	
+	@Override
+	public void uniform1f(int loc, float x) {
+		
+		glUniform1f(loc, x);
+	}
+	
+	
+	@Override
+	public void uniform2f(int loc, float x, float y) {
+		
+		glUniform2f(loc, x, y);
+	}
+	
+	
+	@Override
+	public void uniform3f(int loc, float x, float y, float z) {
+		
+		glUniform3f(loc, x, y, z);
+	}
+	
+	
+	@Override
+	public void uniform4f(int loc, float x, float y, float z, float w) {
+		
+		glUniform4f(loc, x, y, z, w);
+	}
+	
+	
+	@Override
+	public void uniformMatrix3(int loc, FloatBuffer mat) {
+		
+		glUniformMatrix3fv(loc, false, mat);
+	}
+	
+	
+	@Override
+	public int genBuffer() {
+		
+		return glGenBuffers();
+	}
+	
+	
+	@Override
+	public void deleteBuffer(int id) {
+		
+		glDeleteBuffers(id);
+	}
+	
+	
+	@Override
+	public void bindBuffer(int target, int id) {
+		
+		glBindBuffer(target, id);
+	}
+	
+	
+	@Override
+	public void bufferData(int target, FloatBuffer data, int usage) {
+		
+		glBufferData(target, data, usage);
+	}
+	
+	
+	@Override
+	public void bufferData(int target, ShortBuffer data, int usage) {
+		
+		glBufferData(target, data, usage);
+	}
+	
+	
+	@Override
+	public void enableVertexAttribArray(int index) {
+		
+		glEnableVertexAttribArray(index);
+	}
+	
+	
+	@Override
+	public void disableVertexAttribArray(int index) {
+		
+		glDisableVertexAttribArray(index);
+	}
+	
+	
+	@Override
+	public void vertexAttribPointer(int index, int size, int stride, long offset) {
+		
+		glVertexAttribPointer(index, size, GL_FLOAT, false, stride, offset);
+	}
+	
+	
+	@Override
+	public void drawElements(int count, long offset) {
+		
+		glDrawElements(GL_TRIANGLES, count, GL_UNSIGNED_SHORT, offset);
+	}
+	
+	
+	@Override
+	public void enable(int cap) {
+		
+		glEnable(cap);
+	}
+	
+	
+	@Override
+	public void disable(int cap) {
+		
+		glDisable(cap);
+	}
+	
+	
+	@Override
+	public void blendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+		
+		glBlendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
+	}
+	
+	
+	@Override
+	public void viewport(int x, int y, int w, int h) {
+		
+		glViewport(x, y, w, h);
+	}
+	
+	
+	@Override
+	public void scissor(int x, int y, int w, int h) {
+		
+		glScissor(x, y, w, h);
+	}
+	
+	
+	@Override
+	public void clear(float r, float g, float b, float a) {
+		
+		glClearColor(r, g, b, a);
+		glClear(GL_COLOR_BUFFER_BIT);
+	}
+}
@@ -0,0 +1,269 @@
+package core.renderer;
+
+import static org.lwjgl.opengl.GL20.*;
+
+
+/**
+ * Keeps track of the current GL state, so that
+ * calls that would not change anything can be
+ * skipped
+ * @author Jani Nykänen
+ *
+ */
+public final class GLState {
+
+	/** Bound shader program */
+	static private int program = -1;
+	/** Bound texture */
+	static private int texture = -1;
+	/** Bound array buffer */
+	static private int arrayBuffer = -1;
+	/** Bound element array buffer */
+	static private int elementBuffer = -1;
+	/** Active texture unit */
+	static private int activeTexture = -1;
+
+	/** Blend state, -1 if unknown */
+	static private int blend = -1;
+	/** Blend function */
+	static private int blendSrcRGB = -1, blendDstRGB = -1,
+			blendSrcAlpha = -1, blendDstAlpha = -1;
+
+	/** Calls issued */
+	static private int issued = 0;
+	/** Calls skipped */
+	static private int skipped = 0;
+
+
+	/**
+	 * Count a state change that was passed to the driver
+	 */
+	static void countIssued() {
+
+		++ issued;
+	}
+
+
+	/**
+	 * Count a state change that was skipped
+	 */
+	static void countSkipped() {
+
+		++ skipped;
+	}
+
+
+	/**
+	 * Get the bound shader program
+	 * @return Program index, -1 if unknown
+	 */
+	static public int getProgram() {
+
+		return program;
+	}
+
+
+	/**
+	 * Use a shader program
+	 * @param id Program index
+	 */
+	static public void useProgram(int id) {
+
+		if(id == program) {
+
+			++ skipped;
+			return;
+		}
+		program = id;
+		Renderer.backend().useProgram(id);
+		++ issued;
+	}
+
+
+	/**
+	 * Bind a 2D texture
+	 * @param id Texture index
+	 */
+	static public void bindTexture(int id) {
+
+		if(id == texture) {
+
+			++ skipped;
+			return;
+		}
+		texture = id;
+		Renderer.backend().bindTexture(id);
+		++ issued;
+	}
+
+
+	/**
+	 * Forget a deleted texture. GL unbinds a texture
+	 * when it is deleted
+	 * @param id Texture index
+	 */
+	static public void textureDeleted(int id) {
+
+		if(id == texture)
+			texture = 0;
+	}
+
+
+	/**
+	 * Bind an array buffer
+	 * @param id Buffer index
+	 */
+	static public void bindArrayBuffer(int id) {
+
+		if(id == arrayBuffer) {
+
+			++ skipped;
+			return;
+		}
+		arrayBuffer = id;
+		Renderer.backend().bindBuffer(GL_ARRAY_BUFFER, id);
+		++ issued;
+	}
+
+
+	/**
+	 * Forget a deleted array buffer. GL unbinds 
+	 * a buffer when it is deleted
+	 * @param id Buffer index
+	 */
+	static public void arrayBufferDeleted(int id) {
+
+		if(id == arrayBuffer)
+			arrayBuffer = 0;
+	}
+
+
+	/**
+	 * Bind an element array buffer
+	 * @param id Buffer index
+	 */
+	static public void bindElementBuffer(int id) {
+
+		if(id == elementBuffer) {
+
+			++ skipped;
+			return;
+		}
+		elementBuffer = id;
+		Renderer.backend().bindBuffer(GL_ELEMENT_ARRAY_BUFFER, id);
+		++ issued;
+	}
+
+
+	/**
+	 * Set the active texture unit
+	 * @param unit Texture unit (e.g. GL_TEXTURE0)
+	 */
+	static public void activeTexture(int unit) {
+
+		if(unit == activeTexture) {
+
+			++ skipped;
+			return;
+		}
+		activeTexture = unit;
+		Renderer.backend().activeTexture(unit);
+		++ issued;
+	}
+
+
+	/**
+	 * Enable or disable blending
+	 * @param state State
+	 */
+	static public void setBlend(boolean state) {
+
+		int value = state ? 1 : 0;
+		if(value == blend) {
+
+			++ skipped;
+			return;
+		}
+		blend = value;
+		if(state)
+			Renderer.backend().enable(GL_BLEND);
+		else
+			Renderer.backend().disable(GL_BLEND);
+		++ issued;
+	}
+
+
+	/**
+	 * Set the blend function
+	 * @param srcRGB Source color factor
+	 * @param dstRGB Destination color factor
+	 * @param srcAlpha Source alpha factor
+	 * @param dstAlpha Destination alpha factor
+	 */
+	static public void setBlendFunc(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+
+		if(srcRGB == blendSrcRGB && dstRGB == blendDstRGB &&
+		   srcAlpha == blendSrcAlpha && dstAlpha == blendDstAlpha) {
+
+			++ skipped;
+			return;
+		}
+		blendSrcRGB = srcRGB;
+		blendDstRGB = dstRGB;
+		blendSrcAlpha = srcAlpha;
+		blendDstAlpha = dstAlpha;
+		Renderer.backend().blendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
+		++ issued;
+	}
+
+
+	/**
+	 * Forget everything, e.g. if someone else
+	 * has changed the state
+	 */
+	static public void invalidate() {
+
+		program = -1;
+		texture = -1;
+		arrayBuffer = -1;
+		elementBuffer = -1;
+		activeTexture = -1;
+		blend = -1;
+		blendSrcRGB = -1;
+		blendDstRGB = -1;
+		blendSrcAlpha = -1;
+		blendDstAlpha = -1;
+	}
+
+
+	/**
+	 * Get the amount of calls issued since
+	 * the last reset
+	 * @return Call count
+	 */
+	static public int getIssuedCount() {
+
+		return issued;
+	}
+
+
+	/**
+	 * Get the amount of calls skipped since
+	 * the last reset
+	 * @return Call count
+	 */
+	static public int getSkippedCount() {
+
+		return skipped;
+	}
+
+
+	/**
+	 * Reset the counters
+	 */
+	static public void resetCounters() {
+
+		issued = 0;
+		skipped = 0;
+	}
+}
@@ -1,11 +1,8 @@
 package core.renderer;
 
 import core.types.Point;
-import core.types.Vector2;
 
-import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
-import static org.lwjgl.opengl.GL11.glClear;
-import static org.lwjgl.opengl.GL11.glClearColor;
+import static org.lwjgl.opengl.GL11.GL_SCISSOR_TEST;
 import static org.lwjgl.opengl.GL20.*;
 
 /**
@@ -18,6 +15,10 @@ public final class Graphics {
 
 	/** Default shader */
 	private Shader shaderDefault;
+	/** Batch shader */
+	private Shader shaderBatch;
+	/** Text shader */
+	private Shader shaderText;
 	
 	/** Transformations */
 	private Transformations transf;
@@ -27,15 +28,50 @@ public final class Graphics {
 	
 	/** Rectangle mesh */
 	private Mesh2D meshRect;
+	/** Sprite batch */
+	private SpriteBatch batch;
+	/** Text layout cache */
+	private TextCache textCache;
+	/** Is batching enabled */
+	private boolean batching = false;
+	
+	/** Current color */
+	private float[] color = new float[] {1, 1, 1, 1};
+	
+	/** Draw calls issued during the current frame, excluding
+	 * the ones issued by the sprite batch */
+	private int drawCalls = 0;
+	/** Draw calls issued during the previous frame */
+	private int drawCallsPrevious = 0;
+	/** State changes & uniform calls issued during the previous frame */
+	private int stateCallsIssued = 0;
+	/** State changes & uniform calls skipped during the previous frame */
+	private int stateCallsSkipped = 0;
+	
+	/** Viewport width */
+	private int viewportWidth = 1;
+	/** Viewport height */
+	private int viewportHeight = 1;
+	
+	/** Active offscreen target, null if none */
+	private Framebuffer offscreen = null;
 	
 	/** Source translation */
 	private Point sourceTranslation;
+	/** Source UV storage, reused to avoid garbage */
+	private float[] sourceUV = new float[4];
 	
 	/** Global alpha */
 	private float globalAlpha = 1.0f;
 	/** Is "autocrop" enabled */
 	private boolean autocrop = true;
 	
+	/** Update tick the frame belongs to */
+	private int tick = 0;
+	/** Position of the frame between the latest tick and
+	 *  the next one, in [0,1] */
+	private float interpolation = 1.0f;
+	
 	
 	/**
 	 * Initialize graphics
@@ -43,8 +79,10 @@ public final class Graphics {
 	 */
 	public void init() throws Exception {
 		
-		// Create the default shader
+		// Create shaders
 		shaderDefault = new Shader(DefaultShader.VERTEX, DefaultShader.FRAGMENT);
+		shaderBatch = new Shader(BatchShader.VERTEX, BatchShader.FRAGMENT);
+		shaderText = new Shader(TextShader.VERTEX, TextShader.FRAGMENT);
 		
 		// Create components
 		transf = new Transformations();
@@ -75,17 +113,114 @@ public final class Graphics {
 			2,3,0
 		});
 		
+		// Create sprite batch & text cache
+		batch = new SpriteBatch();
+		textCache = new TextCache(this);
+		
 		// Enable GL related stuff
-		glActiveTexture(GL_TEXTURE0);
-	    glDisable(GL_DEPTH_TEST);
-	    glEnable( GL_BLEND );
-	    glBlendFuncSeparate(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA, GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
-	    
-	    // Bind mesh
-	    meshRect.bind();
+		GLState.activeTexture(GL_TEXTURE0);
+	    Renderer.backend().disable(GL_DEPTH_TEST);
+	    GLState.setBlend(true);
+	    GLState.setBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA, GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
 	    
 	    // Set default values
 	    globalAlpha = 1.0f;
+	    
+	    // Bind the default shader & mesh
+	    setBatching(batching);
+	}
+	
+	
+	/**
+	 * Pass a quad to the GPU, either by adding it to the
+	 * batch or by drawing it right away
+	 * @param bmp Bitmap
+	 * @param dx Destination x
+	 * @param dy Destination y
+	 * @param dw Destination width
+	 * @param dh Destination height
+	 * @param u Source U coordinate
+	 * @param v Source V coordinate
+	 * @param uw Source width in UV space
+	 * @param vh Source height in UV space
+	 */
+	private void drawQuad(Bitmap bmp, float dx, float dy, float dw, float dh,
+			float u, float v, float uw, float vh) {
+		
+		if(batching) {
+			
+			batch.add(bmp, dx, dy, dw, dh, u, v, uw, vh, 
+					color[0], color[1], color[2], color[3]);
+			return;
+		}
+		
+		// Bind texture
+		bmp.bind();
+		
+		// Pass position & dimension data to the shader
+		shaderDefault.setVertexUniforms(dx, dy, dw, dh);
+		shaderDefault.setUVUniforms(u, v, uw, vh);
+		
+		meshRect.draw();
+		++ drawCalls;
+	}
+	
+	
+	/**
+	 * Bind the shader & the vertex data of
+	 * the current rendering mode
+	 */
+	private void bindMode() {
+		
+		if(batching) {
+			
+			shaderBatch.use();
+			batch.bind();
+		}
+		else {
+			
+			shaderDefault.use();
+			meshRect.bind();
+		}
+	}
+	
+	
+	/**
+	 * Draw laid out text
+	 * @param bmp Font bitmap
+	 * @param mesh Text mesh
+	 * @param dx Destination x
+	 * @param dy Destination y
+	 * @param t Time
+	 * @param amplitude Wave amplitude
+	 * @param period Wave phase step per glyph
+	 */
+	private void drawTextMesh(Bitmap bmp, TextMesh mesh, float dx, float dy,
+			float t, float amplitude, float period) {
+		
+		// Text that does not wave can be put to the batch
+		if(batching && amplitude == 0.0f) {
+			
+			batch.addText(bmp, mesh, dx, dy, color[0], color[1], color[2], color[3]);
+			return;
+		}
+		batch.flush();
+		
+		// Set uniforms
+		shaderText.use();
+		transf.use(shaderText);
+		shaderText.setColorUniform(color[0], color[1], color[2], color[3]);
+		shaderText.setVertexUniforms(dx, dy, 1, 1);
+		shaderText.setWaveUniform(t, amplitude, period);
+		
+		// Draw
+		bmp.bind();
+		textCache.bindIndices();
+		mesh.draw();
+		++ drawCalls;
+		
+		// Back to the normal rendering
+		bindMode();
 	}
 	
 	
@@ -118,14 +253,65 @@ public final class Graphics {
 	 */
 	public void fillRect(float x, float y, float w, float h) {
 		
-		// Bind texture
-		bmpWhite.bind();
+		drawQuad(bmpWhite, x, y, w, h, 0, 0, 1, 1);
+	}
+	
+	
+	/**
+	 * Compute the texture coordinates of a source
+	 * rectangle, taking autocrop into account
+	 * @param bmp Bitmap
+	 * @param sx Source x
+	 * @param sy Source y
+	 * @param sw Source width
+	 * @param sh Source height
+	 * @param out Output: U, V, width in UV space, height in UV space
+	 */
+	public void getSourceUV(Bitmap bmp, int sx, int sy, int sw, int sh, float[] out) {
 		
-		// Pass position & dimension data to the shader
-		shaderDefault.setVertexUniforms(new Vector2(x, y), new Vector2(w, h));
-		shaderDefault.setUVUniforms(new Vector2(0, 0), new Vector2(1, 1));
+		final float DELTA_JUMP = 2.0f;
+		final float DELTA_MAX = 1.0f;
 		
-		meshRect.draw();
+		float w = (float)bmp.getWidth();
+	    float h = (float)bmp.getHeight();
+		
+	    float deltaX = 0.0f;
+	    float deltaY = 0.0f;
+	    
+	    // No need to crop if the whole bitmap is drawn, since
+	    // the atlas padding repeats the edge pixels
+	    boolean whole = sx <= 0 && sy <= 0 && sx + sw >= w && sy + sh >= h;
+	    
+	    // "Crop". Required when linear filtering is on for
+	    // drawing tiles etc
+	    if(whole) {
+	    	
+	    	deltaX = 0.0f;
+	    	deltaY = 0.0f;
+	    }
+	    else if(autocrop) {
+	    	
+		    deltaX = DELTA_JUMP / bmp.getWidth() * (sw / (float)bmp.getWidth());
+		    deltaY = DELTA_JUMP / bmp.getHeight() * (sh / (float)bmp.getHeight());
+		    
+		    if(deltaX > DELTA_MAX) deltaX = DELTA_MAX;
+		    if(deltaY > DELTA_MAX) deltaY = DELTA_MAX;
+	    }
+	    // Otherwise we just remove "half" a pixel
+	    else {
+	    	
+	    	deltaX = 0.5f / sw;
+	    	deltaY = 0.5f / sh;
+	    }
+	    
+	    // Map the source rectangle to the texture the
+	    // bitmap lives in (it might be an atlas page)
+	    float tw = (float)bmp.getTextureWidth();
+	    float th = (float)bmp.getTextureHeight();
+	    out[0] = (bmp.getOffsetX() + sx + deltaX * w) / tw;
+	    out[1] = (bmp.getOffsetY() + sy + deltaY * h) / th;
+	    out[2] = (sw - deltaX*2 * w) / tw;
+	    out[3] = (sh - deltaY*2 * h) / th;
 	}
 	
 	
@@ -145,15 +331,7 @@ public final class Graphics {
 	public void drawScaledBitmapRegion(Bitmap bmp, int sx, int sy, int sw, int sh,
 			float dx, float dy, float dw, float dh, int flip) {
 		
-		final float DELTA_JUMP = 2.0f;
-		final float DELTA_MAX = 1.0f;
-		
-		// Bind bitmap
-		bmp.bind();
-		
 		// Flip
-		float w = (float)bmp.getWidth();
-	    float h = (float)bmp.getHeight();
 	    if( (flip & Flip.HORIZONTAL) != 0) {
 
 	        dx += dw;
@@ -169,31 +347,10 @@ public final class Graphics {
 	    sx += sourceTranslation.x;
 	    sy += sourceTranslation.y;
 	    
-	    float deltaX = 0.0f;
-	    float deltaY = 0.0f;
-	    
-	    // "Crop". Required when linear filtering is on for
-	    // drawing tiles etc
-	    if(autocrop) {
-	    	
-		    deltaX = DELTA_JUMP / bmp.getWidth() * (sw / (float)bmp.getWidth());
-		    deltaY = DELTA_JUMP / bmp.getHeight() * (sh / (float)bmp.getHeight());
-		    
-		    if(deltaX > DELTA_MAX) deltaX = DELTA_MAX;
-		    if(deltaY > DELTA_MAX) deltaY = DELTA_MAX;
-	    }
-	    // Otherwise we just remove "half" a pixel
-	    else {
-	    	
-	    	deltaX = 0.5f / sw;
-	    	deltaY = 0.5f / sh;
-	    }
+	    getSourceUV(bmp, sx, sy, sw, sh, sourceUV);
 	    
-	    // Pass size data to the shader
-	    shaderDefault.setVertexUniforms(new Vector2(dx, dy), new Vector2(dw, dh));
-	    shaderDefault.setUVUniforms(new Vector2(sx / w + deltaX, sy / h + deltaY), 
-	    		new Vector2(sw / w - deltaX*2, sh / h- deltaY*2));
-	    meshRect.draw();
+	    // Draw
+	    drawQuad(bmp, dx, dy, dw, dh, sourceUV[0], sourceUV[1], sourceUV[2], sourceUV[3]);
 	}
 	
 	
@@ -303,6 +460,19 @@ public final class Graphics {
 		
 	    if(bmp == null) return;
 	    
+	    // No source translation here!
+	    setSourceTranslation(0, 0);
+	    
+	    // Draw the cached mesh, if the text is not too long
+	    TextMesh mesh = textCache.get(bmp, text, xoff, yoff, center, scale, autocrop);
+	    if(mesh != null) {
+	    	
+	    	float period = periodLength == 0 ? 0.0f : (float)Math.PI / periodLength;
+	    	drawTextMesh(bmp, mesh, dx, dy, t, 
+	    			periodLength == 0 ? 0.0f : amplitude, period);
+	    	return;
+	    }
+	    
 	    center = center == false ? false : center;
 
 	    int cw = (bmp.getWidth()) / 16;
@@ -316,9 +486,6 @@ public final class Graphics {
 	    float yplus = 0.0f;
         float period = periodLength == 0 ? 0.0f : (float)Math.PI / periodLength;
 	    
-	    // No source translation here!
-	    setSourceTranslation(0, 0);
-	    
 	    int sx, sy;
 	    
 	    // Center the text
@@ -355,6 +522,37 @@ public final class Graphics {
 	}
 	
 	
+	/**
+	 * Use a custom shader. Flushes the batch, so the
+	 * uniforms of the shader can be set before drawing
+	 * a mesh with it. Must be followed by drawMesh
+	 * @param shader Shader
+	 */
+	public void useShader(Shader shader) {
+		
+		batch.flush();
+		shader.use();
+		transf.use(shader);
+	}
+	
+	
+	/**
+	 * Draw a quad mesh with a custom shader, that
+	 * has been activated with useShader
+	 * @param mesh Mesh
+	 * @param bmp Bitmap
+	 */
+	public void drawMesh(QuadMesh mesh, Bitmap bmp) {
+		
+		bmp.bind();
+		batch.bindIndices();
+		drawCalls += mesh.draw();
+		
+		// Back to the normal rendering
+		bindMode();
+	}
+	
+	
 	/**
 	 * Set global rendering color
 	 * @param r Red channel
@@ -364,7 +562,14 @@ public final class Graphics {
 	 */
 	public void setColor(float r, float g, float b, float a) {
 		
-		shaderDefault.setColorUniform(r, g, b, a * globalAlpha);
+		color[0] = r;
+		color[1] = g;
+		color[2] = b;
+		color[3] = a * globalAlpha;
+		
+		// With batching the color is passed per vertex
+		if(!batching)
+			shaderDefault.setColorUniform(color[0], color[1], color[2], color[3]);
 	}
 
 	
@@ -397,8 +602,9 @@ public final class Graphics {
 	 */
 	public void clearScreen(float r, float g, float b) {
 		
-		glClearColor(r,g,b,1.0f);
-		glClear(GL_COLOR_BUFFER_BIT);
+		batch.flush();
+		
+		Renderer.backend().clear(r, g, b, 1.0f);
 	}
 	
 	
@@ -409,11 +615,91 @@ public final class Graphics {
 	 */
 	public void setViewport(int w, int h) {
 		
-		glViewport(0,0,w,h);
+		batch.flush();
+		
+		viewportWidth = w;
+		viewportHeight = h;
+		
+		// If drawing offscreen, the new viewport
+		// is set when the offscreen rendering ends
+		if(offscreen != null) return;
+		
+		Renderer.backend().viewport(0,0,w,h);
 		transf.updateFrameBufferSize(w, h);
 	}
 	
 	
+	/**
+	 * Start drawing to a framebuffer. The view is set to
+	 * match the framebuffer size and the model matrix
+	 * is set to identity. Note that the result is upside
+	 * down when drawn with the default view
+	 * @param fb Framebuffer
+	 */
+	public void beginOffscreen(Framebuffer fb) {
+		
+		batch.flush();
+		
+		offscreen = fb;
+		fb.bind();
+		Renderer.backend().viewport(0, 0, fb.getWidth(), fb.getHeight());
+		
+		// Set transformations
+		transf.push();
+		transf.saveView();
+		transf.setView(fb.getWidth(), fb.getHeight());
+		transf.identity();
+		transf.use();
+	}
+	
+	
+	/**
+	 * Stop drawing to a framebuffer and restore
+	 * the previous view
+	 */
+	public void endOffscreen() {
+		
+		if(offscreen == null) return;
+		
+		batch.flush();
+		
+		offscreen.unbind();
+		offscreen = null;
+		
+		Renderer.backend().viewport(0, 0, viewportWidth, viewportHeight);
+		transf.updateFrameBufferSize(viewportWidth, viewportHeight);
+		
+		// Restore transformations
+		transf.restoreView();
+		transf.pop();
+	}
+	
+	
+	/**
+	 * Clear a region of the active framebuffer to
+	 * transparent. Only works while drawing offscreen
+	 * @param x X coordinate
+	 * @param y Y coordinate
+	 * @param w Width
+	 * @param h Height
+	 */
+	public void clearRegion(int x, int y, int w, int h) {
+		
+		if(offscreen == null) return;
+		
+		batch.flush();
+		
+		// Framebuffer coordinates start from the bottom
+		RenderBackend backend = Renderer.backend();
+		backend.enable(GL_SCISSOR_TEST);
+		backend.scissor(x, offscreen.getHeight() - (y+h), w, h);
+		
+		backend.clear(0, 0, 0, 0);
+		
+		backend.disable(GL_SCISSOR_TEST);
+	}
+	
+	
 	/**
 	 * Set source translation for bitmap rendering
 	 * @param x X
@@ -453,4 +739,143 @@ public final class Graphics {
 		
 		autocrop = state;
 	}
+	
+	
+	/**
+	 * Enable or disable batching. When enabled, quads are
+	 * collected to a sprite batch and drawn only when the
+	 * texture or the transformations change
+	 * @param state State
+	 */
+	public void setBatching(boolean state) {
+		
+		batch.flush();
+		batching = state;
+		
+		// Bind the shader & the vertex data that
+		// belong to the mode
+		bindMode();
+		if(batching) {
+			
+			transf.bindShader(shaderBatch);
+			transf.bindBatch(batch);
+		}
+		else {
+			
+			transf.bindShader(shaderDefault);
+			transf.bindBatch(null);
+			
+			shaderDefault.setColorUniform(color[0], color[1], color[2], color[3]);
+		}
+		transf.use();
+	}
+	
+	
+	/**
+	 * Is batching enabled
+	 * @return True, if enabled
+	 */
+	public boolean isBatchingEnabled() {
+		
+		return batching;
+	}
+	
+	
+	/**
+	 * Start a new frame
+	 */
+	public void beginFrame() {
+		
+		drawCalls = 0;
+		batch.resetDrawCalls();
+		GLState.resetCounters();
+		
+		// Someone may have bound another shader
+		// since the previous frame
+		if(!(batching ? shaderBatch : shaderDefault).isBound())
+			bindMode();
+	}
+	
+	
+	/**
+	 * Finish the current frame, i.e. draw everything
+	 * that is still waiting in the batch
+	 */
+	public void endFrame() {
+		
+		batch.flush();
+		drawCallsPrevious = drawCalls + batch.resetDrawCalls();
+		stateCallsIssued = GLState.getIssuedCount();
+		stateCallsSkipped = GLState.getSkippedCount();
+	}
+	
+	
+	/**
+	 * Set the frame timing, i.e. where the frame
+	 * is drawn compared to the update ticks
+	 * @param tick Amount of update ticks so far
+	 * @param interpolation Position between the latest 
+	 * and the next tick, in [0,1]
+	 */
+	public void setFrameTiming(int tick, float interpolation) {
+		
+		this.tick = tick;
+		this.interpolation = interpolation;
+	}
+	
+	
+	/**
+	 * Get the amount of update ticks so far
+	 * @return Tick count
+	 */
+	public int getTick() {
+		
+		return tick;
+	}
+	
+	
+	/**
+	 * Get the position of the frame between the
+	 * latest update tick and the next one. Always 1
+	 * if interpolation is not enabled
+	 * @return Value in [0,1]
+	 */
+	public float getInterpolation() {
+		
+		return interpolation;
+	}
+	
+	
+	/**
+	 * Get the amount of draw calls issued during
+	 * the previous frame
+	 * @return Draw call count
+	 */
+	public int getDrawCallCount() {
+		
+		return drawCallsPrevious;
+	}
+	
+	
+	/**
+	 * Get the amount of state changes and uniform calls 
+	 * passed to GL during the previous frame
+	 * @return Call count
+	 */
+	public int getStateCallsIssued() {
+		
+		return stateCallsIssued;
+	}
+	
+	
+	/**
+	 * Get the amount of state changes and uniform calls 
+	 * skipped during the previous frame, since they would
+	 * not have changed anything
+	 * @return Call count
+	 */
+	public int getStateCallsSkipped() {
+		
+		return stateCallsSkipped;
+	}
 }
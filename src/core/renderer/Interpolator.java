@@ -0,0 +1,85 @@
+package core.renderer;
+
+import core.types.Vector2;
+
+
+/**
+ * Smooths a value that changes only at update ticks,
+ * so it can be drawn between the ticks. The value is
+ * passed when drawing; the interpolator remembers what
+ * it was during the previous tick and blends the two
+ * @author Jani Nykänen
+ *
+ */
+public class Interpolator {
+
+	/** Tick the latest value belongs to */
+	private int tick = Integer.MIN_VALUE;
+	/** Value during the previous tick */
+	private float prevX, prevY;
+	/** Value during the latest tick */
+	private float lastX, lastY;
+	/** Output */
+	private Vector2 out = new Vector2();
+	
+	
+	/**
+	 * Get the interpolated value of a pair
+	 * @param g Graphics object
+	 * @param x Current x
+	 * @param y Current y
+	 * @return Value to draw with. Do not store, it is reused
+	 */
+	public Vector2 get(Graphics g, float x, float y) {
+		
+		int t = g.getTick();
+		if(t != tick) {
+			
+			// If ticks were missed (or this is the first call), 
+			// there is nothing sensible to blend with
+			if(t == tick + 1) {
+				
+				prevX = lastX;
+				prevY = lastY;
+			}
+			else {
+				
+				prevX = x;
+				prevY = y;
+			}
+			tick = t;
+		}
+		lastX = x;
+		lastY = y;
+		
+		float a = g.getInterpolation();
+		out.x = prevX + (x - prevX) * a;
+		out.y = prevY + (y - prevY) * a;
+		
+		return out;
+	}
+	
+	
+	/**
+	 * Get the interpolated value of a vector
+	 * @param g Graphics object
+	 * @param v Current value
+	 * @return Value to draw with. Do not store, it is reused
+	 */
+	public Vector2 get(Graphics g, Vector2 v) {
+		
+		return get(g, v.x, v.y);
+	}
+	
+	
+	/**
+	 * Get the interpolated value of a scalar
+	 * @param g Graphics object
+	 * @param x Current value
+	 * @return Value to draw with
+	 */
+	public float get(Graphics g, float x) {
+		
+		return get(g, x, 0.0f).x;
+	}
+}
@@ -0,0 +1,90 @@
+package core.renderer;
+
+/**
+ * Includes the lava shaders. Lava UVs are scrolled and
+ * the color is modulated in the shader, so a whole lava
+ * field can be drawn as one static mesh. Vertices use the
+ * sprite batch layout: color alpha is the alpha group and
+ * a negative U means a solid colored quad (e.g. a border)
+ * @author Jani Nykänen
+ *
+ */
+public final class LavaShader {
+
+	/** Lava vertex shader */
+	static public final String VERTEX = "#version 120\n" +
+			"attribute vec2 vertexPos;\n" +
+			"attribute vec2 vertexUV;\n" +
+			"attribute vec4 vertexColor;\n" +
+			"   \n" +
+			"uniform mat3 model;\n" +
+			"uniform mat3 project;\n" +
+			"   \n" +
+			"// Movement phase, in [0,1]\n" +
+			"uniform float phase;\n" +
+			"// Scrolling range in pixels\n" +
+			"uniform vec2 scrollRange;\n" +
+			"// Texel size in UV space\n" +
+			"uniform vec2 texelSize;\n" +
+			"// Alpha of each group\n" +
+			"uniform vec3 groupAlpha;\n" +
+			"   \n" +
+			"varying vec2 uv;\n" +
+			"varying vec4 col;\n" +
+			"varying float solid;\n" +
+			"   \n" +
+			"// Main\n" +
+			"void main() {\n" +
+			"   \n" +
+			"    const float COLOR_MOD = 0.125;\n" +
+			"    const float PI2 = 6.2831853;\n" +
+			"   \n" +
+			"    // Position\n" +
+			"    gl_Position = vec4(project * model * vec3(vertexPos.x, vertexPos.y, 1), 1);\n" +
+			"   \n" +
+			"    // Pick the group alpha\n" +
+			"    float g = vertexColor.a;\n" +
+			"    vec3 sel = vec3(float(g < 0.5), float(g > 0.5 && g < 1.5), float(g > 1.5));\n" +
+			"    float alpha = dot(groupAlpha, sel);\n" +
+			"   \n" +
+			"    // Scroll texture coordinates, whole pixels only\n" +
+			"    solid = float(vertexUV.x < 0.0);\n" +
+			"    vec2 scroll = floor(vec2(phase, 1.0 - phase) * scrollRange);\n" +
+			"    uv = vertexUV + scroll * texelSize;\n" +
+			"   \n" +
+			"    // Modulate brightness. Solid quads and fading-out\n" +
+			"    // lava (group 2) keep their color\n" +
+			"    float b = 1.0 + COLOR_MOD * sin(phase * PI2);\n" +
+			"    b = mix(b, 1.0, max(solid, sel.z));\n" +
+			"    col = vec4(vertexColor.rgb * b, alpha);\n" +
+			"}";
+
+
+	/** Lava fragment shader */
+	static public final String FRAGMENT = "#version 120\n" +
+			"varying vec2 uv;\n" +
+			"varying vec4 col;\n" +
+			"varying float solid;\n" +
+			"\n" +
+			"uniform sampler2D texSampler;\n" +
+			"\n" +
+			"// Main\n" +
+			"void main() {\n" +
+			"\n" +
+			"    const float DELTA = 0.01;\n" +
+			"\n" +
+			"    // Solid quads do not use the texture\n" +
+			"    vec4 tex = mix(texture2D(texSampler, uv), vec4(1.0), solid);\n" +
+			"\n" +
+			"    // Check if the color alpha is not too small\n" +
+			"    vec4 res = col * tex;\n" +
+			"    if(res.a <= DELTA) {\n" +
+			"        \n" +
+			"        discard;\n" +
+			"    }\n" +
+			"\n" +
+			"    // Set color\n" +
+			"    gl_FragColor = res;\n" +
+			"}";
+
+}
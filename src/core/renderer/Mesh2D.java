@@ -35,9 +35,9 @@ public class Mesh2D {
 		indexCount = indices.length;
 		
 		// Generate GL buffers
-		vertexBuffer = glGenBuffers();
-		uvBuffer = glGenBuffers();
-		indexBuffer = glGenBuffers();
+		vertexBuffer = Renderer.backend().genBuffer();
+		uvBuffer = Renderer.backend().genBuffer();
+		indexBuffer = Renderer.backend().genBuffer();
 		
 		// Generate byte buffers
 		FloatBuffer vertexData = BufferUtils.createFloatBuffer(vertices.length);
@@ -53,14 +53,14 @@ public class Mesh2D {
 		indexData.flip();
 		
 		// Set data
-		glBindBuffer(GL_ARRAY_BUFFER, vertexBuffer);
-		glBufferData(GL_ARRAY_BUFFER, vertexData, GL_STATIC_DRAW);
+		GLState.bindArrayBuffer(vertexBuffer);
+		Renderer.backend().bufferData(GL_ARRAY_BUFFER, vertexData, GL_STATIC_DRAW);
 		
-		glBindBuffer(GL_ARRAY_BUFFER, uvBuffer);
-		glBufferData(GL_ARRAY_BUFFER, uvData, GL_STATIC_DRAW);
+		GLState.bindArrayBuffer(uvBuffer);
+		Renderer.backend().bufferData(GL_ARRAY_BUFFER, uvData, GL_STATIC_DRAW);
 		
-		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
-		glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexData, GL_STATIC_DRAW);
+		GLState.bindElementBuffer(indexBuffer);
+		Renderer.backend().bufferData(GL_ELEMENT_ARRAY_BUFFER, indexData, GL_STATIC_DRAW);
 	}
 	
 	
@@ -69,16 +69,18 @@ public class Mesh2D {
 	 */
 	public void bind() {
 
-		glEnableVertexAttribArray(0);
-		glEnableVertexAttribArray(1);
+		Renderer.backend().enableVertexAttribArray(0);
+		Renderer.backend().enableVertexAttribArray(1);
+		// Not used, but might be left enabled by the sprite batch
+		Renderer.backend().disableVertexAttribArray(2);
 		
-		glBindBuffer(GL_ARRAY_BUFFER, vertexBuffer);
-		glVertexAttribPointer( 0, 2, GL_FLOAT, false, 0, 0);
+		GLState.bindArrayBuffer(vertexBuffer);
+		Renderer.backend().vertexAttribPointer(0, 2, 0, 0);
 		
-		glBindBuffer(GL_ARRAY_BUFFER, uvBuffer);
-		glVertexAttribPointer( 1, 2, GL_FLOAT, false, 0, 0);
+		GLState.bindArrayBuffer(uvBuffer);
+		Renderer.backend().vertexAttribPointer(1, 2, 0, 0);
 		
-		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+		GLState.bindElementBuffer(indexBuffer);
 	}
 	
 	
@@ -87,6 +89,6 @@ public class Mesh2D {
 	 */
 	public void draw() {
 		
-		glDrawElements(GL_TRIANGLES, indexCount, GL_UNSIGNED_SHORT, 0);
+		Renderer.backend().drawElements(indexCount, 0);
 	}
 }
@@ -0,0 +1,342 @@
+package core.renderer;
+
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER_COMPLETE;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+
+/**
+ * Render backend that draws nothing, but counts the
+ * calls made to it. Needs no GL context, so scenes
+ * can be driven as fast as the CPU allows
+ * @author Jani Nykänen
+ *
+ */
+public class NullBackend implements RenderBackend {
+
+	/** Reported maximum texture size */
+	static private final int MAX_TEXTURE_SIZE = 4096;
+	
+	/** Next object index */
+	private int nextID = 1;
+	
+	/** Calls made since the last reset */
+	protected long calls = 0;
+	/** Draw calls made since the last reset */
+	protected long drawCalls = 0;
+	/** Vertices (indices) drawn since the last reset */
+	protected long vertices = 0;
+	/** Texture binds since the last reset */
+	protected long textureSwitches = 0;
+	
+	
+	@Override
+	public int genTexture() {
+		
+		++ calls;
+		return nextID ++;
+	}
+	
+	
+	@Override
+	public void texImage2D(int w, int h, ByteBuffer pixels) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void deleteTexture(int id) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void bindTexture(int id) {
+		
+		++ calls;
+		++ textureSwitches;
+	}
+	
+	
+	@Override
+	public void activeTexture(int unit) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public int getMaxTextureSize() {
+		
+		++ calls;
+		return MAX_TEXTURE_SIZE;
+	}
+	
+	
+	@Override
+	public boolean isFramebufferSupported() {
+		
+		++ calls;
+		return true;
+	}
+	
+	
+	@Override
+	public int genFramebuffer() {
+		
+		++ calls;
+		return nextID ++;
+	}
+	
+	
+	@Override
+	public void bindFramebuffer(int id) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void framebufferTexture(int texture) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public int checkFramebufferStatus() {
+		
+		++ calls;
+		return GL_FRAMEBUFFER_COMPLETE;
+	}
+	
+	
+	@Override
+	public void deleteFramebuffer(int id) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public int createProgram(String vertexSrc, String fragmentSrc) throws RuntimeException {
+		
+		++ calls;
+		return nextID ++;
+	}
+	
+	
+	@Override
+	public void useProgram(int id) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public int getUniformLocation(int program, String name) {
+		
+		++ calls;
+		return 0;
+	}
+	
+	
+	@Override
+	public void uniform1f(int loc, float x) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void uniform2f(int loc, float x, float y) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void uniform3f(int loc, float x, float y, float z) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void uniform4f(int loc, float x, float y, float z, float w) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void uniformMatrix3(int loc, FloatBuffer mat) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public int genBuffer() {
+		
+		++ calls;
+		return nextID ++;
+	}
+	
+	
+	@Override
+	public void deleteBuffer(int id) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void bindBuffer(int target, int id) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void bufferData(int target, FloatBuffer data, int usage) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void bufferData(int target, ShortBuffer data, int usage) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void enableVertexAttribArray(int index) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void disableVertexAttribArray(int index) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void vertexAttribPointer(int index, int size, int stride, long offset) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void drawElements(int count, long offset) {
+		
+		++ calls;
+		++ drawCalls;
+		vertices += count;
+	}
+	
+	
+	@Override
+	public void enable(int cap) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void disable(int cap) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void blendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void viewport(int x, int y, int w, int h) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void scissor(int x, int y, int w, int h) {
+		
+		++ calls;
+	}
+	
+	
+	@Override
+	public void clear(float r, float g, float b, float a) {
+		
+		++ calls;
+	}
+	
+	
+	/**
+	 * Get the amount of calls
+	 * @return Call count
+	 */
+	public long getCallCount() {
+		
+		return calls;
+	}
+	
+	
+	/**
+	 * Get the amount of draw calls
+	 * @return Draw call count
+	 */
+	public long getDrawCallCount() {
+		
+		return drawCalls;
+	}
+	
+	
+	/**
+	 * Get the amount of vertices drawn. Every index
+	 * counts as one vertex
+	 * @return Vertex count
+	 */
+	public long getVertexCount() {
+		
+		return vertices;
+	}
+	
+	
+	/**
+	 * Get the amount of texture switches
+	 * @return Texture bind count
+	 */
+	public long getTextureSwitchCount() {
+		
+		return textureSwitches;
+	}
+	
+	
+	/**
+	 * Reset the counters
+	 */
+	public void resetCounters() {
+		
+		calls = 0;
+		drawCalls = 0;
+		vertices = 0;
+		textureSwitches = 0;
+	}
+}
@@ -0,0 +1,168 @@
+package core.renderer;
+
+import static org.lwjgl.opengl.GL20.*;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.lwjgl.BufferUtils;
+
+
+/**
+ * A mesh of quads that is built once and drawn
+ * many times. Uses the same vertex layout as
+ * the sprite batch (position, UV, color)
+ * @author Jani Nykänen
+ *
+ */
+public class QuadMesh {
+
+	/** Floats per vertex */
+	static private final int VERTEX_SIZE = 2 + 2 + 4;
+	/** Vertex size in bytes */
+	static private final int VERTEX_STRIDE = VERTEX_SIZE * 4;
+	/** Floats per quad */
+	static private final int QUAD_SIZE = VERTEX_SIZE * 4;
+
+	/** Vertex data */
+	private float[] vertices;
+	/** Amount of quads */
+	private int quadCount;
+	/** Amount of floats in use */
+	private int length;
+
+	/** Vertex buffer */
+	private int vertexBuffer;
+	/** Does the vertex buffer need to be updated */
+	private boolean changed;
+
+
+	/**
+	 * Put a vertex to the vertex data
+	 */
+	private void putVertex(float x, float y, float u, float v,
+			float r, float g, float b, float a) {
+
+		vertices[length ++] = x;
+		vertices[length ++] = y;
+		vertices[length ++] = u;
+		vertices[length ++] = v;
+		vertices[length ++] = r;
+		vertices[length ++] = g;
+		vertices[length ++] = b;
+		vertices[length ++] = a;
+	}
+
+
+	/**
+	 * Constructor
+	 */
+	public QuadMesh() {
+
+		vertices = new float[QUAD_SIZE * 64];
+		vertexBuffer = Renderer.backend().genBuffer();
+		clear();
+	}
+
+
+	/**
+	 * Remove all the quads
+	 */
+	public void clear() {
+
+		quadCount = 0;
+		length = 0;
+		changed = true;
+	}
+
+
+	/**
+	 * Add a quad
+	 * @param x X coordinate
+	 * @param y Y coordinate
+	 * @param w Width
+	 * @param h Height
+	 * @param u U coordinate
+	 * @param v V coordinate
+	 * @param uw Width in UV space
+	 * @param vh Height in UV space
+	 * @param r Red
+	 * @param g Green
+	 * @param b Blue
+	 * @param a Alpha
+	 */
+	public void addQuad(float x, float y, float w, float h,
+			float u, float v, float uw, float vh,
+			float r, float g, float b, float a) {
+
+		// Grow, if needed
+		if(length + QUAD_SIZE > vertices.length) {
+
+			vertices = Arrays.copyOf(vertices, vertices.length * 2);
+		}
+
+		putVertex(x, y, u, v, r, g, b, a);
+		putVertex(x + w, y, u + uw, v, r, g, b, a);
+		putVertex(x + w, y + h, u + uw, v + vh, r, g, b, a);
+		putVertex(x, y + h, u, v + vh, r, g, b, a);
+
+		++ quadCount;
+		changed = true;
+	}
+
+
+	/**
+	 * Draw. Expects the index buffer of the sprite
+	 * batch to be bound
+	 * @return Amount of draw calls issued
+	 */
+	int draw() {
+
+		if(quadCount == 0) return 0;
+
+		GLState.bindArrayBuffer(vertexBuffer);
+
+		// Pass data to the buffer, if changed
+		if(changed) {
+
+			FloatBuffer data = BufferUtils.createFloatBuffer(length);
+			data.put(vertices, 0, length);
+			data.flip();
+			Renderer.backend().bufferData(GL_ARRAY_BUFFER, data, GL_STATIC_DRAW);
+
+			changed = false;
+		}
+
+		Renderer.backend().enableVertexAttribArray(0);
+		Renderer.backend().enableVertexAttribArray(1);
+		Renderer.backend().enableVertexAttribArray(2);
+
+		// Draw in parts that fit to the index buffer
+		int count;
+		int calls = 0;
+		long offset;
+		for(int i = 0; i < quadCount; i += SpriteBatch.MAX_QUADS) {
+
+			count = Math.min(SpriteBatch.MAX_QUADS, quadCount - i);
+			offset = (long)i * 4 * VERTEX_STRIDE;
+
+			Renderer.backend().vertexAttribPointer(0, 2, VERTEX_STRIDE, offset);
+			Renderer.backend().vertexAttribPointer(1, 2, VERTEX_STRIDE, offset + 2 * 4);
+			Renderer.backend().vertexAttribPointer(2, 4, VERTEX_STRIDE, offset + 4 * 4);
+
+			Renderer.backend().drawElements(count * 6, 0);
+			++ calls;
+		}
+		return calls;
+	}
+
+
+	/**
+	 * Get the amount of quads
+	 * @return Quad count
+	 */
+	public int getQuadCount() {
+
+		return quadCount;
+	}
+}
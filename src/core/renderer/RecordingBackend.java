@@ -0,0 +1,539 @@
+package core.renderer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+
+/**
+ * Null backend that also writes every call to a
+ * compact binary log. A command is an opcode byte
+ * followed by its arguments (big-endian ints, longs
+ * and floats) and the returned value, if any. Buffer
+ * contents are not stored, only their element count.
+ * Matrices are stored in full and strings as modified
+ * UTF-8
+ * @author Jani Nykänen
+ *
+ */
+public class RecordingBackend extends NullBackend {
+
+	/** Opcodes, in the order of the RenderBackend methods */
+	static public final int OP_GEN_TEXTURE = 0;
+	static public final int OP_TEX_IMAGE_2D = 1;
+	static public final int OP_DELETE_TEXTURE = 2;
+	static public final int OP_BIND_TEXTURE = 3;
+	static public final int OP_ACTIVE_TEXTURE = 4;
+	static public final int OP_GET_MAX_TEXTURE_SIZE = 5;
+	static public final int OP_IS_FRAMEBUFFER_SUPPORTED = 6;
+	static public final int OP_GEN_FRAMEBUFFER = 7;
+	static public final int OP_BIND_FRAMEBUFFER = 8;
+	static public final int OP_FRAMEBUFFER_TEXTURE = 9;
+	static public final int OP_CHECK_FRAMEBUFFER_STATUS = 10;
+	static public final int OP_DELETE_FRAMEBUFFER = 11;
+	static public final int OP_CREATE_PROGRAM = 12;
+	static public final int OP_USE_PROGRAM = 13;
+	static public final int OP_GET_UNIFORM_LOCATION = 14;
+	static public final int OP_UNIFORM1F = 15;
+	static public final int OP_UNIFORM2F = 16;
+	static public final int OP_UNIFORM3F = 17;
+	static public final int OP_UNIFORM4F = 18;
+	static public final int OP_UNIFORM_MATRIX3 = 19;
+	static public final int OP_GEN_BUFFER = 20;
+	static public final int OP_DELETE_BUFFER = 21;
+	static public final int OP_BIND_BUFFER = 22;
+	static public final int OP_BUFFER_DATA_FLOAT = 23;
+	static public final int OP_BUFFER_DATA_SHORT = 24;
+	static public final int OP_ENABLE_VERTEX_ATTRIB_ARRAY = 25;
+	static public final int OP_DISABLE_VERTEX_ATTRIB_ARRAY = 26;
+	static public final int OP_VERTEX_ATTRIB_POINTER = 27;
+	static public final int OP_DRAW_ELEMENTS = 28;
+	static public final int OP_ENABLE = 29;
+	static public final int OP_DISABLE = 30;
+	static public final int OP_BLEND_FUNC_SEPARATE = 31;
+	static public final int OP_VIEWPORT = 32;
+	static public final int OP_SCISSOR = 33;
+	static public final int OP_CLEAR = 34;
+	
+	/** Output */
+	private DataOutputStream out;
+	
+	
+	/**
+	 * Start a command
+	 * @param op Opcode
+	 */
+	private void begin(int op) {
+		
+		try {
+			
+			out.writeByte(op);
+		}
+		catch(IOException e) {
+			
+			throw new RuntimeException("Failed to write the command log: " + e.getMessage());
+		}
+	}
+	
+	
+	/**
+	 * Write an int argument
+	 * @param x Value
+	 */
+	private void writeInt(int x) {
+		
+		try {
+			
+			out.writeInt(x);
+		}
+		catch(IOException e) {
+			
+			throw new RuntimeException("Failed to write the command log: " + e.getMessage());
+		}
+	}
+	
+	
+	/**
+	 * Write a long argument
+	 * @param x Value
+	 */
+	private void writeLong(long x) {
+		
+		try {
+			
+			out.writeLong(x);
+		}
+		catch(IOException e) {
+			
+			throw new RuntimeException("Failed to write the command log: " + e.getMessage());
+		}
+	}
+	
+	
+	/**
+	 * Write a float argument
+	 * @param x Value
+	 */
+	private void writeFloat(float x) {
+		
+		try {
+			
+			out.writeFloat(x);
+		}
+		catch(IOException e) {
+			
+			throw new RuntimeException("Failed to write the command log: " + e.getMessage());
+		}
+	}
+	
+	
+	/**
+	 * Write a string argument
+	 * @param s String
+	 */
+	private void writeString(String s) {
+		
+		try {
+			
+			out.writeUTF(s);
+		}
+		catch(IOException e) {
+			
+			throw new RuntimeException("Failed to write the command log: " + e.getMessage());
+		}
+	}
+	
+	
+	/**
+	 * Constructor
+	 * @param output Output stream for the log
+	 */
+	public RecordingBackend(OutputStream output) {
+		
+		out = new DataOutputStream(new BufferedOutputStream(output));
+	}
+	
+	
+	@Override
+	public int genTexture() {
+		
+		int ret = super.genTexture();
+		begin(OP_GEN_TEXTURE);
+		writeInt(ret);
+		return ret;
+	}
+	
+	
+	@Override
+	public void texImage2D(int w, int h, ByteBuffer pixels) {
+		
+		super.texImage2D(w, h, pixels);
+		begin(OP_TEX_IMAGE_2D);
+		writeInt(w);
+		writeInt(h);
+		writeInt(pixels == null ? 0 : pixels.remaining());
+	}
+	
+	
+	@Override
+	public void deleteTexture(int id) {
+		
+		super.deleteTexture(id);
+		begin(OP_DELETE_TEXTURE);
+		writeInt(id);
+	}
+	
+	
+	@Override
+	public void bindTexture(int id) {
+		
+		super.bindTexture(id);
+		begin(OP_BIND_TEXTURE);
+		writeInt(id);
+	}
+	
+	
+	@Override
+	public void activeTexture(int unit) {
+		
+		super.activeTexture(unit);
+		begin(OP_ACTIVE_TEXTURE);
+		writeInt(unit);
+	}
+	
+	
+	@Override
+	public int getMaxTextureSize() {
+		
+		int ret = super.getMaxTextureSize();
+		begin(OP_GET_MAX_TEXTURE_SIZE);
+		writeInt(ret);
+		return ret;
+	}
+	
+	
+	@Override
+	public boolean isFramebufferSupported() {
+		
+		boolean ret = super.isFramebufferSupported();
+		begin(OP_IS_FRAMEBUFFER_SUPPORTED);
+		writeInt(ret ? 1 : 0);
+		return ret;
+	}
+	
+	
+	@Override
+	public int genFramebuffer() {
+		
+		int ret = super.genFramebuffer();
+		begin(OP_GEN_FRAMEBUFFER);
+		writeInt(ret);
+		return ret;
+	}
+	
+	
+	@Override
+	public void bindFramebuffer(int id) {
+		
+		super.bindFramebuffer(id);
+		begin(OP_BIND_FRAMEBUFFER);
+		writeInt(id);
+	}
+	
+	
+	@Override
+	public void framebufferTexture(int texture) {
+		
+		super.framebufferTexture(texture);
+		begin(OP_FRAMEBUFFER_TEXTURE);
+		writeInt(texture);
+	}
+	
+	
+	@Override
+	public int checkFramebufferStatus() {
+		
+		int ret = super.checkFramebufferStatus();
+		begin(OP_CHECK_FRAMEBUFFER_STATUS);
+		writeInt(ret);
+		return ret;
+	}
+	
+	
+	@Override
+	public void deleteFramebuffer(int id) {
+		
+		super.deleteFramebuffer(id);
+		begin(OP_DELETE_FRAMEBUFFER);
+		writeInt(id);
+	}
+	
+	
+	@Override
+	public int createProgram(String vertexSrc, String fragmentSrc) throws RuntimeException {
+		
+		int ret = super.createProgram(vertexSrc, fragmentSrc);
+		begin(OP_CREATE_PROGRAM);
+		writeString(vertexSrc);
+		writeString(fragmentSrc);
+		writeInt(ret);
+		return ret;
+	}
+	
+	
+	@Override
+	public void useProgram(int id) {
+		
+		super.useProgram(id);
+		begin(OP_USE_PROGRAM);
+		writeInt(id);
+	}
+	
+	
+	@Override
+	public int getUniformLocation(int program, String name) {
+		
+		int ret = super.getUniformLocation(program, name);
+		begin(OP_GET_UNIFORM_LOCATION);
+		writeInt(program);
+		writeString(name);
+		writeInt(ret);
+		return ret;
+	}
+	
+	
+	@Override
+	public void uniform1f(int loc, float x) {
+		
+		super.uniform1f(loc, x);
+		begin(OP_UNIFORM1F);
+		writeInt(loc);
+		writeFloat(x);
+	}
+	
+	
+	@Override
+	public void uniform2f(int loc, float x, float y) {
+		
+		super.uniform2f(loc, x, y);
+		begin(OP_UNIFORM2F);
+		writeInt(loc);
+		writeFloat(x);
+		writeFloat(y);
+	}
+	
+	
+	@Override
+	public void uniform3f(int loc, float x, float y, float z) {
+		
+		super.uniform3f(loc, x, y, z);
+		begin(OP_UNIFORM3F);
+		writeInt(loc);
+		writeFloat(x);
+		writeFloat(y);
+		writeFloat(z);
+	}
+	
+	
+	@Override
+	public void uniform4f(int loc, float x, float y, float z, float w) {
+		
+		super.uniform4f(loc, x, y, z, w);
+		begin(OP_UNIFORM4F);
+		writeInt(loc);
+		writeFloat(x);
+		writeFloat(y);
+		writeFloat(z);
+		writeFloat(w);
+	}
+	
+	
+	@Override
+	public void uniformMatrix3(int loc, FloatBuffer mat) {
+		
+		super.uniformMatrix3(loc, mat);
+		begin(OP_UNIFORM_MATRIX3);
+		writeInt(loc);
+		for(int i = 0; i < 9; ++ i) {
+			
+			writeFloat(mat.get(mat.position() + i));
+		}
+	}
+	
+	
+	@Override
+	public int genBuffer() {
+		
+		int ret = super.genBuffer();
+		begin(OP_GEN_BUFFER);
+		writeInt(ret);
+		return ret;
+	}
+	
+	
+	@Override
+	public void deleteBuffer(int id) {
+		
+		super.deleteBuffer(id);
+		begin(OP_DELETE_BUFFER);
+		writeInt(id);
+	}
+	
+	
+	@Override
+	public void bindBuffer(int target, int id) {
+		
+		super.bindBuffer(target, id);
+		begin(OP_BIND_BUFFER);
+		writeInt(target);
+		writeInt(id);
+	}
+	
+	
+	@Override
+	public void bufferData(int target, FloatBuffer data, int usage) {
+		
+		super.bufferData(target, data, usage);
+		begin(OP_BUFFER_DATA_FLOAT);
+		writeInt(target);
+		writeInt(data.remaining());
+		writeInt(usage);
+	}
+	
+	
+	@Override
+	public void bufferData(int target, ShortBuffer data, int usage) {
+		
+		super.bufferData(target, data, usage);
+		begin(OP_BUFFER_DATA_SHORT);
+		writeInt(target);
+		writeInt(data.remaining());
+		writeInt(usage);
+	}
+	
+	
+	@Override
+	public void enableVertexAttribArray(int index) {
+		
+		super.enableVertexAttribArray(index);
+		begin(OP_ENABLE_VERTEX_ATTRIB_ARRAY);
+		writeInt(index);
+	}
+	
+	
+	@Override
+	public void disableVertexAttribArray(int index) {
+		
+		super.disableVertexAttribArray(index);
+		begin(OP_DISABLE_VERTEX_ATTRIB_ARRAY);
+		writeInt(index);
+	}
+	
+	
+	@Override
+	public void vertexAttribPointer(int index, int size, int stride, long offset) {
+		
+		super.vertexAttribPointer(index, size, stride, offset);
+		begin(OP_VERTEX_ATTRIB_POINTER);
+		writeInt(index);
+		writeInt(size);
+		writeInt(stride);
+		writeLong(offset);
+	}
+	
+	
+	@Override
+	public void drawElements(int count, long offset) {
+		
+		super.drawElements(count, offset);
+		begin(OP_DRAW_ELEMENTS);
+		writeInt(count);
+		writeLong(offset);
+	}
+	
+	
+	@Override
+	public void enable(int cap) {
+		
+		super.enable(cap);
+		begin(OP_ENABLE);
+		writeInt(cap);
+	}
+	
+	
+	@Override
+	public void disable(int cap) {
+		
+		super.disable(cap);
+		begin(OP_DISABLE);
+		writeInt(cap);
+	}
+	
+	
+	@Override
+	public void blendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+		
+		super.blendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
+		begin(OP_BLEND_FUNC_SEPARATE);
+		writeInt(srcRGB);
+		writeInt(dstRGB);
+		writeInt(srcAlpha);
+		writeInt(dstAlpha);
+	}
+	
+	
+	@Override
+	public void viewport(int x, int y, int w, int h) {
+		
+		super.viewport(x, y, w, h);
+		begin(OP_VIEWPORT);
+		writeInt(x);
+		writeInt(y);
+		writeInt(w);
+		writeInt(h);
+	}
+	
+	
+	@Override
+	public void scissor(int x, int y, int w, int h) {
+		
+		super.scissor(x, y, w, h);
+		begin(OP_SCISSOR);
+		writeInt(x);
+		writeInt(y);
+		writeInt(w);
+		writeInt(h);
+	}
+	
+	
+	@Override
+	public void clear(float r, float g, float b, float a) {
+		
+		super.clear(r, g, b, a);
+		begin(OP_CLEAR);
+		writeFloat(r);
+		writeFloat(g);
+		writeFloat(b);
+		writeFloat(a);
+	}
+	
+	
+	/**
+	 * Flush & close the log
+	 */
+	public void close() {
+		
+		try {
+			
+			out.close();
+		}
+		catch(IOException e) {
+			
+			throw new RuntimeException("Failed to close the command log: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,276 @@
+package core.renderer;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+
+/**
+ * The low-level calls the renderer needs. Mirrors the
+ * small subset of OpenGL that is used, so the rest of
+ * the renderer does not have to know if it is talking
+ * to a GPU or not. GL enums are used as they are
+ * @author Jani Nykänen
+ *
+ */
+public interface RenderBackend {
+
+	/**
+	 * Generate a texture
+	 * @return Texture index
+	 */
+	public int genTexture();
+	
+	
+	/**
+	 * Pass RGBA pixel data to the bound texture and
+	 * enable linear filtering
+	 * @param w Width
+	 * @param h Height
+	 * @param pixels Pixel data, null for an empty texture
+	 */
+	public void texImage2D(int w, int h, ByteBuffer pixels);
+	
+	
+	/**
+	 * Delete a texture
+	 * @param id Texture index
+	 */
+	public void deleteTexture(int id);
+	
+	
+	/**
+	 * Bind a 2D texture
+	 * @param id Texture index
+	 */
+	public void bindTexture(int id);
+	
+	
+	/**
+	 * Set the active texture unit
+	 * @param unit Texture unit
+	 */
+	public void activeTexture(int unit);
+	
+	
+	/**
+	 * Get the maximum texture size
+	 * @return Size in pixels
+	 */
+	public int getMaxTextureSize();
+	
+	
+	/**
+	 * Are framebuffers supported
+	 * @return True, if supported
+	 */
+	public boolean isFramebufferSupported();
+	
+	
+	/**
+	 * Generate a framebuffer
+	 * @return Framebuffer index
+	 */
+	public int genFramebuffer();
+	
+	
+	/**
+	 * Bind a framebuffer
+	 * @param id Framebuffer index, 0 for the default one
+	 */
+	public void bindFramebuffer(int id);
+	
+	
+	/**
+	 * Attach a texture to the bound framebuffer
+	 * @param texture Texture index
+	 */
+	public void framebufferTexture(int texture);
+	
+	
+	/**
+	 * Check the status of the bound framebuffer
+	 * @return Status (GL_FRAMEBUFFER_COMPLETE if fine)
+	 */
+	public int checkFramebufferStatus();
+	
+	
+	/**
+	 * Delete a framebuffer
+	 * @param id Framebuffer index
+	 */
+	public void deleteFramebuffer(int id);
+	
+	
+	/**
+	 * Compile & link a shader program. Attribute 
+	 * locations are bound as Shader expects them
+	 * @param vertexSrc Vertex source
+	 * @param fragmentSrc Fragment source
+	 * @return Program index
+	 * @throws RuntimeException If compiling or linking fails
+	 */
+	public int createProgram(String vertexSrc, String fragmentSrc) throws RuntimeException;
+	
+	
+	/**
+	 * Use a shader program
+	 * @param id Program index
+	 */
+	public void useProgram(int id);
+	
+	
+	/**
+	 * Get a uniform location
+	 * @param program Program index
+	 * @param name Uniform name
+	 * @return Location, -1 if not found
+	 */
+	public int getUniformLocation(int program, String name);
+	
+	
+	/**
+	 * Set a float uniform
+	 */
+	public void uniform1f(int loc, float x);
+	
+	
+	/**
+	 * Set a vec2 uniform
+	 */
+	public void uniform2f(int loc, float x, float y);
+	
+	
+	/**
+	 * Set a vec3 uniform
+	 */
+	public void uniform3f(int loc, float x, float y, float z);
+	
+	
+	/**
+	 * Set a vec4 uniform
+	 */
+	public void uniform4f(int loc, float x, float y, float z, float w);
+	
+	
+	/**
+	 * Set a mat3 uniform
+	 * @param loc Location
+	 * @param mat Matrix, column-major
+	 */
+	public void uniformMatrix3(int loc, FloatBuffer mat);
+	
+	
+	/**
+	 * Generate a buffer
+	 * @return Buffer index
+	 */
+	public int genBuffer();
+	
+	
+	/**
+	 * Delete a buffer
+	 * @param id Buffer index
+	 */
+	public void deleteBuffer(int id);
+	
+	
+	/**
+	 * Bind a buffer
+	 * @param target Target (array or element array buffer)
+	 * @param id Buffer index
+	 */
+	public void bindBuffer(int target, int id);
+	
+	
+	/**
+	 * Pass float data to the buffer bound to a target
+	 * @param target Target
+	 * @param data Data
+	 * @param usage Usage hint
+	 */
+	public void bufferData(int target, FloatBuffer data, int usage);
+	
+	
+	/**
+	 * Pass short data to the buffer bound to a target
+	 * @param target Target
+	 * @param data Data
+	 * @param usage Usage hint
+	 */
+	public void bufferData(int target, ShortBuffer data, int usage);
+	
+	
+	/**
+	 * Enable a vertex attribute array
+	 * @param index Attribute index
+	 */
+	public void enableVertexAttribArray(int index);
+	
+	
+	/**
+	 * Disable a vertex attribute array
+	 * @param index Attribute index
+	 */
+	public void disableVertexAttribArray(int index);
+	
+	
+	/**
+	 * Set a float vertex attribute pointer
+	 * @param index Attribute index
+	 * @param size Component count
+	 * @param stride Stride in bytes
+	 * @param offset Offset in bytes
+	 */
+	public void vertexAttribPointer(int index, int size, int stride, long offset);
+	
+	
+	/**
+	 * Draw indexed triangles, using unsigned short indices
+	 * @param count Index count
+	 * @param offset Offset in the index buffer, in bytes
+	 */
+	public void drawElements(int count, long offset);
+	
+	
+	/**
+	 * Enable a capability
+	 * @param cap Capability
+	 */
+	public void enable(int cap);
+	
+	
+	/**
+	 * Disable a capability
+	 * @param cap Capability
+	 */
+	public void disable(int cap);
+	
+	
+	/**
+	 * Set the blend function
+	 */
+	public void blendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha);
+	
+	
+	/**
+	 * Set the viewport
+	 */
+	public void viewport(int x, int y, int w, int h);
+	
+	
+	/**
+	 * Set the scissor box
+	 */
+	public void scissor(int x, int y, int w, int h);
+	
+	
+	/**
+	 * Clear the color buffer
+	 * @param r Red
+	 * @param g Green
+	 * @param b Blue
+	 * @param a Alpha
+	 */
+	public void clear(float r, float g, float b, float a);
+}
@@ -0,0 +1,36 @@
+package core.renderer;
+
+
+/**
+ * Holds the render backend every renderer
+ * component talks to
+ * @author Jani Nykänen
+ *
+ */
+public final class Renderer {
+
+	/** Active backend */
+	static private RenderBackend backend = new GLBackend();
+	
+	
+	/**
+	 * Get the active backend
+	 * @return Backend
+	 */
+	static public RenderBackend backend() {
+		
+		return backend;
+	}
+	
+	
+	/**
+	 * Set the backend. Must be called before
+	 * any bitmaps, shaders etc. are created
+	 * @param b Backend
+	 */
+	static public void setBackend(RenderBackend b) {
+		
+		backend = b;
+		GLState.invalidate();
+	}
+}
@@ -1,6 +1,8 @@
 package core.renderer;
 
-import static org.lwjgl.opengl.GL20.*;
+import java.nio.FloatBuffer;
+
+import org.lwjgl.BufferUtils;
 
 import core.types.Matrix3;
 import core.types.Vector2;
@@ -18,57 +20,30 @@ public class Shader {
 	static public final String POS_LOCATION_NAME = "vertexPos";
 	/** Vertex UV location name */
 	static public final String UV_LOCATION_NAME = "vertexUV";
+	/** Vertex color location name */
+	static public final String COLOR_LOCATION_NAME = "vertexColor";
+	/** Vertex glyph index location name. Shares the location
+	 *  with color, since no shader uses both */
+	static public final String INDEX_LOCATION_NAME = "vertexIndex";
 	
 	/** Shader program */
 	private int program;
 	
 	/** Uniforms */
-	private int unifModel, unifView, unifPos, unifSize, unifTexPos, unifTexSize, unifColor;
+	private int unifModel, unifView, unifPos, unifSize, unifTexPos, unifTexSize, unifColor, unifWave;
 	
+	/** Buffer for passing matrices, reused to avoid garbage */
+	private FloatBuffer matrixBuffer;
 	
-	/**
-	 * Get error log content
-	 * @param object Object (i.e. shader)
-	 * @return Error info
-	 */
-	private String getErrorLog(int object) {
-		
-		String log = glGetShaderInfoLog(object, glGetShaderi(object, GL_INFO_LOG_LENGTH));
-		
-		return log;
-	}
-	
-	
-	/**
-	 * Create a shader
-	 * @param src Source string
-	 * @param shaderType Shader type (vertex or fragment)
-	 * @return Shader
-	 * @throws Exception If something goes wrong
-	 */
-	private int createShader(String src, int shaderType) throws Exception {
-		
-		// Create shader
-		int shader = glCreateShader(shaderType);
-		if(shader == 0) {
-			
-			throw new RuntimeException("Failed to create a shader!");
-		}
-		
-		// Attach source
-		glShaderSource(shader, src);
-		
-		// Compile shader
-		glCompileShader(shader);
-		
-		// Check for errors
-		if(glGetShaderi(shader, GL_COMPILE_STATUS) == GL_FALSE) {
-			
-			throw new RuntimeException("SHADER ERROR: " + getErrorLog(shader));
-		}
-		
-		return shader;
-	}
+	/** Uniform values last passed to GL, used to
+	 *  skip calls that would not change anything */
+	private Matrix3 lastModel, lastView;
+	private float lastPosX, lastPosY, lastSizeX, lastSizeY;
+	private float lastTexPosX, lastTexPosY, lastTexSizeX, lastTexSizeY;
+	private float lastR, lastG, lastB, lastA;
+	private float lastWaveT, lastWaveAmpl, lastWavePeriod;
+	/** Are the last values known */
+	private boolean uniformsKnown = false;
 	
 	
 	/**
@@ -80,36 +55,7 @@ public class Shader {
 	private void buildShader(String vertexSrc, String fragmentSrc) 
 			throws Exception {
 		
-		// Create vertex & fragment shaders
-		int vertex = createShader(vertexSrc, GL_VERTEX_SHADER);
-		int fragment = createShader(fragmentSrc, GL_FRAGMENT_SHADER);
-		
-		// Create shader program
-		program = glCreateProgram();
-		// Attach shader components
-		glAttachShader(program, vertex);
-		glAttachShader(program, fragment);
-		
-		// Bind attribute locations
-		glBindAttribLocation(program, 0, POS_LOCATION_NAME);
-		glBindAttribLocation(program, 1, UV_LOCATION_NAME);
-		
-		// Link program
-		glLinkProgram(program);
-		// Check for errors
-		if (glGetProgrami(program, GL_LINK_STATUS) == GL_FALSE) {
-			
-			throw new RuntimeException("SHADER ERROR: " + getErrorLog(program));
-        }
-		
-		// Validate
-		glValidateProgram(program);
-		// Check for errors
-		if (glGetProgrami(program, GL_LINK_STATUS) == GL_FALSE) {
-			
-			throw new RuntimeException("SHADER ERROR: " + getErrorLog(program));
-        }
-        
+		program = Renderer.backend().createProgram(vertexSrc, fragmentSrc);
 	}
 	
 	
@@ -118,13 +64,14 @@ public class Shader {
 	 */
 	private void getUniforms() {
 		
-		unifModel = glGetUniformLocation(program, "model");
-	    unifView = glGetUniformLocation(program, "project");
-	    unifPos = glGetUniformLocation(program, "pos");
-	    unifSize = glGetUniformLocation(program, "size");
-	    unifTexPos = glGetUniformLocation(program, "texPos");
-	    unifTexSize = glGetUniformLocation(program, "texSize");
-	    unifColor = glGetUniformLocation(program, "color");
+		unifModel = Renderer.backend().getUniformLocation(program, "model");
+	    unifView = Renderer.backend().getUniformLocation(program, "project");
+	    unifPos = Renderer.backend().getUniformLocation(program, "pos");
+	    unifSize = Renderer.backend().getUniformLocation(program, "size");
+	    unifTexPos = Renderer.backend().getUniformLocation(program, "texPos");
+	    unifTexSize = Renderer.backend().getUniformLocation(program, "texSize");
+	    unifColor = Renderer.backend().getUniformLocation(program, "color");
+	    unifWave = Renderer.backend().getUniformLocation(program, "wave");
 	}
 	
 
@@ -138,18 +85,86 @@ public class Shader {
 		
 		// Build shader
 		buildShader(vertexSrc, fragmentSrc);
+		matrixBuffer = BufferUtils.createFloatBuffer(9);
+		lastModel = new Matrix3();
+		lastView = new Matrix3();
 		
-		// Use program
-		glUseProgram(program);
+		// Use program. The program bound before is
+		// restored afterwards, since someone may be
+		// about to draw with it
+		int previous = GLState.getProgram();
+		GLState.useProgram(program);
 		
 		// Get uniforms
 		getUniforms();
 		
 		// Set default uniforms
 		setTransformationUniforms(new Matrix3(), new Matrix3());
-		setVertexUniforms(new Vector2(), new Vector2(1, 1));
-		setUVUniforms(new Vector2(), new Vector2(1, 1));
+		setVertexUniforms(0, 0, 1, 1);
+		setUVUniforms(0, 0, 1, 1);
 		setColorUniform(1, 1, 1, 1);
+		setWaveUniform(0, 0, 0);
+		
+		// From now on we know what the uniforms contain
+		uniformsKnown = true;
+		
+		if(previous >= 0)
+			GLState.useProgram(previous);
+	}
+	
+	
+	/**
+	 * Use this shader
+	 */
+	public void use() {
+		
+		GLState.useProgram(program);
+	}
+	
+	
+	/**
+	 * Is the program bound
+	 * @return True, if bound
+	 */
+	boolean isBound() {
+		
+		return GLState.getProgram() == program;
+	}
+	
+	
+	/**
+	 * Make sure the program is bound before a uniform
+	 * is passed. Otherwise the value would go to another 
+	 * shader's program, and both shaders would have
+	 * wrong ideas of what their uniforms contain
+	 */
+	private void ensureBound() {
+		
+		if(!isBound())
+			GLState.useProgram(program);
+	}
+	
+	
+	/**
+	 * Pass a matrix to a uniform
+	 * @param unif Uniform location
+	 * @param mat Matrix
+	 */
+	private void setMatrixUniform(int unif, Matrix3 mat, Matrix3 last) {
+		
+		if(uniformsKnown && last.isEqual(mat)) {
+			
+			GLState.countSkipped();
+			return;
+		}
+		last.set(mat);
+		ensureBound();
+		GLState.countIssued();
+		
+		mat.store(matrixBuffer);
+		matrixBuffer.flip();
+		Renderer.backend().uniformMatrix3(unif, matrixBuffer);
+		matrixBuffer.clear();
 	}
 	
 	
@@ -159,8 +174,45 @@ public class Shader {
 	 */
 	public void setTransformationUniforms(Matrix3 model, Matrix3 view) {
 		
-		glUniformMatrix3fv(unifModel, false, model.toArray());
-	    glUniformMatrix3fv(unifView, false, view.toArray());
+		setMatrixUniform(unifModel, model, lastModel);
+		setMatrixUniform(unifView, view, lastView);
+	}
+	
+	
+	/**
+	 * Set vertex uniforms (positions & size)
+	 * @param x X coordinate
+	 * @param y Y coordinate
+	 * @param w Width
+	 * @param h Height
+	 */
+	public void setVertexUniforms(float x, float y, float w, float h) {
+		
+		if(!uniformsKnown || x != lastPosX || y != lastPosY) {
+			
+			lastPosX = x;
+			lastPosY = y;
+			ensureBound();
+			Renderer.backend().uniform2f(unifPos, x, y);
+			GLState.countIssued();
+		}
+		else {
+			
+			GLState.countSkipped();
+		}
+		
+		if(!uniformsKnown || w != lastSizeX || h != lastSizeY) {
+			
+			lastSizeX = w;
+			lastSizeY = h;
+			ensureBound();
+			Renderer.backend().uniform2f(unifSize, w, h);
+			GLState.countIssued();
+		}
+		else {
+			
+			GLState.countSkipped();
+		}
 	}
 	
 	
@@ -171,8 +223,44 @@ public class Shader {
 	 */
 	public void setVertexUniforms(Vector2 pos, Vector2 size) {
 		
-		glUniform2f(unifPos, pos.x, pos.y);
-	    glUniform2f(unifSize,size.x, size.y);
+		setVertexUniforms(pos.x, pos.y, size.x, size.y);
+	}
+	
+	
+	/**
+	 * Set UV uniforms (positions & size)
+	 * @param u U coordinate
+	 * @param v V coordinate
+	 * @param uw Width in UV space
+	 * @param vh Height in UV space
+	 */
+	public void setUVUniforms(float u, float v, float uw, float vh) {
+		
+		if(!uniformsKnown || u != lastTexPosX || v != lastTexPosY) {
+			
+			lastTexPosX = u;
+			lastTexPosY = v;
+			ensureBound();
+			Renderer.backend().uniform2f(unifTexPos, u, v);
+			GLState.countIssued();
+		}
+		else {
+			
+			GLState.countSkipped();
+		}
+		
+		if(!uniformsKnown || uw != lastTexSizeX || vh != lastTexSizeY) {
+			
+			lastTexSizeX = uw;
+			lastTexSizeY = vh;
+			ensureBound();
+			Renderer.backend().uniform2f(unifTexSize, uw, vh);
+			GLState.countIssued();
+		}
+		else {
+			
+			GLState.countSkipped();
+		}
 	}
 	
 	
@@ -183,8 +271,7 @@ public class Shader {
 	 */
 	public void setUVUniforms(Vector2 pos, Vector2 size) {
 		
-		glUniform2f(unifTexPos, pos.x, pos.y);
-	    glUniform2f(unifTexSize,size.x, size.y);
+		setUVUniforms(pos.x, pos.y, size.x, size.y);
 	}
 	
 	
@@ -197,7 +284,95 @@ public class Shader {
 	 */
 	public void setColorUniform(float r, float g, float b, float a) {
 		
-		glUniform4f(unifColor, r, g, b, a);
+		if(uniformsKnown && r == lastR && g == lastG && b == lastB && a == lastA) {
+			
+			GLState.countSkipped();
+			return;
+		}
+		lastR = r;
+		lastG = g;
+		lastB = b;
+		lastA = a;
+		
+		ensureBound();
+		Renderer.backend().uniform4f(unifColor, r, g, b, a);
+		GLState.countIssued();
+	}
+	
+	
+	/**
+	 * Set wave uniform
+	 * @param t Time
+	 * @param amplitude Amplitude
+	 * @param period Period (phase step per glyph)
+	 */
+	public void setWaveUniform(float t, float amplitude, float period) {
+		
+		if(uniformsKnown && t == lastWaveT && amplitude == lastWaveAmpl && period == lastWavePeriod) {
+			
+			GLState.countSkipped();
+			return;
+		}
+		lastWaveT = t;
+		lastWaveAmpl = amplitude;
+		lastWavePeriod = period;
+		
+		ensureBound();
+		Renderer.backend().uniform3f(unifWave, t, amplitude, period);
+		GLState.countIssued();
+	}
+	
+	
+	/**
+	 * Get the location of a uniform
+	 * @param name Uniform name
+	 * @return Location, -1 if not found
+	 */
+	public int getUniformLocation(String name) {
+		
+		return Renderer.backend().getUniformLocation(program, name);
+	}
+	
+	
+	/**
+	 * Set a float uniform
+	 * @param loc Location
+	 * @param x Value
+	 */
+	public void setUniform(int loc, float x) {
+		
+		ensureBound();
+		Renderer.backend().uniform1f(loc, x);
+		GLState.countIssued();
+	}
+	
+	
+	/**
+	 * Set a vec2 uniform
+	 * @param loc Location
+	 * @param x X component
+	 * @param y Y component
+	 */
+	public void setUniform(int loc, float x, float y) {
+		
+		ensureBound();
+		Renderer.backend().uniform2f(loc, x, y);
+		GLState.countIssued();
+	}
+	
+	
+	/**
+	 * Set a vec3 uniform
+	 * @param loc Location
+	 * @param x X component
+	 * @param y Y component
+	 * @param z Z component
+	 */
+	public void setUniform(int loc, float x, float y, float z) {
+		
+		ensureBound();
+		Renderer.backend().uniform3f(loc, x, y, z);
+		GLState.countIssued();
 	}
 	
 }
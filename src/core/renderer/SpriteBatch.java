@@ -0,0 +1,238 @@
+package core.renderer;
+
+import static org.lwjgl.opengl.GL20.*;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import org.lwjgl.BufferUtils;
+
+
+/**
+ * A sprite batch. Collects textured quads to a
+ * streaming vertex buffer and draws them with a single
+ * draw call when flushed
+ * @author Jani Nykänen
+ *
+ */
+public class SpriteBatch {
+
+	/** Maximum amount of quads in a batch */
+	static public final int MAX_QUADS = 2048;
+
+	/** Floats per vertex (position, UV, color) */
+	static private final int VERTEX_SIZE = 2 + 2 + 4;
+	/** Vertex size in bytes */
+	static private final int VERTEX_STRIDE = VERTEX_SIZE * 4;
+
+	/** Vertex buffer */
+	private int vertexBuffer;
+	/** Index buffer */
+	private int indexBuffer;
+
+	/** Vertex data */
+	private FloatBuffer vertexData;
+	/** Amount of quads waiting to be drawn */
+	private int quadCount;
+
+	/** Bitmap used by the quads in the batch */
+	private Bitmap texture;
+
+	/** Amount of draw calls issued since the last reset */
+	private int drawCalls;
+
+
+	/**
+	 * Put a vertex to the vertex data
+	 * @param x X coordinate
+	 * @param y Y coordinate
+	 * @param u U coordinate
+	 * @param v V coordinate
+	 * @param r Red
+	 * @param g Green
+	 * @param b Blue
+	 * @param a Alpha
+	 */
+	private void putVertex(float x, float y, float u, float v,
+			float r, float g, float b, float a) {
+
+		vertexData.put(x).put(y);
+		vertexData.put(u).put(v);
+		vertexData.put(r).put(g).put(b).put(a);
+	}
+
+
+	/**
+	 * Constructor
+	 */
+	public SpriteBatch() {
+
+		// Generate GL buffers
+		vertexBuffer = Renderer.backend().genBuffer();
+		indexBuffer = Renderer.backend().genBuffer();
+
+		// Create vertex data storage
+		vertexData = BufferUtils.createFloatBuffer(MAX_QUADS * 4 * VERTEX_SIZE);
+
+		// Indices never change, so we can create them
+		// only once
+		ShortBuffer indexData = BufferUtils.createShortBuffer(MAX_QUADS * 6);
+		for(int i = 0; i < MAX_QUADS; ++ i) {
+
+			short k = (short)(i * 4);
+			indexData.put(k).put((short)(k+1)).put((short)(k+2));
+			indexData.put((short)(k+2)).put((short)(k+3)).put(k);
+		}
+		indexData.flip();
+
+		GLState.bindElementBuffer(indexBuffer);
+		Renderer.backend().bufferData(GL_ELEMENT_ARRAY_BUFFER, indexData, GL_STATIC_DRAW);
+
+		quadCount = 0;
+		texture = null;
+	}
+
+
+	/**
+	 * Bind for drawing
+	 */
+	public void bind() {
+
+		Renderer.backend().enableVertexAttribArray(0);
+		Renderer.backend().enableVertexAttribArray(1);
+		Renderer.backend().enableVertexAttribArray(2);
+
+		GLState.bindArrayBuffer(vertexBuffer);
+		Renderer.backend().vertexAttribPointer(0, 2, VERTEX_STRIDE, 0);
+		Renderer.backend().vertexAttribPointer(1, 2, VERTEX_STRIDE, 2 * 4);
+		Renderer.backend().vertexAttribPointer(2, 4, VERTEX_STRIDE, 4 * 4);
+
+		GLState.bindElementBuffer(indexBuffer);
+	}
+
+
+	/**
+	 * Bind the index buffer only, e.g. for
+	 * drawing a quad mesh
+	 */
+	void bindIndices() {
+		
+		GLState.bindElementBuffer(indexBuffer);
+	}
+	
+	
+	/**
+	 * Add a quad to the batch. If the texture changes or
+	 * the batch is full, the batch is flushed first
+	 * @param bmp Bitmap
+	 * @param x X coordinate
+	 * @param y Y coordinate
+	 * @param w Width
+	 * @param h Height
+	 * @param u Source U coordinate
+	 * @param v Source V coordinate
+	 * @param uw Source width in UV space
+	 * @param vh Source height in UV space
+	 * @param r Red
+	 * @param g Green
+	 * @param b Blue
+	 * @param a Alpha
+	 */
+	public void add(Bitmap bmp, float x, float y, float w, float h,
+			float u, float v, float uw, float vh,
+			float r, float g, float b, float a) {
+
+		// Flush if the texture changes or no room left
+		if(texture != null && texture.getTextureID() != bmp.getTextureID()) {
+
+			flush();
+		}
+		else if(quadCount >= MAX_QUADS) {
+
+			flush();
+		}
+		texture = bmp;
+
+		putVertex(x, y, u, v, r, g, b, a);
+		putVertex(x + w, y, u + uw, v, r, g, b, a);
+		putVertex(x + w, y + h, u + uw, v + vh, r, g, b, a);
+		putVertex(x, y + h, u, v + vh, r, g, b, a);
+
+		++ quadCount;
+	}
+
+
+	/**
+	 * Add laid out text to the batch
+	 * @param bmp Font bitmap
+	 * @param mesh Text mesh
+	 * @param dx Destination x
+	 * @param dy Destination y
+	 * @param r Red
+	 * @param g Green
+	 * @param b Blue
+	 * @param a Alpha
+	 */
+	void addText(Bitmap bmp, TextMesh mesh, float dx, float dy,
+			float r, float g, float b, float a) {
+		
+		int count = mesh.getGlyphCount();
+		
+		// Flush if the texture changes or no room left
+		if(texture != null && texture.getTextureID() != bmp.getTextureID()) {
+			
+			flush();
+		}
+		else if(quadCount + count > MAX_QUADS) {
+			
+			flush();
+		}
+		texture = bmp;
+		
+		float[] v = mesh.getVertices();
+		int p = 0;
+		for(int i = 0; i < count * 4; ++ i) {
+			
+			putVertex(v[p] + dx, v[p+1] + dy, v[p+2], v[p+3], r, g, b, a);
+			p += TextMesh.VERTEX_SIZE;
+		}
+		quadCount += count;
+	}
+	
+	
+	/**
+	 * Draw everything in the batch
+	 */
+	public void flush() {
+
+		if(quadCount == 0) return;
+
+		texture.bind();
+
+		// Pass data to the buffer. Passing the whole
+		// buffer again lets the driver orphan the old storage
+		vertexData.flip();
+		GLState.bindArrayBuffer(vertexBuffer);
+		Renderer.backend().bufferData(GL_ARRAY_BUFFER, vertexData, GL_STREAM_DRAW);
+
+		Renderer.backend().drawElements(quadCount * 6, 0);
+		++ drawCalls;
+
+		// Ready for new quads
+		vertexData.clear();
+		quadCount = 0;
+	}
+
+
+	/**
+	 * Get the amount of draw calls issued since
+	 * the last reset and reset the counter
+	 * @return Draw call count
+	 */
+	public int resetDrawCalls() {
+
+		int ret = drawCalls;
+		drawCalls = 0;
+		return ret;
+	}
+}
@@ -0,0 +1,261 @@
+package core.renderer;
+
+import static org.lwjgl.opengl.GL20.*;
+
+import java.nio.ShortBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.lwjgl.BufferUtils;
+
+
+/**
+ * Caches laid out strings, so the same text does
+ * not have to be laid out every frame. The least
+ * recently used strings are removed first
+ * @author Jani Nykänen
+ *
+ */
+public class TextCache {
+
+	/** Maximum amount of cached strings */
+	static public final int CAPACITY = 128;
+	/** Maximum amount of glyphs in a cached string */
+	static public final int MAX_GLYPHS = 512;
+
+
+	/**
+	 * Cache key
+	 */
+	private class Key {
+
+		/** Font bitmap */
+		private Bitmap bmp;
+		/** Text */
+		private String text;
+		/** Offsets */
+		private float xoff, yoff;
+		/** Scale */
+		private float scale;
+		/** Is the text centered */
+		private boolean center;
+		/** Is autocrop enabled */
+		private boolean autocrop;
+
+
+		/**
+		 * Set values
+		 */
+		private void set(Bitmap bmp, String text, float xoff, float yoff,
+				boolean center, float scale, boolean autocrop) {
+
+			this.bmp = bmp;
+			this.text = text;
+			this.xoff = xoff;
+			this.yoff = yoff;
+			this.center = center;
+			this.scale = scale;
+			this.autocrop = autocrop;
+		}
+
+
+		@Override
+		public boolean equals(Object o) {
+
+			if(!(o instanceof Key)) return false;
+
+			Key k = (Key)o;
+			return bmp == k.bmp && text.equals(k.text) &&
+				   xoff == k.xoff && yoff == k.yoff && scale == k.scale &&
+				   center == k.center && autocrop == k.autocrop;
+		}
+
+
+		@Override
+		public int hashCode() {
+
+			int h = text.hashCode();
+			h = h * 31 + System.identityHashCode(bmp);
+			h = h * 31 + Float.floatToIntBits(xoff);
+			h = h * 31 + Float.floatToIntBits(yoff);
+			h = h * 31 + Float.floatToIntBits(scale);
+			h = h * 31 + (center ? 1 : 0);
+			h = h * 31 + (autocrop ? 1 : 0);
+
+			return h;
+		}
+	}
+
+
+	/** Cached meshes */
+	private LinkedHashMap<Key, TextMesh> meshes;
+	/** Key used for lookups, so nothing is allocated on a hit */
+	private Key lookup;
+
+	/** Index buffer, shared by all the meshes */
+	private int indexBuffer;
+
+	/** Graphics object, needed for the source coordinates */
+	private Graphics graph;
+
+	/** Temporary UV storage */
+	private float[] uv;
+
+
+	/**
+	 * Lay out a string
+	 * @param k Key
+	 * @return Mesh
+	 */
+	private TextMesh build(Key k) {
+
+		int cw = (k.bmp.getWidth()) / 16;
+		int ch = cw;
+		int len = k.text.length();
+
+		float[] vertices = new float[len * 4 * TextMesh.VERTEX_SIZE];
+		int glyphs = 0;
+		int p = 0;
+
+		// Center the text
+		float startx = 0.0f;
+		if(k.center) {
+
+			startx = -( (len+1)/2.0f * (cw+k.xoff) * k.scale );
+		}
+
+		float x = startx;
+		float y = 0.0f;
+		float w = cw * k.scale;
+		float h = ch * k.scale;
+		char c;
+		int sx, sy;
+		for(int i = 0; i < len; ++ i) {
+
+			c = k.text.charAt(i);
+			if(c == '\n') {
+
+				x = startx;
+				y += (k.yoff + ch) * k.scale;
+				continue;
+			}
+
+			sx = c % 16;
+			sy = (c / 16) | 0;
+			graph.getSourceUV(k.bmp, sx*cw, sy*ch, cw, ch, uv);
+
+			// Put vertices
+			float[] v = vertices;
+			v[p++] = x; v[p++] = y;
+			v[p++] = uv[0]; v[p++] = uv[1]; v[p++] = i;
+
+			v[p++] = x + w; v[p++] = y;
+			v[p++] = uv[0] + uv[2]; v[p++] = uv[1]; v[p++] = i;
+
+			v[p++] = x + w; v[p++] = y + h;
+			v[p++] = uv[0] + uv[2]; v[p++] = uv[1] + uv[3]; v[p++] = i;
+
+			v[p++] = x; v[p++] = y + h;
+			v[p++] = uv[0]; v[p++] = uv[1] + uv[3]; v[p++] = i;
+
+			++ glyphs;
+			x += (cw + k.xoff) * k.scale;
+		}
+
+		return new TextMesh(vertices, glyphs);
+	}
+
+
+	/**
+	 * Constructor
+	 * @param graph Graphics object
+	 */
+	public TextCache(Graphics graph) {
+
+		this.graph = graph;
+
+		lookup = new Key();
+		uv = new float[4];
+
+		// Remove the least recently used mesh
+		// when the cache is full
+		meshes = new LinkedHashMap<Key, TextMesh> (CAPACITY, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, TextMesh> eldest) {
+
+				if(size() > CAPACITY) {
+
+					eldest.getValue().dispose();
+					return true;
+				}
+				return false;
+			}
+		};
+
+		// Create indices
+		ShortBuffer indexData = BufferUtils.createShortBuffer(MAX_GLYPHS * 6);
+		for(int i = 0; i < MAX_GLYPHS; ++ i) {
+
+			short k = (short)(i * 4);
+			indexData.put(k).put((short)(k+1)).put((short)(k+2));
+			indexData.put((short)(k+2)).put((short)(k+3)).put(k);
+		}
+		indexData.flip();
+
+		indexBuffer = Renderer.backend().genBuffer();
+		GLState.bindElementBuffer(indexBuffer);
+		Renderer.backend().bufferData(GL_ELEMENT_ARRAY_BUFFER, indexData, GL_STATIC_DRAW);
+	}
+
+
+	/**
+	 * Get a laid out string, lay it out if not cached
+	 * @param bmp Font bitmap
+	 * @param text Text
+	 * @param xoff X offset
+	 * @param yoff Y offset
+	 * @param center Is the text centered
+	 * @param scale Scale
+	 * @param autocrop Is autocrop enabled
+	 * @return Mesh, null if the text is too long
+	 */
+	TextMesh get(Bitmap bmp, String text, float xoff, float yoff,
+			boolean center, float scale, boolean autocrop) {
+
+		if(text.length() > MAX_GLYPHS) return null;
+
+		lookup.set(bmp, text, xoff, yoff, center, scale, autocrop);
+		TextMesh mesh = meshes.get(lookup);
+		if(mesh == null) {
+
+			Key k = new Key();
+			k.set(bmp, text, xoff, yoff, center, scale, autocrop);
+
+			mesh = build(k);
+			meshes.put(k, mesh);
+		}
+		return mesh;
+	}
+
+
+	/**
+	 * Bind the shared index buffer
+	 */
+	void bindIndices() {
+
+		GLState.bindElementBuffer(indexBuffer);
+	}
+
+
+	/**
+	 * Get the amount of cached strings
+	 * @return String count
+	 */
+	public int size() {
+
+		return meshes.size();
+	}
+}
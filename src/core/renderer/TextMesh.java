@@ -0,0 +1,103 @@
+package core.renderer;
+
+import static org.lwjgl.opengl.GL20.*;
+
+import java.nio.FloatBuffer;
+
+import org.lwjgl.BufferUtils;
+
+
+/**
+ * A laid out string. Stores the glyph quads both in
+ * a vertex buffer and in an array, so they can be
+ * drawn as one mesh or copied to a sprite batch
+ * @author Jani Nykänen
+ *
+ */
+class TextMesh {
+
+	/** Floats per vertex (position, UV, glyph index) */
+	static final int VERTEX_SIZE = 2 + 2 + 1;
+	/** Vertex size in bytes */
+	static private final int VERTEX_STRIDE = VERTEX_SIZE * 4;
+
+	/** Vertex data */
+	private float[] vertices;
+	/** Amount of glyphs */
+	private int glyphCount;
+
+	/** Vertex buffer */
+	private int vertexBuffer;
+
+
+	/**
+	 * Constructor
+	 * @param vertices Vertex data, four vertices per glyph
+	 * @param glyphCount Amount of glyphs
+	 */
+	public TextMesh(float[] vertices, int glyphCount) {
+
+		this.vertices = vertices;
+		this.glyphCount = glyphCount;
+
+		// Pass data to a buffer
+		FloatBuffer data = BufferUtils.createFloatBuffer(glyphCount * 4 * VERTEX_SIZE);
+		data.put(vertices, 0, glyphCount * 4 * VERTEX_SIZE);
+		data.flip();
+
+		vertexBuffer = Renderer.backend().genBuffer();
+		GLState.bindArrayBuffer(vertexBuffer);
+		Renderer.backend().bufferData(GL_ARRAY_BUFFER, data, GL_STATIC_DRAW);
+	}
+
+
+	/**
+	 * Draw. Expects the index buffer to contain
+	 * quads and to be bound
+	 */
+	public void draw() {
+
+		if(glyphCount == 0) return;
+
+		Renderer.backend().enableVertexAttribArray(0);
+		Renderer.backend().enableVertexAttribArray(1);
+		Renderer.backend().enableVertexAttribArray(2);
+
+		GLState.bindArrayBuffer(vertexBuffer);
+		Renderer.backend().vertexAttribPointer(0, 2, VERTEX_STRIDE, 0);
+		Renderer.backend().vertexAttribPointer(1, 2, VERTEX_STRIDE, 2 * 4);
+		Renderer.backend().vertexAttribPointer(2, 1, VERTEX_STRIDE, 4 * 4);
+
+		Renderer.backend().drawElements(glyphCount * 6, 0);
+	}
+
+
+	/**
+	 * Destroy the vertex buffer
+	 */
+	public void dispose() {
+
+		Renderer.backend().deleteBuffer(vertexBuffer);
+		GLState.arrayBufferDeleted(vertexBuffer);
+	}
+
+
+	/**
+	 * Get vertex data
+	 * @return Vertex data
+	 */
+	public float[] getVertices() {
+
+		return vertices;
+	}
+
+
+	/**
+	 * Get the amount of glyphs
+	 * @return Glyph count
+	 */
+	public int getGlyphCount() {
+
+		return glyphCount;
+	}
+}
@@ -0,0 +1,67 @@
+package core.renderer;
+
+/**
+ * Includes the shaders used for cached text. The
+ * whole string is one mesh, and waving is done
+ * in the vertex shader.
+ * @author Jani Nykänen
+ *
+ */
+public final class TextShader {
+
+	/** Text vertex shader */
+	static public final String VERTEX = "#version 120\n" +
+			"attribute vec2 vertexPos;\n" +
+			"attribute vec2 vertexUV;\n" +
+			"attribute float vertexIndex;\n" +
+			"   \n" +
+			"uniform mat3 model;\n" +
+			"uniform mat3 project;\n" +
+			"   \n" +
+			"uniform vec2 pos;\n" +
+			"// Time, amplitude & period\n" +
+			"uniform vec3 wave;\n" +
+			"   \n" +
+			"varying vec2 uv;\n" +
+			"   \n" +
+			"// Main\n" +
+			"void main() {\n" +
+			"   \n" +
+			"    vec2 p = vertexPos + pos;\n" +
+			"   \n" +
+			"    // Wave\n" +
+			"    p.y += sin(wave.x + wave.z * vertexIndex) * wave.y;\n" +
+			"   \n" +
+			"    // Position\n" +
+			"    gl_Position = vec4(project * model * vec3(p.x, p.y, 1), 1);\n" +
+			"       \n" +
+			"    // Texture coordinates\n" +
+			"    uv = vertexUV;\n" +
+			"}";
+
+
+	/** Text fragment shader */
+	static public final String FRAGMENT = "#version 120\n" +
+			"varying vec2 uv;\n" +
+			"\n" +
+			"uniform sampler2D texSampler;\n" +
+			"\n" +
+			"uniform vec4 color;\n" +
+			"\n" +
+			"// Main\n" +
+			"void main() {\n" +
+			"\n" +
+			"    const float DELTA = 0.01;\n" +
+			"\n" +
+			"    // Check if the color alpha is not too small\n" +
+			"    vec4 res = color * texture2D(texSampler, uv);\n" +
+			"    if(res.a <= DELTA) {\n" +
+			"        \n" +
+			"        discard;\n" +
+			"    }\n" +
+			"\n" +
+			"    // Set color\n" +
+			"    gl_FragColor = res;\n" +
+			"}";
+
+}
@@ -0,0 +1,338 @@
+package core.renderer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * Packs several bitmaps to one or a few large
+ * textures. Every region is surrounded by padding
+ * that repeats its edge pixels, so linear filtering
+ * never samples a neighbouring region
+ * @author Jani Nykänen
+ *
+ */
+public class TextureAtlas {
+
+	/** Padding around each region, in pixels */
+	static public final int PADDING = 4;
+	/** Maximum page size */
+	static private final int MAX_PAGE_SIZE = 2048;
+
+
+	/**
+	 * Region position in an atlas page
+	 */
+	private class Region {
+
+		/** Source data */
+		private BitmapData data;
+		/** Page index, -1 if does not fit to a page */
+		private int page = -1;
+		/** Position */
+		private int x, y;
+		/** Resulting bitmap */
+		private Bitmap bitmap;
+	}
+
+
+	/** Regions */
+	private List<Region> regions;
+	/** Page bitmaps */
+	private List<Bitmap> pages;
+	/** Page pixel data, waiting to be uploaded */
+	private List<byte[]> pagePixels;
+	/** Page heights */
+	private List<Integer> pageHeights;
+	/** Page width */
+	private int pageSize;
+
+
+	/**
+	 * Copy the source data to a page, extruding
+	 * the edge pixels to the padding
+	 * @param dest Page pixel data
+	 * @param pageWidth Page width
+	 * @param r Region
+	 */
+	private void blit(byte[] dest, int pageWidth, Region r) {
+
+		int w = r.data.getWidth();
+		int h = r.data.getHeight();
+		byte[] src = r.data.getPixels();
+
+		int sy, srcRow, destRow;
+		for(int y = -PADDING; y < h + PADDING; ++ y) {
+
+			sy = Math.min(h-1, Math.max(0, y));
+			srcRow = sy * w * 4;
+			destRow = ((r.y + y) * pageWidth + r.x) * 4;
+
+			// Copy the row itself
+			System.arraycopy(src, srcRow, dest, destRow, w * 4);
+
+			// Extrude the left and right edges
+			for(int x = 1; x <= PADDING; ++ x) {
+
+				System.arraycopy(src, srcRow, dest, destRow - x*4, 4);
+				System.arraycopy(src, srcRow + (w-1)*4, dest, destRow + (w-1+x)*4, 4);
+			}
+		}
+	}
+
+
+	/**
+	 * Constructor
+	 */
+	public TextureAtlas() {
+
+		regions = new ArrayList<Region> ();
+		pages = new ArrayList<Bitmap> ();
+		pagePixels = new ArrayList<byte[]> ();
+		pageHeights = new ArrayList<Integer> ();
+	}
+
+
+	/**
+	 * Add bitmap data to be packed
+	 * @param data Bitmap data
+	 * @return Region index
+	 */
+	public int add(BitmapData data) {
+
+		Region r = new Region();
+		r.data = data;
+		regions.add(r);
+
+		return regions.size()-1;
+	}
+
+
+	/**
+	 * Pack the regions and create the page textures.
+	 * Regions are placed on "shelves", tallest first
+	 */
+	public void build() {
+
+		pack(Renderer.backend().getMaxTextureSize());
+		upload();
+	}
+
+
+	/**
+	 * Pack the regions and copy them to the page
+	 * pixel data. Does not touch GL, so this can
+	 * be done in any thread
+	 * @param maxTextureSize Maximum texture size
+	 */
+	public void pack(int maxTextureSize) {
+
+		pageSize = Math.min(MAX_PAGE_SIZE, maxTextureSize);
+
+		// Sort by height
+		List<Region> sorted = new ArrayList<Region> (regions);
+		Collections.sort(sorted, new Comparator<Region> () {
+
+			@Override
+			public int compare(Region a, Region b) {
+
+				return b.data.getHeight() - a.data.getHeight();
+			}
+		});
+
+		// Find positions
+		int page = -1;
+		int x = 0, y = 0, shelfHeight = 0;
+		int w, h;
+		for(Region r : sorted) {
+
+			w = r.data.getWidth() + PADDING*2;
+			h = r.data.getHeight() + PADDING*2;
+
+			// Too big, will get a texture of its own
+			if(w > pageSize || h > pageSize) continue;
+
+			// Next shelf
+			if(page < 0 || x + w > pageSize) {
+
+				x = 0;
+				y += shelfHeight;
+				shelfHeight = 0;
+			}
+			// Next page
+			if(page < 0 || y + h > pageSize) {
+
+				++ page;
+				pageHeights.add(0);
+				x = 0;
+				y = 0;
+				shelfHeight = 0;
+			}
+
+			r.page = page;
+			r.x = x + PADDING;
+			r.y = y + PADDING;
+
+			x += w;
+			shelfHeight = Math.max(shelfHeight, h);
+			pageHeights.set(page, Math.max(pageHeights.get(page), y + shelfHeight));
+		}
+
+		// Create page pixel data
+		byte[] pixels;
+		for(int i = 0; i <= page; ++ i) {
+
+			pixels = new byte[pageSize * pageHeights.get(i) * 4];
+			for(Region r : regions) {
+
+				if(r.page == i)
+					blit(pixels, pageSize, r);
+			}
+			pagePixels.add(pixels);
+		}
+	}
+
+
+	/**
+	 * Create the page textures and the region bitmaps.
+	 * Must be called in the GL thread, after packing
+	 */
+	public void upload() {
+
+		// Create pages
+		for(int i = 0; i < pagePixels.size(); ++ i) {
+
+			pages.add(new Bitmap(pagePixels.get(i), pageSize, pageHeights.get(i)));
+		}
+		pagePixels.clear();
+
+		// Create region bitmaps
+		for(Region r : regions) {
+
+			if(r.page < 0) {
+
+				r.bitmap = new Bitmap(r.data);
+			}
+			else {
+
+				r.bitmap = new Bitmap(pages.get(r.page), r.x, r.y,
+						r.data.getWidth(), r.data.getHeight());
+			}
+
+			// Pixel data is not needed anymore
+			r.data = null;
+		}
+	}
+
+
+	/**
+	 * Get a packed bitmap
+	 * @param index Region index
+	 * @return Bitmap
+	 */
+	public Bitmap getBitmap(int index) {
+
+		return regions.get(index).bitmap;
+	}
+
+
+	/**
+	 * Get the page width
+	 * @return Page width
+	 */
+	public int getPageWidth() {
+
+		return pageSize;
+	}
+
+
+	/**
+	 * Get a page height
+	 * @param page Page index
+	 * @return Page height
+	 */
+	public int getPageHeight(int page) {
+
+		return pageHeights.get(page);
+	}
+
+
+	/**
+	 * Get the pixel data of a page that has
+	 * been packed but not uploaded
+	 * @param page Page index
+	 * @return Pixel data (in RGBA format)
+	 */
+	public byte[] getPagePixels(int page) {
+
+		return pagePixels.get(page);
+	}
+
+
+	/**
+	 * Get the amount of packed pages
+	 * @return Page count
+	 */
+	public int getPackedPageCount() {
+
+		return pageHeights.size();
+	}
+
+
+	/**
+	 * Get the page of a region
+	 * @param index Region index
+	 * @return Page index, -1 if the region did
+	 * not fit to a page
+	 */
+	public int getRegionPage(int index) {
+
+		return regions.get(index).page;
+	}
+
+
+	/**
+	 * Get the horizontal position of a region
+	 * @param index Region index
+	 * @return X coordinate in the page
+	 */
+	public int getRegionX(int index) {
+
+		return regions.get(index).x;
+	}
+
+
+	/**
+	 * Get the vertical position of a region
+	 * @param index Region index
+	 * @return Y coordinate in the page
+	 */
+	public int getRegionY(int index) {
+
+		return regions.get(index).y;
+	}
+
+
+	/**
+	 * Get the source data of a region. Available
+	 * until the atlas is uploaded
+	 * @param index Region index
+	 * @return Bitmap data
+	 */
+	public BitmapData getRegionData(int index) {
+
+		return regions.get(index).data;
+	}
+
+
+	/**
+	 * Get the amount of page textures
+	 * @return Page count
+	 */
+	public int getPageCount() {
+
+		return pages.size();
+	}
+}
@@ -1,7 +1,5 @@
 package core.renderer;
 
-import java.util.Stack;
-
 import core.types.Matrix3;
 import core.types.Vector2;
 
@@ -12,23 +10,34 @@ import core.types.Vector2;
  */
 public class Transformations {
 
+	/** Model matrix stack capacity */
+	static public final int STACK_SIZE = 32;
+	
 	/** Model matrix */
 	private Matrix3 model;
 	/** View matrix */
 	private Matrix3 view;
-	/** Operand matrix */
-	private Matrix3 operand;
 	
 	/** Viewport dimensions */
 	private Vector2 viewport;
 	/** Framebuffer size */
 	private Vector2 frameBufferSize;
 	
-	/** A stack of matrices */
-	private Stack<Matrix3> stack; 
+	/** A stack of matrices. The slots are reused */
+	private Matrix3[] stack; 
+	/** Amount of matrices in the stack */
+	private int stackSize;
+	
+	/** Saved view matrix */
+	private Matrix3 savedView;
+	/** Saved viewport dimensions */
+	private Vector2 savedViewport;
 	
 	/** Active shader */
 	private Shader activeShader;
+	/** Sprite batch that must be flushed before the
+	 * transformations change, if any */
+	private SpriteBatch batch;
 	
 	
 	/**
@@ -39,12 +48,18 @@ public class Transformations {
 		// Create matrices
 		model = new Matrix3();
 		view = new Matrix3();
-		operand = new Matrix3();
+		savedView = new Matrix3();
 		
 		// Initialize other components
-		stack = new Stack<Matrix3> ();
+		stack = new Matrix3[STACK_SIZE];
+		for(int i = 0; i < STACK_SIZE; ++ i) {
+			
+			stack[i] = new Matrix3();
+		}
+		stackSize = 0;
 		viewport = new Vector2(1, 1);
 		frameBufferSize = new Vector2(1, 1);
+		savedViewport = new Vector2(1, 1);
 	}
 	
 	
@@ -90,8 +105,7 @@ public class Transformations {
 	 */
 	public void translate(float x, float y) {
 		
-		operand.translate(x, y);
-		model = model.multiply(operand);
+		model.postTranslate(x, y);
 	}
 	
 	
@@ -102,8 +116,7 @@ public class Transformations {
 	 */
 	public void scale(float x, float y) {
 		
-		operand.scale(x, y);
-		model = model.multiply(operand);
+		model.postScale(x, y);
 	}
 	
 	
@@ -113,8 +126,7 @@ public class Transformations {
 	 */
 	public void rotate(float angle) {
 		
-		operand.rotate(angle);
-		model = model.multiply(operand);
+		model.postRotate(angle);
 	}
 	
 	
@@ -123,7 +135,11 @@ public class Transformations {
 	 */
 	public void push() {
 		
-		stack.push(model.clone());
+		if(stackSize >= STACK_SIZE) {
+			
+			throw new RuntimeException("Transformation stack overflow!");
+		}
+		stack[stackSize ++].set(model);
 	}
 	
 	
@@ -132,21 +148,64 @@ public class Transformations {
 	 */
 	public void pop() {
 		
-		model = stack.pop().clone();
+		if(stackSize <= 0) {
+			
+			throw new RuntimeException("Transformation stack underflow!");
+		}
+		model.set(stack[-- stackSize]);
 		use();
 	}
 	
 	
+	/**
+	 * Save the current view, so it can be restored
+	 * after rendering to an offscreen target
+	 */
+	public void saveView() {
+		
+		savedView.set(view);
+		savedViewport.x = viewport.x;
+		savedViewport.y = viewport.y;
+	}
+	
+	
+	/**
+	 * Restore the saved view
+	 */
+	public void restoreView() {
+		
+		view.set(savedView);
+		viewport.x = savedViewport.x;
+		viewport.y = savedViewport.y;
+	}
+	
+	
 	/**
 	 * Use the current transformations
 	 * @param shader Shader
 	 */
 	public void use() {
 		
+		// Quads already in the batch were meant to be
+		// drawn with the old transformations
+		if(batch != null)
+			batch.flush();
+		
 		activeShader.setTransformationUniforms(model, view);
 	}
 	
 	
+	/**
+	 * Pass the current transformations to another shader
+	 * than the active one. Does not flush the batch
+	 * @param sh Shader
+	 */
+	void use(Shader sh) {
+		
+		sh.setTransformationUniforms(model, view);
+	}
+	
+	
 	/**
 	 * Update the framebuffer size info
 	 * @param w
@@ -169,6 +228,17 @@ public class Transformations {
 	}
 	
 	
+	/**
+	 * Set the sprite batch to be flushed before
+	 * transformations are changed
+	 * @param batch Sprite batch, null if none
+	 */
+	public void bindBatch(SpriteBatch batch) {
+		
+		this.batch = batch;
+	}
+	
+	
 	/**
 	 * Get viewport dimensions
 	 * @return Viewport dimensions
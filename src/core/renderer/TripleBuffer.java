@@ -0,0 +1,94 @@
+package core.renderer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Passes objects from one thread to another without
+ * locking. The producer fills the back slot and publishes
+ * it, the consumer takes the latest published slot. The
+ * slots are swapped, never copied
+ * @author Jani Nykänen
+ *
+ * @param <T> Slot type
+ */
+public class TripleBuffer<T> {
+
+	/** Set in the shared index when it holds a published slot */
+	static private final int FRESH = 4;
+	/** Mask for the slot index */
+	static private final int INDEX_MASK = 3;
+	
+	/** Slots */
+	private Object[] slots;
+	/** Shared slot index, plus the "fresh" flag */
+	private AtomicInteger shared;
+	/** Slot owned by the producer */
+	private int back;
+	/** Slot owned by the consumer */
+	private int front;
+	
+	
+	/**
+	 * Constructor
+	 * @param a First slot
+	 * @param b Second slot
+	 * @param c Third slot
+	 */
+	public TripleBuffer(T a, T b, T c) {
+		
+		slots = new Object[] {a, b, c};
+		back = 0;
+		shared = new AtomicInteger(1);
+		front = 2;
+	}
+	
+	
+	/**
+	 * Get the slot the producer is filling
+	 * @return Back slot
+	 */
+	@SuppressWarnings("unchecked")
+	public T getBack() {
+		
+		return (T)slots[back];
+	}
+	
+	
+	/**
+	 * Publish the back slot. If the consumer has not taken
+	 * the previously published slot, it is given back
+	 * to the producer, i.e. dropped
+	 * @return New back slot
+	 */
+	public T publish() {
+		
+		back = shared.getAndSet(back | FRESH) & INDEX_MASK;
+		return getBack();
+	}
+	
+	
+	/**
+	 * Is there a published slot the consumer 
+	 * has not taken yet
+	 * @return True, if there is
+	 */
+	public boolean isPending() {
+		
+		return (shared.get() & FRESH) != 0;
+	}
+	
+	
+	/**
+	 * Take the latest published slot
+	 * @return Slot, null if nothing new was published
+	 */
+	@SuppressWarnings("unchecked")
+	public T acquire() {
+		
+		if(!isPending()) return null;
+		
+		front = shared.getAndSet(front) & INDEX_MASK;
+		return (T)slots[front];
+	}
+}
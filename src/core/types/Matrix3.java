@@ -1,5 +1,7 @@
 package core.types;
 
+import java.nio.FloatBuffer;
+
 /**
  * A 3x3 square matrix for 2D transformations
  * @author Jani Nykänen
@@ -42,20 +44,170 @@ public class Matrix3 implements Cloneable {
 	public Matrix3 multiply(Matrix3 M) {
 
 	    Matrix3 A = new Matrix3();
+	    multiplyInto(M, A);
 
-	    A.m11 = this.m11 * M.m11 + this.m21 * M.m12 + this.m31 * M.m13;
-	    A.m21 = this.m11 * M.m21 + this.m21 * M.m22 + this.m31 * M.m23;
-	    A.m31 = this.m11 * M.m31 + this.m21 * M.m32 + this.m31 * M.m33;
-
-	    A.m12 = this.m12 * M.m11 + this.m22 * M.m12 + this.m32 * M.m13;
-	    A.m22 = this.m12 * M.m21 + this.m22 * M.m22 + this.m32 * M.m23;
-	    A.m32 = this.m12 * M.m31 + this.m22 * M.m32 + this.m32 * M.m33;
+	    return A;
+	}
+	
+	
+	/**
+	 * Matrix multiplication that stores the result to
+	 * the given matrix, which may be this matrix or the operand
+	 * @param M Right-side operand
+	 * @param dest Destination
+	 */
+	public void multiplyInto(Matrix3 M, Matrix3 dest) {
+		
+		// Both affine, the bottom row is always (0, 0, 1)
+		if(isAffine() && M.isAffine()) {
+			
+			float a11 = this.m11 * M.m11 + this.m21 * M.m12;
+			float a21 = this.m11 * M.m21 + this.m21 * M.m22;
+			float a31 = this.m11 * M.m31 + this.m21 * M.m32 + this.m31;
+			
+			float a12 = this.m12 * M.m11 + this.m22 * M.m12;
+			float a22 = this.m12 * M.m21 + this.m22 * M.m22;
+			float a32 = this.m12 * M.m31 + this.m22 * M.m32 + this.m32;
+			
+			dest.m11 = a11; dest.m21 = a21; dest.m31 = a31;
+			dest.m12 = a12; dest.m22 = a22; dest.m32 = a32;
+			dest.m13 = 0; dest.m23 = 0; dest.m33 = 1;
+			
+			return;
+		}
+		
+		float a11 = this.m11 * M.m11 + this.m21 * M.m12 + this.m31 * M.m13;
+		float a21 = this.m11 * M.m21 + this.m21 * M.m22 + this.m31 * M.m23;
+		float a31 = this.m11 * M.m31 + this.m21 * M.m32 + this.m31 * M.m33;
 
-	    A.m13 = this.m13 * M.m11 + this.m23 * M.m12 + this.m33 * M.m13;
-	    A.m23 = this.m13 * M.m21 + this.m23 * M.m22 + this.m33 * M.m23;
-	    A.m33 = this.m13 * M.m31 + this.m23 * M.m32 + this.m33 * M.m33;
+		float a12 = this.m12 * M.m11 + this.m22 * M.m12 + this.m32 * M.m13;
+		float a22 = this.m12 * M.m21 + this.m22 * M.m22 + this.m32 * M.m23;
+		float a32 = this.m12 * M.m31 + this.m22 * M.m32 + this.m32 * M.m33;
 
-	    return A;
+		float a13 = this.m13 * M.m11 + this.m23 * M.m12 + this.m33 * M.m13;
+		float a23 = this.m13 * M.m21 + this.m23 * M.m22 + this.m33 * M.m23;
+		float a33 = this.m13 * M.m31 + this.m23 * M.m32 + this.m33 * M.m33;
+		
+		dest.m11 = a11; dest.m21 = a21; dest.m31 = a31;
+		dest.m12 = a12; dest.m22 = a22; dest.m32 = a32;
+		dest.m13 = a13; dest.m23 = a23; dest.m33 = a33;
+	}
+	
+	
+	/**
+	 * Multiply this matrix from the right, i.e. this = this * M
+	 * @param M Right-side operand
+	 */
+	public void postMultiply(Matrix3 M) {
+		
+		multiplyInto(M, this);
+	}
+	
+	
+	/**
+	 * Multiply this matrix from the left, i.e. this = M * this
+	 * @param M Left-side operand
+	 */
+	public void preMultiply(Matrix3 M) {
+		
+		M.multiplyInto(this, this);
+	}
+	
+	
+	/**
+	 * Multiply from the right by a translation matrix
+	 * @param x X translation
+	 * @param y Y translation
+	 */
+	public void postTranslate(float x, float y) {
+		
+		this.m31 += this.m11 * x + this.m21 * y;
+		this.m32 += this.m12 * x + this.m22 * y;
+		
+		if(!isAffine()) {
+			
+			this.m33 += this.m13 * x + this.m23 * y;
+		}
+	}
+	
+	
+	/**
+	 * Multiply from the right by a scaling matrix
+	 * @param x X scaling
+	 * @param y Y scaling
+	 */
+	public void postScale(float x, float y) {
+		
+		this.m11 *= x; this.m21 *= y;
+		this.m12 *= x; this.m22 *= y;
+		
+		if(!isAffine()) {
+			
+			this.m13 *= x; this.m23 *= y;
+		}
+	}
+	
+	
+	/**
+	 * Multiply from the right by a rotation matrix
+	 * @param angle Angle
+	 */
+	public void postRotate(float angle) {
+		
+		float c = (float)Math.cos(angle);
+	    float s = (float)Math.sin(angle);
+	    
+	    float a11 = this.m11 * c + this.m21 * s;
+	    float a21 = this.m21 * c - this.m11 * s;
+	    float a12 = this.m12 * c + this.m22 * s;
+	    float a22 = this.m22 * c - this.m12 * s;
+	    
+	    if(!isAffine()) {
+	    	
+	    	float a13 = this.m13 * c + this.m23 * s;
+	    	this.m23 = this.m23 * c - this.m13 * s;
+	    	this.m13 = a13;
+	    }
+	    
+	    this.m11 = a11; this.m21 = a21;
+	    this.m12 = a12; this.m22 = a22;
+	}
+	
+	
+	/**
+	 * Is the bottom row (0, 0, 1), i.e. is this
+	 * an affine transformation
+	 * @return True, if affine
+	 */
+	public boolean isAffine() {
+		
+		return m13 == 0 && m23 == 0 && m33 == 1;
+	}
+	
+	
+	/**
+	 * Check if the elements are equal to the
+	 * elements of another matrix
+	 * @param M Another matrix
+	 * @return True, if equal
+	 */
+	public boolean isEqual(Matrix3 M) {
+		
+		return this.m11 == M.m11 && this.m21 == M.m21 && this.m31 == M.m31 &&
+			   this.m12 == M.m12 && this.m22 == M.m22 && this.m32 == M.m32 &&
+			   this.m13 == M.m13 && this.m23 == M.m23 && this.m33 == M.m33;
+	}
+	
+	
+	/**
+	 * Copy the elements of another matrix
+	 * @param M Source matrix
+	 */
+	public void set(Matrix3 M) {
+		
+		this.m11 = M.m11; this.m21 = M.m21; this.m31 = M.m31;
+		this.m12 = M.m12; this.m22 = M.m22; this.m32 = M.m32;
+		this.m13 = M.m13; this.m23 = M.m23; this.m33 = M.m33;
 	}
 	
 	
@@ -132,6 +284,19 @@ public class Matrix3 implements Cloneable {
 	}
 	
 	
+	/**
+	 * Store to a buffer in an OpenGL-friendly
+	 * order. Does not flip the buffer
+	 * @param buf Buffer
+	 */
+	public void store(FloatBuffer buf) {
+		
+		buf.put(this.m11).put(this.m12).put(this.m13);
+		buf.put(this.m21).put(this.m22).put(this.m23);
+		buf.put(this.m31).put(this.m32).put(this.m33);
+	}
+	
+	
 	@Override
 	public Matrix3 clone() {
 		
@@ -0,0 +1,361 @@
+package core.utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import core.renderer.BitmapData;
+import core.renderer.TextureAtlas;
+
+/**
+ * Packs the assets listed in an asset file to a single
+ * binary bundle, so they can be loaded without parsing
+ * XML or decoding images (see AssetPack.loadBundle).
+ * Run with the resource folder in the class path:
+ * AssetBundleWriter [asset file] [output file]
+ *
+ * Every value is a little-endian 32-bit integer:
+ * magic, version, source hash (see getSourceHash, 
+ * low and high half), string table (count, then length
+ * and UTF-8 bytes padded to 4 bytes for each string),
+ * atlas pages (count, then width, height and RGBA
+ * pixels), bitmaps (count, then name, page, x, y,
+ * width, height and, if the page is -1, RGBA pixels)
+ * and tilemaps (count, then name, width, height,
+ * property count, key-value pairs, layer count and
+ * the layers). Names and properties are indices to
+ * the string table
+ * @author Jani Nykänen
+ *
+ */
+public class AssetBundleWriter {
+
+	/** Bundle file identifier, "OYBN" */
+	static public final int MAGIC = 0x4E42594F;
+	/** Format version */
+	static public final int VERSION = 2;
+	
+	/** Page size used when packing, should be
+	 *  supported by any GL 2.1 device */
+	static private final int PAGE_SIZE = 2048;
+	
+	
+	/** Strings */
+	private List<String> strings;
+	/** String indices */
+	private HashMap<String, Integer> stringIDs;
+	/** Everything after the string table */
+	private ByteArrayOutputStream body;
+	
+	
+	/**
+	 * Write an integer
+	 * @param out Output
+	 * @param v Value
+	 */
+	static private void writeInt(OutputStream out, int v) throws IOException {
+		
+		out.write(v & 0xFF);
+		out.write((v >> 8) & 0xFF);
+		out.write((v >> 16) & 0xFF);
+		out.write((v >> 24) & 0xFF);
+	}
+	
+	
+	/**
+	 * Write an integer array
+	 * @param out Output
+	 * @param arr Array
+	 */
+	static private void writeInts(OutputStream out, int[] arr) throws IOException {
+		
+		ByteBuffer buf = ByteBuffer.allocate(arr.length * 4);
+		buf.order(ByteOrder.LITTLE_ENDIAN);
+		buf.asIntBuffer().put(arr);
+		out.write(buf.array());
+	}
+	
+	
+	/**
+	 * Add the contents of a resource to a checksum
+	 * @param crc Checksum
+	 * @param path Resource path
+	 * @param buf Read buffer
+	 * @throws IOException If the resource cannot be read
+	 */
+	static private void addToHash(CRC32 crc, String path, byte[] buf) throws IOException {
+		
+		InputStream in = AssetBundleWriter.class.getClassLoader().getResourceAsStream(path);
+		if(in == null)
+			throw new IOException("Could not find " + path);
+			
+		try {
+			
+			// The path matters too, e.g. if two files swap names
+			crc.update(path.getBytes(StandardCharsets.UTF_8));
+			
+			int n;
+			while((n = in.read(buf)) > 0) {
+				
+				crc.update(buf, 0, n);
+			}
+		}
+		finally {
+			
+			in.close();
+		}
+	}
+	
+	
+	/**
+	 * Compute a hash of the asset file and every file
+	 * listed in it. A bundle whose hash differs from
+	 * this was made from other versions of the files
+	 * @param xmlPath Asset file path
+	 * @return Hash
+	 * @throws Exception If something goes wrong
+	 */
+	static public long getSourceHash(String xmlPath) throws Exception {
+		
+		XMLParser parser = new XMLParser(xmlPath);
+		parser.readyRoot();
+		
+		String bmpPath = parser.getRootAttribute("bitmap_path", "assets/bitmaps/");
+		String mapPath = parser.getRootAttribute("tilemap_path", "assets/bitmaps/");
+		
+		CRC32 crc = new CRC32();
+		byte[] buf = new byte[8192];
+		addToHash(crc, xmlPath, buf);
+		
+		int count = 0;
+		parser.readyNodeList("bitmap");
+		while(parser.getNextParam()) {
+			
+			addToHash(crc, bmpPath + parser.getTextContent("path"), buf);
+			++ count;
+		}
+		parser.readyNodeList("tilemap");
+		while(parser.getNextParam()) {
+			
+			addToHash(crc, mapPath + parser.getTextContent("path"), buf);
+			++ count;
+		}
+		parser.close();
+		
+		// The file count goes to the upper half, so that
+		// adding or removing a file is always noticed
+		return crc.getValue() | ((long)count << 32);
+	}
+	
+	
+	/**
+	 * Get the string table index of a string,
+	 * adds the string if not in the table yet
+	 * @param s String
+	 * @return Index
+	 */
+	private int getString(String s) {
+		
+		Integer id = stringIDs.get(s);
+		if(id == null) {
+			
+			id = strings.size();
+			strings.add(s);
+			stringIDs.put(s, id);
+		}
+		return id;
+	}
+	
+	
+	/**
+	 * Write the atlas pages and the bitmaps
+	 * @param names Bitmap names
+	 * @param paths Bitmap paths
+	 * @throws IOException If something goes wrong
+	 */
+	private void writeBitmaps(List<String> names, List<String> paths) throws IOException {
+		
+		// Pack the bitmaps to an atlas the same
+		// way as when loading them from the files
+		TextureAtlas atlas = new TextureAtlas();
+		for(String path : paths) {
+			
+			atlas.add(new BitmapData(path));
+		}
+		atlas.pack(PAGE_SIZE);
+		
+		// Pages
+		writeInt(body, atlas.getPackedPageCount());
+		for(int i = 0; i < atlas.getPackedPageCount(); ++ i) {
+			
+			writeInt(body, atlas.getPageWidth());
+			writeInt(body, atlas.getPageHeight(i));
+			body.write(atlas.getPagePixels(i));
+		}
+		
+		// Bitmaps
+		BitmapData data;
+		writeInt(body, names.size());
+		for(int i = 0; i < names.size(); ++ i) {
+			
+			data = atlas.getRegionData(i);
+			
+			writeInt(body, getString(names.get(i)));
+			writeInt(body, atlas.getRegionPage(i));
+			writeInt(body, atlas.getRegionX(i));
+			writeInt(body, atlas.getRegionY(i));
+			writeInt(body, data.getWidth());
+			writeInt(body, data.getHeight());
+			
+			// Did not fit to a page
+			if(atlas.getRegionPage(i) < 0)
+				body.write(data.getPixels());
+		}
+	}
+	
+	
+	/**
+	 * Write the tilemaps
+	 * @param names Tilemap names
+	 * @param paths Tilemap paths
+	 * @throws Exception If something goes wrong
+	 */
+	private void writeTilemaps(List<String> names, List<String> paths) throws Exception {
+		
+		Tilemap map;
+		writeInt(body, names.size());
+		for(int i = 0; i < names.size(); ++ i) {
+			
+			map = new Tilemap(paths.get(i));
+			
+			writeInt(body, getString(names.get(i)));
+			writeInt(body, map.getWidth());
+			writeInt(body, map.getHeight());
+			
+			// Properties
+			writeInt(body, map.getProperties().size());
+			for(StringPair p : map.getProperties()) {
+				
+				writeInt(body, getString(p.getKey()));
+				writeInt(body, getString(p.getValue()));
+			}
+			
+			// Layers
+			writeInt(body, map.getLayerCount());
+			for(int l = 0; l < map.getLayerCount(); ++ l) {
+				
+				writeInts(body, map.copyLayer(l));
+			}
+		}
+	}
+	
+	
+	/**
+	 * Constructor
+	 */
+	public AssetBundleWriter() {
+		
+		strings = new ArrayList<String> ();
+		stringIDs = new HashMap<String, Integer> ();
+		body = new ByteArrayOutputStream();
+	}
+	
+	
+	/**
+	 * Pack the assets listed in an asset file
+	 * @param xmlPath Asset file path
+	 * @param outPath Output file path
+	 * @throws Exception If something goes wrong
+	 */
+	public void write(String xmlPath, String outPath) throws Exception {
+		
+		// Open an XML parser
+		XMLParser parser = new XMLParser(xmlPath);
+		parser.readyRoot();
+		
+		// Get root info
+		String bmpPath = parser.getRootAttribute("bitmap_path", "assets/bitmaps/");
+		String mapPath = parser.getRootAttribute("tilemap_path", "assets/bitmaps/");
+		
+		// Read bitmap and tilemap entries
+		List<String> bmpNames = new ArrayList<String> ();
+		List<String> bmpPaths = new ArrayList<String> ();
+		parser.readyNodeList("bitmap");
+		while(parser.getNextParam()) {
+			
+			bmpNames.add(parser.getTextContent("name"));
+			bmpPaths.add(bmpPath + parser.getTextContent("path"));
+		}
+		List<String> mapNames = new ArrayList<String> ();
+		List<String> mapPaths = new ArrayList<String> ();
+		parser.readyNodeList("tilemap");
+		while(parser.getNextParam()) {
+			
+			mapNames.add(parser.getTextContent("name"));
+			mapPaths.add(mapPath + parser.getTextContent("path"));
+		}
+		
+		// Close
+		parser.close();
+		
+		long hash = getSourceHash(xmlPath);
+		writeBitmaps(bmpNames, bmpPaths);
+		writeTilemaps(mapNames, mapPaths);
+		
+		// Write the file
+		OutputStream out = new FileOutputStream(outPath);
+		try {
+			
+			writeInt(out, MAGIC);
+			writeInt(out, VERSION);
+			writeInt(out, (int)hash);
+			writeInt(out, (int)(hash >>> 32));
+			
+			// String table
+			byte[] bytes;
+			writeInt(out, strings.size());
+			for(String s : strings) {
+				
+				bytes = s.getBytes(StandardCharsets.UTF_8);
+				writeInt(out, bytes.length);
+				out.write(bytes);
+				
+				// Keep the integers aligned
+				for(int i = bytes.length; i % 4 != 0; ++ i)
+					out.write(0);
+			}
+			
+			body.writeTo(out);
+		}
+		finally {
+			
+			out.close();
+		}
+		
+		System.out.println("Wrote " + bmpNames.size() + " bitmaps and " +
+				mapNames.size() + " tilemaps to " + outPath);
+	}
+	
+	
+	/**
+	 * Pack the assets
+	 * @param args Asset file path and output file path
+	 * @throws Exception If something goes wrong
+	 */
+	static public void main(String[] args) throws Exception {
+		
+		String xmlPath = args.length > 0 ? args[0] : "assets/assets.xml";
+		String outPath = args.length > 1 ? args[1] : "assets.bin";
+		
+		(new AssetBundleWriter()).write(xmlPath, outPath);
+	}
+}
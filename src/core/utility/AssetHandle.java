@@ -0,0 +1,50 @@
+package core.utility;
+
+
+/**
+ * A typed reference to an asset in an asset pack.
+ * Resolve once (e.g. when initializing a scene),
+ * after that getting the asset is an array read
+ * @author Jani Nykänen
+ *
+ */
+public class AssetHandle<T> {
+
+	/** Index in the asset pack */
+	private int index;
+	
+	/** Asset name */
+	private String name;
+	
+	
+	/**
+	 * Constructor
+	 * @param index Index in the asset pack
+	 * @param name Asset name
+	 */
+	AssetHandle(int index, String name) {
+		
+		this.index = index;
+		this.name = name;
+	}
+	
+	
+	/**
+	 * Get the index in the asset pack
+	 * @return Index
+	 */
+	public int getIndex() {
+		
+		return index;
+	}
+	
+	
+	/**
+	 * Get name
+	 * @return Name
+	 */
+	public String getName() {
+		
+		return name;
+	}
+}
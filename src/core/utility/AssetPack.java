@@ -1,9 +1,27 @@
 package core.utility;
 
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import core.renderer.Bitmap;
+import core.renderer.BitmapData;
+import core.renderer.Renderer;
+import core.renderer.TextureAtlas;
 
 /**
  * A collection of assets
@@ -16,6 +34,101 @@ public class AssetPack {
 	private List< Asset<Bitmap> > bitmaps;
 	/** Tilemaps */
 	private List< Asset<Tilemap> > tilemaps;
+	/** Bitmap indices by name */
+	private HashMap<String, Integer> bitmapIDs;
+	/** Tilemap indices by name */
+	private HashMap<String, Integer> tilemapIDs;
+	
+	/** Amount of decoding threads, 0 for one per processor */
+	private int workerCount = 0;
+	/** Are the loading times printed */
+	private boolean reportTimings = false;
+	
+	
+	/**
+	 * Wait for a task to finish and get the result.
+	 * Errors thrown by the task are thrown again here
+	 * @param task Task
+	 * @return Result
+	 * @throws Exception If the task failed
+	 */
+	static private <T> T waitFor(Future<T> task) throws Exception {
+		
+		try {
+			
+			return task.get();
+		}
+		catch(ExecutionException e) {
+			
+			if(e.getCause() instanceof Exception)
+				throw (Exception) e.getCause();
+			
+			throw new RuntimeException(e.getCause());
+		}
+	}
+	
+	
+	/**
+	 * Get milliseconds passed since a moment
+	 * @param start Start time, in nanoseconds
+	 * @return Time in milliseconds
+	 */
+	static private double millisSince(long start) {
+		
+		return (System.nanoTime() - start) / 1000000.0;
+	}
+	
+	
+	/**
+	 * Create a pool of daemon threads for decoding
+	 * @return Thread pool
+	 */
+	private ExecutorService createPool() {
+		
+		int count = workerCount > 0 ? workerCount : 
+			Runtime.getRuntime().availableProcessors();
+		
+		return Executors.newFixedThreadPool(count, new ThreadFactory() {
+			
+			@Override
+			public Thread newThread(Runnable r) {
+				
+				Thread t = new Thread(r, "Asset loader");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+	
+	
+	/**
+	 * Add a bitmap and index it by name. If the name 
+	 * is already in use, the first one is found
+	 * @param bmp Bitmap
+	 * @param name Name
+	 */
+	private void addBitmap(Bitmap bmp, String name) {
+		
+		if(!bitmapIDs.containsKey(name))
+			bitmapIDs.put(name, bitmaps.size());
+		
+		bitmaps.add(new Asset<Bitmap> (bmp, name));
+	}
+	
+	
+	/**
+	 * Add a tilemap and index it by name. If the name 
+	 * is already in use, the first one is found
+	 * @param map Tilemap
+	 * @param name Name
+	 */
+	private void addTilemap(Tilemap map, String name) {
+		
+		if(!tilemapIDs.containsKey(name))
+			tilemapIDs.put(name, tilemaps.size());
+		
+		tilemaps.add(new Asset<Tilemap> (map, name));
+	}
 	
 	
 	/**
@@ -26,17 +139,44 @@ public class AssetPack {
 		// Initialize components
 		bitmaps = new ArrayList< Asset<Bitmap> > ();
 		tilemaps = new ArrayList< Asset<Tilemap> > ();
+		bitmapIDs = new HashMap<String, Integer> ();
+		tilemapIDs = new HashMap<String, Integer> ();
 	}
 	
 	
+	/**
+	 * Set the amount of decoding threads
+	 * @param count Thread count, 0 for one per processor
+	 */
+	public void setWorkerCount(int count) {
+		
+		workerCount = Math.max(0, count);
+	}
+	
 	
 	/**
-	 * Parse XML and load associated assets
+	 * Set whether the loading times of each
+	 * asset are printed
+	 * @param state State
+	 */
+	public void setTimingReport(boolean state) {
+		
+		reportTimings = state;
+	}
+	
+	
+	/**
+	 * Parse XML and load associated assets. Image
+	 * decoding and tilemap parsing are done in
+	 * worker threads, only the texture upload
+	 * is done in the calling (GL) thread
 	 * @param path File path
 	 * @throws Exception If something goes wrong
 	 */
 	public void parseXML(String xmlPath) throws Exception {
 		
+		long start = System.nanoTime();
+		
 		// Open an XML parser
 		XMLParser parser = new XMLParser(xmlPath);
 		parser.readyRoot();
@@ -45,50 +185,422 @@ public class AssetPack {
 		String bmpPath = parser.getRootAttribute("bitmap_path", "assets/bitmaps/");
 		String mapPath = parser.getRootAttribute("tilemap_path", "assets/bitmaps/");
 		
-		
-		// Read bitmaps
+		// Read bitmap and tilemap entries
+		List<String> bmpNames = new ArrayList<String> ();
+		List<String> bmpPaths = new ArrayList<String> ();
 		parser.readyNodeList("bitmap");
-		String name, path;
 		while(parser.getNextParam()) {
 					
-			name = parser.getTextContent("name");
-			path = parser.getTextContent("path");
-			
-			// Load bitmap
-			bitmaps.add(new Asset<Bitmap> (new Bitmap(bmpPath + path), name));
+			bmpNames.add(parser.getTextContent("name"));
+			bmpPaths.add(bmpPath + parser.getTextContent("path"));
 		}
-		
-		// Read tilemaps
+		List<String> mapNames = new ArrayList<String> ();
+		List<String> mapPaths = new ArrayList<String> ();
 		parser.readyNodeList("tilemap");
 		while(parser.getNextParam()) {
-							
-			name = parser.getTextContent("name");
-			path = parser.getTextContent("path");
-					
-			// Load bitmap
-			tilemaps.add(new Asset<Tilemap> (new Tilemap(mapPath + path), name));
+			
+			mapNames.add(parser.getTextContent("name"));
+			mapPaths.add(mapPath + parser.getTextContent("path"));
 		}
 				
 		// Close
 		parser.close();
+		
+		// Decoding times, written by the workers
+		final double[] bmpTimes = new double[bmpPaths.size()];
+		final double[] mapTimes = new double[mapPaths.size()];
+		
+		ExecutorService pool = createPool();
+		try {
+			
+			// Decode bitmaps
+			List<Future<BitmapData>> bmpData = new ArrayList<Future<BitmapData>> ();
+			for(int i = 0; i < bmpPaths.size(); ++ i) {
+				
+				final int index = i;
+				final String path = bmpPaths.get(i);
+				bmpData.add(pool.submit(new Callable<BitmapData> () {
+					
+					@Override
+					public BitmapData call() throws Exception {
+						
+						long t = System.nanoTime();
+						BitmapData data = new BitmapData(path);
+						bmpTimes[index] = millisSince(t);
+						return data;
+					}
+				}));
+			}
+			
+			// Parse tilemaps
+			List<Future<Tilemap>> mapData = new ArrayList<Future<Tilemap>> ();
+			for(int i = 0; i < mapPaths.size(); ++ i) {
+				
+				final int index = i;
+				final String path = mapPaths.get(i);
+				mapData.add(pool.submit(new Callable<Tilemap> () {
+					
+					@Override
+					public Tilemap call() throws Exception {
+						
+						long t = System.nanoTime();
+						Tilemap map = new Tilemap(path);
+						mapTimes[index] = millisSince(t);
+						return map;
+					}
+				}));
+			}
+			
+			// Instead of creating a texture for each bitmap, 
+			// they are packed to an atlas. Packing is done 
+			// here while the workers parse the tilemaps
+			TextureAtlas atlas = new TextureAtlas();
+			for(Future<BitmapData> f : bmpData) {
+				
+				atlas.add(waitFor(f));
+			}
+			long t = System.nanoTime();
+			atlas.pack(Renderer.backend().getMaxTextureSize());
+			double packTime = millisSince(t);
+			
+			// Create textures
+			t = System.nanoTime();
+			atlas.upload();
+			double uploadTime = millisSince(t);
+			for(int i = 0; i < bmpNames.size(); ++ i) {
+				
+				addBitmap(atlas.getBitmap(i), bmpNames.get(i));
+			}
+			
+			// Store tilemaps
+			for(int i = 0; i < mapNames.size(); ++ i) {
+				
+				addTilemap(waitFor(mapData.get(i)), mapNames.get(i));
+			}
+			
+			// Report
+			if(reportTimings) {
+				
+				for(int i = 0; i < bmpNames.size(); ++ i) {
+					
+					System.out.printf("Bitmap %s: decoded in %.2f ms\n", 
+							bmpNames.get(i), bmpTimes[i]);
+				}
+				for(int i = 0; i < mapNames.size(); ++ i) {
+					
+					System.out.printf("Tilemap %s: parsed in %.2f ms\n", 
+							mapNames.get(i), mapTimes[i]);
+				}
+				System.out.printf("Atlas: packed in %.2f ms, %d pages uploaded in %.2f ms\n",
+						packTime, atlas.getPageCount(), uploadTime);
+				System.out.printf("Assets loaded in %.2f ms\n", millisSince(start));
+			}
+		}
+		finally {
+			
+			pool.shutdownNow();
+		}
 	}
 	
 	
 	/**
-	 * Get a bitmap by name
-	 * @param name Bitmap name
-	 * @return Bitmap, null if does not exist
+	 * Make sure a buffer has enough data left
+	 * @param buf Buffer
+	 * @param length Amount of bytes needed
+	 * @throws IOException If the length is negative or
+	 * goes past the end of the buffer
 	 */
-	public Bitmap getBitmap(String name) {
+	static private void require(ByteBuffer buf, long length) throws IOException {
+		
+		if(length < 0 || length > buf.remaining())
+			throw new IOException("Asset bundle is truncated or corrupt");
+	}
+	
+	
+	/**
+	 * Read an index and check it is in range
+	 * @param buf Buffer
+	 * @param size Amount of items indexed
+	 * @return Index
+	 * @throws IOException If the index is out of range
+	 */
+	static private int getIndex(ByteBuffer buf, int size) throws IOException {
+		
+		int i = buf.getInt();
+		if(i < 0 || i >= size)
+			throw new IOException("Asset bundle has an invalid index " + i);
 		
-		for(Asset<Bitmap> b : bitmaps) {
+		return i;
+	}
+	
+	
+	/**
+	 * Get a part of a buffer and move past it
+	 * @param buf Buffer
+	 * @param length Part length in bytes
+	 * @return The part
+	 * @throws IOException If the buffer is too short
+	 */
+	static private ByteBuffer take(ByteBuffer buf, long length) throws IOException {
+		
+		require(buf, length);
+		
+		ByteBuffer part = buf.slice();
+		part.limit((int)length);
+		buf.position(buf.position() + (int)length);
+		
+		return part;
+	}
+	
+	
+	/**
+	 * Load assets from a bundle created by AssetBundleWriter.
+	 * The file is memory-mapped and the pixel data is passed
+	 * to GL straight from the mapping. The whole bundle is
+	 * checked before any textures are created or any assets
+	 * added, so an invalid bundle leaves nothing behind
+	 * @param path Bundle file path
+	 * @param xmlPath The asset file the bundle was made from
+	 * @throws IOException If the file cannot be read, is not 
+	 * a valid bundle or is older than the asset files
+	 * @throws Exception If the asset files cannot be read
+	 */
+	public void loadBundle(String path, String xmlPath) throws Exception {
+		
+		long start = System.nanoTime();
+		
+		// Map the file
+		ByteBuffer buf;
+		FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+		try {
+			
+			buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		finally {
+			
+			channel.close();
+		}
+		buf.order(ByteOrder.LITTLE_ENDIAN);
+		
+		int maxSize = Renderer.backend().getMaxTextureSize();
+		
+		int pageCount, bmpCount;
+		int[] pageSizes;
+		ByteBuffer[] pagePixels;
+		String[] bmpNames;
+		int[] regions;
+		ByteBuffer[] bmpPixels;
+		List< Asset<Tilemap> > maps;
+		try {
 			
-			if(b.getName().equals(name)) {
+			if(buf.getInt() != AssetBundleWriter.MAGIC || 
+			   buf.getInt() != AssetBundleWriter.VERSION) {
 				
-				return b.getAsset();
+				throw new IOException("Not a supported asset bundle: " + path);
 			}
+			
+			// Check that the bundle was made from the current files,
+			// otherwise edited files would be silently ignored
+			long hash = (buf.getInt() & 0xFFFFFFFFL) | ((long)buf.getInt() << 32);
+			if(hash != AssetBundleWriter.getSourceHash(xmlPath))
+				throw new IOException(path + " is out of date");
+			
+			// Read the string table
+			int count = buf.getInt();
+			require(buf, count * 4L);
+			String[] strings = new String[count];
+			int length;
+			for(int i = 0; i < strings.length; ++ i) {
+				
+				// Strings are padded to 4 bytes
+				length = buf.getInt();
+				require(buf, (length + 3L) & ~3L);
+				
+				strings[i] = StandardCharsets.UTF_8.decode(take(buf, length)).toString();
+				buf.position((buf.position() + 3) & ~3);
+			}
+			
+			// Read pages
+			int w, h;
+			pageCount = buf.getInt();
+			require(buf, pageCount * 8L);
+			pageSizes = new int[pageCount * 2];
+			pagePixels = new ByteBuffer[pageCount];
+			for(int i = 0; i < pageCount; ++ i) {
+				
+				w = buf.getInt();
+				h = buf.getInt();
+				if(w > maxSize || h > maxSize)
+					throw new IOException("Asset bundle pages are too large for this device");
+				if(w < 0 || h < 0)
+					throw new IOException("Asset bundle has an invalid page size");
+				
+				pageSizes[i*2] = w;
+				pageSizes[i*2 + 1] = h;
+				pagePixels[i] = take(buf, (long)w*h*4);
+			}
+			
+			// Read bitmaps, as page, x, y, width and height
+			bmpCount = buf.getInt();
+			require(buf, bmpCount * 24L);
+			bmpNames = new String[bmpCount];
+			regions = new int[bmpCount * 5];
+			bmpPixels = new ByteBuffer[bmpCount];
+			int page, x, y;
+			for(int i = 0; i < bmpCount; ++ i) {
+				
+				bmpNames[i] = strings[getIndex(buf, strings.length)];
+				page = buf.getInt();
+				x = buf.getInt();
+				y = buf.getInt();
+				w = buf.getInt();
+				h = buf.getInt();
+				if(page < -1 || page >= pageCount || x < 0 || y < 0 || w < 0 || h < 0 ||
+				   (page >= 0 && ((long)x + w > pageSizes[page*2] || (long)y + h > pageSizes[page*2 + 1]))) {
+					
+					throw new IOException("Asset bundle has an invalid region for " + bmpNames[i]);
+				}
+				
+				regions[i*5] = page;
+				regions[i*5 + 1] = x;
+				regions[i*5 + 2] = y;
+				regions[i*5 + 3] = w;
+				regions[i*5 + 4] = h;
+				
+				// Did not fit to a page
+				if(page < 0)
+					bmpPixels[i] = take(buf, (long)w*h*4);
+			}
+			
+			// Read tilemaps
+			count = buf.getInt();
+			require(buf, count * 20L);
+			maps = new ArrayList< Asset<Tilemap> > (count);
+			String name;
+			List<StringPair> properties;
+			List<int[]> layers;
+			int[] layer;
+			int n;
+			for(int i = 0; i < count; ++ i) {
+				
+				name = strings[getIndex(buf, strings.length)];
+				w = buf.getInt();
+				h = buf.getInt();
+				if(w < 0 || h < 0)
+					throw new IOException("Asset bundle has an invalid size for " + name);
+				
+				n = buf.getInt();
+				require(buf, n * 8L);
+				properties = new ArrayList<StringPair> (n);
+				for(int j = 0; j < n; ++ j) {
+					
+					properties.add(new StringPair(strings[getIndex(buf, strings.length)], 
+							strings[getIndex(buf, strings.length)]));
+				}
+				
+				n = buf.getInt();
+				require(buf, n * ((long)w*h*4));
+				layers = new ArrayList<int[]> (n);
+				for(int j = 0; j < n; ++ j) {
+					
+					layer = new int[w*h];
+					buf.asIntBuffer().get(layer);
+					buf.position(buf.position() + layer.length*4);
+					layers.add(layer);
+				}
+				
+				maps.add(new Asset<Tilemap> (new Tilemap(w, h, layers, properties), name));
+			}
+		}
+		catch(BufferUnderflowException e) {
+			
+			throw new IOException("Asset bundle is truncated or corrupt");
+		}
+		
+		// Create pages
+		Bitmap[] pages = new Bitmap[pageCount];
+		for(int i = 0; i < pageCount; ++ i) {
+			
+			pages[i] = new Bitmap(pagePixels[i], pageSizes[i*2], pageSizes[i*2 + 1]);
 		}
-		return null;
+		
+		// Create bitmaps
+		int page;
+		for(int i = 0; i < bmpCount; ++ i) {
+			
+			page = regions[i*5];
+			addBitmap(page < 0 ? 
+					new Bitmap(bmpPixels[i], regions[i*5 + 3], regions[i*5 + 4]) : 
+					new Bitmap(pages[page], regions[i*5 + 1], regions[i*5 + 2], 
+							regions[i*5 + 3], regions[i*5 + 4]), bmpNames[i]);
+		}
+		for(Asset<Tilemap> map : maps) {
+			
+			addTilemap(map.getAsset(), map.getName());
+		}
+		
+		if(reportTimings) {
+			
+			System.out.printf("Assets loaded from %s in %.2f ms\n", path, millisSince(start));
+		}
+	}
+	
+	
+	/**
+	 * Get a bitmap handle by name
+	 * @param name Bitmap name
+	 * @return Handle, null if does not exist
+	 */
+	public AssetHandle<Bitmap> getBitmapHandle(String name) {
+		
+		Integer id = bitmapIDs.get(name);
+		return id == null ? null : new AssetHandle<Bitmap> (id, name);
+	}
+	
+	
+	/**
+	 * Get a tilemap handle by name
+	 * @param name Tilemap name
+	 * @return Handle, null if does not exist
+	 */
+	public AssetHandle<Tilemap> getTilemapHandle(String name) {
+		
+		Integer id = tilemapIDs.get(name);
+		return id == null ? null : new AssetHandle<Tilemap> (id, name);
+	}
+	
+	
+	/**
+	 * Get a bitmap
+	 * @param handle Bitmap handle
+	 * @return Bitmap
+	 */
+	public Bitmap getBitmap(AssetHandle<Bitmap> handle) {
+		
+		return bitmaps.get(handle.getIndex()).getAsset();
+	}
+	
+	
+	/**
+	 * Get a tilemap
+	 * @param handle Tilemap handle
+	 * @return Tilemap
+	 */
+	public Tilemap getTilemap(AssetHandle<Tilemap> handle) {
+		
+		return tilemaps.get(handle.getIndex()).getAsset();
+	}
+	
+	
+	/**
+	 * Get a bitmap by name
+	 * @param name Bitmap name
+	 * @return Bitmap, null if does not exist
+	 */
+	public Bitmap getBitmap(String name) {
+		
+		Integer id = bitmapIDs.get(name);
+		return id == null ? null : bitmaps.get(id).getAsset();
 	}
 
 
@@ -99,13 +611,7 @@ public class AssetPack {
 	 */
 	public Tilemap getTilemap(String name) {
 		
-		for(Asset<Tilemap> b : tilemaps) {
-			
-			if(b.getName().equals(name)) {
-				
-				return b.getAsset();
-			}
-		}
-		return null;
+		Integer id = tilemapIDs.get(name);
+		return id == null ? null : tilemaps.get(id).getAsset();
 	}
 }
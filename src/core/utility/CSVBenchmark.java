@@ -0,0 +1,146 @@
+package core.utility;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares CSVParser to the split and parseInt based
+ * decoding it replaced, on a generated layer in the
+ * format Tiled writes:
+ * CSVBenchmark [layer size] [rounds]
+ * @author Jani Nykänen
+ *
+ */
+public class CSVBenchmark {
+
+	/** Rounds run before measuring, so the JIT has
+	 *  compiled every path */
+	static private final int WARMUP_ROUNDS = 10;
+	
+	
+	/**
+	 * Convert CSV data the way CSVParser used to
+	 * @param data String data
+	 * @return Integer array
+	 */
+	static private int[] parseOld(String data) {
+		
+		// Remove whitespaces
+		data = data.replaceAll("\\s+","");
+		
+		// Split to an array of string
+		String[] dataArr = data.split(",");
+		// Convert to integers and put to an array
+		int[] ret = new int[dataArr.length];
+		for(int i = 0; i < dataArr.length; ++ i) {
+			
+			ret[i] = Integer.parseInt(dataArr[i]);
+		}
+		return ret;
+	}
+	
+	
+	/**
+	 * Generate layer data, one row per line
+	 * @param size Width and height
+	 * @return Data
+	 */
+	static private String generate(int size) {
+		
+		Random rnd = new Random(0);
+		StringBuilder sb = new StringBuilder();
+		for(int y = 0; y < size; ++ y) {
+			
+			sb.append('\n');
+			for(int x = 0; x < size; ++ x) {
+				
+				sb.append(rnd.nextInt(256));
+				if(x < size-1 || y < size-1)
+					sb.append(',');
+			}
+		}
+		sb.append('\n');
+		
+		return sb.toString();
+	}
+	
+	
+	/**
+	 * Run the benchmark
+	 * @param args Layer width and height, and the amount of rounds
+	 */
+	static public void main(String[] args) {
+		
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		
+		String data = generate(size);
+		char[] chars = data.toCharArray();
+		byte[] bytes = data.getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer buf = ByteBuffer.allocateDirect(bytes.length);
+		buf.put(bytes);
+		
+		CSVParser csv = new CSVParser();
+		int[] layer = new int[size * size];
+		
+		// Every path must give the same values
+		int[] expected = parseOld(data);
+		if(!Arrays.equals(expected, csv.parseInt(data)))
+			throw new RuntimeException("String input disagrees");
+			
+		csv.begin(layer);
+		csv.parse(chars, 0, chars.length);
+		if(csv.end() != layer.length || !Arrays.equals(expected, layer))
+			throw new RuntimeException("char[] input disagrees");
+			
+		csv.begin(layer);
+		buf.rewind();
+		csv.parse(buf);
+		if(csv.end() != layer.length || !Arrays.equals(expected, layer))
+			throw new RuntimeException("ByteBuffer input disagrees");
+			
+		// Old, String, char[] and ByteBuffer
+		long[] times = new long[4];
+		long t;
+		int sink = 0;
+		for(int i = 0; i < WARMUP_ROUNDS + rounds; ++ i) {
+			
+			if(i == WARMUP_ROUNDS)
+				Arrays.fill(times, 0);
+				
+			t = System.nanoTime();
+			sink += parseOld(data)[0];
+			times[0] += System.nanoTime() - t;
+			
+			t = System.nanoTime();
+			sink += csv.parseInt(data)[0];
+			times[1] += System.nanoTime() - t;
+			
+			t = System.nanoTime();
+			csv.begin(layer);
+			csv.parse(chars, 0, chars.length);
+			sink += csv.end();
+			times[2] += System.nanoTime() - t;
+			
+			t = System.nanoTime();
+			csv.begin(layer);
+			buf.rewind();
+			csv.parse(buf);
+			sink += csv.end();
+			times[3] += System.nanoTime() - t;
+		}
+		
+		// Using the results keeps the JIT from dropping the work
+		if(sink == 0)
+			throw new RuntimeException("No values read");
+			
+		System.out.printf("%dx%d layer, %d characters, %d rounds\n",
+				size, size, data.length(), rounds);
+		System.out.printf("split/parseInt: %.2f ms\n", times[0] / 1000000.0 / rounds);
+		System.out.printf("String:         %.2f ms\n", times[1] / 1000000.0 / rounds);
+		System.out.printf("char[]:         %.2f ms\n", times[2] / 1000000.0 / rounds);
+		System.out.printf("ByteBuffer:     %.2f ms\n", times[3] / 1000000.0 / rounds);
+	}
+}
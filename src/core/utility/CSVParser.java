@@ -1,31 +1,257 @@
 package core.utility;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Decodes comma-separated integers in a single pass,
+ * skipping whitespace on the way. The data can be
+ * given in several parts (e.g. as it is read), values
+ * may continue from a part to the next one
+ * @author Jani Nykänen
+ *
+ */
 public class CSVParser {
 
+	/** Output array */
+	private int[] output;
+	/** Amount of values written */
+	private int count;
+	/** Can the output array be grown */
+	private boolean growable;
+	
+	/** Value being parsed */
+	private long value;
+	/** Has the value any digits yet */
+	private boolean hasDigits;
+	/** Is the value negative */
+	private boolean negative;
+	/** Has the value ended, i.e. only a comma
+	 *  or whitespace may follow */
+	private boolean ended;
+	
+	/** Amount of characters read, for error messages */
+	private long position;
+	
+	
+	/**
+	 * Throw an error about malformed data
+	 * @param message Message
+	 */
+	private void fail(String message) {
+		
+		throw new NumberFormatException(message + " at position " + position);
+	}
+	
+	
+	/**
+	 * Store the value being parsed
+	 */
+	private void storeValue() {
+		
+		if(count >= output.length) {
+			
+			if(!growable)
+				fail("Too many values for the output");
+				
+			output = Arrays.copyOf(output, Math.max(16, output.length * 2));
+		}
+		output[count ++] = (int)(negative ? -value : value);
+		
+		value = 0;
+		hasDigits = false;
+		negative = false;
+		ended = false;
+	}
+	
+	
+	/**
+	 * Handle a character
+	 * @param c Character
+	 */
+	private void accept(int c) {
+		
+		// Values may be unsigned 32-bit integers, e.g.
+		// Tiled stores tile flipping to the upper bits,
+		// but negative values must fit to an int
+		final long MAX_VALUE = 0xFFFFFFFFL;
+		final long MAX_NEGATIVE = 0x80000000L;
+		
+		if(c >= '0' && c <= '9') {
+			
+			if(ended)
+				fail("Expected a comma");
+				
+			value = value * 10 + (c - '0');
+			if(value > (negative ? MAX_NEGATIVE : MAX_VALUE))
+				fail("Value out of range");
+				
+			hasDigits = true;
+		}
+		else if(c == ',') {
+			
+			if(!hasDigits)
+				fail("Empty value");
+				
+			storeValue();
+		}
+		else if(c == '-') {
+			
+			if(hasDigits || negative || ended)
+				fail("Unexpected minus sign");
+				
+			negative = true;
+		}
+		else if(c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+			
+			// Whitespace ends a value
+			if(hasDigits)
+				ended = true;
+			else if(negative)
+				fail("Unexpected whitespace");
+		}
+		else {
+			
+			fail("Unexpected character '" + (char)c + "'");
+		}
+		++ position;
+	}
+	
+	
 	/**
 	 * Constructor
 	 */
-	public CSVParser() { /* ... */}
+	public CSVParser() {
+		
+		output = new int[0];
+	}
+	
+	
+	/**
+	 * Start parsing to a caller-supplied array
+	 * @param output Output array
+	 */
+	public void begin(int[] output) {
+		
+		this.output = output;
+		growable = false;
+		
+		count = 0;
+		value = 0;
+		hasDigits = false;
+		negative = false;
+		ended = false;
+		position = 0;
+	}
+	
+	
+	/**
+	 * Parse a part of the data
+	 * @param chars Characters
+	 * @param start Start index
+	 * @param length Amount of characters
+	 * @throws NumberFormatException If the data is
+	 * malformed or does not fit to the output
+	 */
+	public void parse(char[] chars, int start, int length) {
+		
+		for(int i = start; i < start + length; ++ i) {
+			
+			accept(chars[i]);
+		}
+	}
+	
+	
+	/**
+	 * Parse a part of the data
+	 * @param data Data
+	 * @throws NumberFormatException If the data is
+	 * malformed or does not fit to the output
+	 */
+	public void parse(CharSequence data) {
+		
+		for(int i = 0; i < data.length(); ++ i) {
+			
+			accept(data.charAt(i));
+		}
+	}
+	
+	
+	/**
+	 * Parse a part of the data, given as ASCII bytes
+	 * between the position and the limit of a buffer.
+	 * The buffer position is moved to the limit
+	 * @param data Data
+	 * @throws NumberFormatException If the data is
+	 * malformed or does not fit to the output
+	 */
+	public void parse(ByteBuffer data) {
+		
+		while(data.hasRemaining()) {
+			
+			accept(data.get());
+		}
+	}
+	
+	
+	/**
+	 * Finish parsing
+	 * @return Amount of values written to the output
+	 * @throws NumberFormatException If the data ended
+	 * in the middle of a value
+	 */
+	public int end() {
+		
+		// The last value has no comma after it,
+		// a trailing comma is allowed
+		if(hasDigits)
+			storeValue();
+			
+		else if(negative)
+			fail("Unexpected end of data");
+			
+		return count;
+	}
+	
+	
+	/**
+	 * Convert CSV data to integers
+	 * @param data Data
+	 * @param output Output array
+	 * @return Amount of values written
+	 * @throws NumberFormatException If the data is
+	 * malformed or does not fit to the output
+	 */
+	public int parseInt(CharSequence data, int[] output) {
+		
+		begin(output);
+		parse(data);
+		return end();
+	}
 	
 	
 	/**
 	 * Convert CSV string to an array of integers
-	 * @param data Śtring data
+	 * @param data String data
 	 * @return Integer array
+	 * @throws NumberFormatException If the data is malformed
 	 */
-	public int[] parseInt(String data) {
-		
-		// Remove whitespaces
-		data = data.replaceAll("\\s+","");
+	public int[] parseInt(CharSequence data) {
 		
-		// Split to an array of string
-		String[] dataArr = data.split(",");
-		// Convert to integers and put to an array
-		int[] ret = new int[dataArr.length];
-		for(int i = 0; i < dataArr.length; ++ i) {
+		// Presize by the amount of separators, so
+		// the array does not need to be grown
+		int size = 1;
+		for(int i = 0; i < data.length(); ++ i) {
 			
-			ret[i] = Integer.parseInt(dataArr[i]);
+			if(data.charAt(i) == ',')
+				++ size;
 		}
-		return ret;
+		
+		begin(new int[size]);
+		growable = true;
+		parse(data);
+		end();
+		
+		return count == output.length ? output : Arrays.copyOf(output, count);
 	}
 }
@@ -0,0 +1,162 @@
+package core.utility;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Compares the streaming tilemap reader (TMXReader) to
+ * building a DOM with XMLParser, the way tilemaps were
+ * read before. Run with the resource folder in the
+ * class path:
+ * TMXBenchmark [asset file] [rounds]
+ * @author Jani Nykänen
+ *
+ */
+public class TMXBenchmark {
+
+	/** Rounds run before measuring, so the JIT has
+	 *  compiled both paths */
+	static private final int WARMUP_ROUNDS = 20;
+	
+	
+	/**
+	 * Read a tilemap by building a DOM
+	 * @param path File path
+	 * @return Layers
+	 * @throws Exception If something goes wrong
+	 */
+	static private List<int[]> readDOM(String path) throws Exception {
+		
+		XMLParser parser = new XMLParser(path);
+		parser.readyRoot();
+		
+		// Dimensions, unused but parsed as before
+		Integer.parseInt(parser.getRootAttribute("width", "0"));
+		Integer.parseInt(parser.getRootAttribute("height", "0"));
+		
+		Element root = parser.getRoot();
+		
+		// Properties
+		NodeList prop = root.getElementsByTagName("property");
+		List<StringPair> properties = new ArrayList<StringPair> ();
+		for(int i = 0; i < prop.getLength(); ++ i) {
+			
+			properties.add(new StringPair(
+					parser.getTextContent(prop.item(i), "name"),
+					parser.getTextContent(prop.item(i), "value")));
+		}
+		
+		// Layers
+		CSVParser csv = new CSVParser();
+		NodeList data = root.getElementsByTagName("data");
+		List<int[]> layers = new ArrayList<int[]> ();
+		for(int i = 0; i < data.getLength(); ++ i) {
+			
+			layers.add(csv.parseInt(data.item(i).getTextContent()));
+		}
+		
+		parser.close();
+		
+		return layers;
+	}
+	
+	
+	/**
+	 * Read every tilemap once with both readers
+	 * @param paths Tilemap paths
+	 * @param times Time taken by the DOM and the streaming
+	 * reader, in nanoseconds, added to the old values
+	 * @param bytes Bytes allocated by both readers, added
+	 * to the old values. Ignored if null
+	 * @throws Exception If something goes wrong
+	 */
+	static private void runRound(List<String> paths, long[] times, long[] bytes) throws Exception {
+		
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long id = Thread.currentThread().getId();
+		
+		long t = System.nanoTime();
+		long b = threads.getThreadAllocatedBytes(id);
+		for(String path : paths) {
+			
+			readDOM(path);
+		}
+		times[0] += System.nanoTime() - t;
+		if(bytes != null)
+			bytes[0] += threads.getThreadAllocatedBytes(id) - b;
+			
+		t = System.nanoTime();
+		b = threads.getThreadAllocatedBytes(id);
+		for(String path : paths) {
+			
+			new TMXReader(path);
+		}
+		times[1] += System.nanoTime() - t;
+		if(bytes != null)
+			bytes[1] += threads.getThreadAllocatedBytes(id) - b;
+	}
+	
+	
+	/**
+	 * Run the benchmark
+	 * @param args Asset file path and the amount of rounds
+	 * @throws Exception If something goes wrong
+	 */
+	static public void main(String[] args) throws Exception {
+		
+		String xmlPath = args.length > 0 ? args[0] : "assets/assets.xml";
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		
+		// Find tilemaps
+		XMLParser parser = new XMLParser(xmlPath);
+		parser.readyRoot();
+		String mapPath = parser.getRootAttribute("tilemap_path", "assets/bitmaps/");
+		List<String> paths = new ArrayList<String> ();
+		parser.readyNodeList("tilemap");
+		while(parser.getNextParam()) {
+			
+			paths.add(mapPath + parser.getTextContent("path"));
+		}
+		parser.close();
+		
+		// Both readers must give the same layers
+		List<int[]> dom, stream;
+		for(String path : paths) {
+			
+			dom = readDOM(path);
+			stream = new TMXReader(path).getLayers();
+			for(int i = 0; i < dom.size(); ++ i) {
+				
+				if(stream.size() != dom.size() || !Arrays.equals(dom.get(i), stream.get(i)))
+					throw new RuntimeException("The readers disagree on " + path);
+			}
+		}
+		
+		long[] times = new long[2];
+		long[] bytes = new long[2];
+		for(int i = 0; i < WARMUP_ROUNDS; ++ i) {
+			
+			runRound(paths, times, null);
+		}
+		times[0] = 0;
+		times[1] = 0;
+		for(int i = 0; i < rounds; ++ i) {
+			
+			runRound(paths, times, bytes);
+		}
+		
+		int count = rounds * paths.size();
+		System.out.printf("%d tilemaps, %d rounds\n", paths.size(), rounds);
+		System.out.printf("DOM:       %.3f ms, %d bytes per map\n",
+				times[0] / 1000000.0 / count, bytes[0] / count);
+		System.out.printf("Streaming: %.3f ms, %d bytes per map\n",
+				times[1] / 1000000.0 / count, bytes[1] / count);
+	}
+}
@@ -0,0 +1,317 @@
+package core.utility;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads a Tiled map file in a single pass, without
+ * building a document. Layer data is parsed straight
+ * to the final arrays, and can be CSV or base64,
+ * optionally zlib or gzip compressed. Layers stored
+ * as XML tile elements are not supported
+ * @author Jani Nykänen
+ *
+ */
+public class TMXReader {
+
+	/** Width */
+	private int width;
+	/** Height */
+	private int height;
+	/** Layers */
+	private List<int[]> layers;
+	/** Properties */
+	private List<StringPair> properties;
+	
+	/** CSV decoder */
+	private CSVParser csv;
+	
+	
+	/**
+	 * Get an integer attribute
+	 * @param reader Reader
+	 * @param name Attribute name
+	 * @param def Default value
+	 * @return Value, def if not given
+	 */
+	static private int getIntAttribute(XMLStreamReader reader, String name, int def) {
+		
+		String s = reader.getAttributeValue(null, name);
+		return s == null ? def : Integer.parseInt(s);
+	}
+	
+	
+	/**
+	 * Throw an error about the amount of layer data
+	 * @param name Layer name
+	 * @param count Amount of values
+	 * @param expected Expected amount of values
+	 * @throws IOException Always
+	 */
+	static private void failLength(String name, String count, int expected) throws IOException {
+		
+		throw new IOException("Layer \"" + name + "\" has " + count +
+				" values, expected " + expected);
+	}
+	
+	
+	/**
+	 * Parse base64 data
+	 * @param data Data
+	 * @param compression Compression, null if none
+	 * @param layer Output layer
+	 * @param name Layer name, for error messages
+	 * @throws IOException If the data is invalid or
+	 * does not fill the layer exactly
+	 */
+	private void parseBase64(String data, String compression, int[] layer, String name) throws IOException {
+		
+		byte[] bytes = Base64.getMimeDecoder().decode(data);
+		
+		InputStream in = new ByteArrayInputStream(bytes);
+		if(compression == null) {
+			
+			// Already uncompressed
+		}
+		else if(compression.equals("zlib")) {
+			
+			in = new InflaterInputStream(in);
+		}
+		else if(compression.equals("gzip")) {
+			
+			in = new GZIPInputStream(in);
+		}
+		else {
+			
+			throw new IOException("Unsupported layer compression: " + compression);
+		}
+		
+		// Every value is a little-endian 32-bit integer
+		byte[] buf = new byte[layer.length * 4];
+		int count = 0, n;
+		boolean trailing;
+		try {
+			
+			while(count < buf.length && (n = in.read(buf, count, buf.length - count)) > 0) {
+				
+				count += n;
+			}
+			trailing = in.read() >= 0;
+		}
+		catch(IOException e) {
+			
+			// E.g. a truncated compressed stream
+			throw new IOException("Invalid data in layer \"" + name + "\": " + e.getMessage());
+		}
+		finally {
+			
+			in.close();
+		}
+		
+		// A short stream would leave the rest of the layer empty
+		if(count < buf.length)
+			failLength(name, Integer.toString(count / 4), layer.length);
+			
+		if(trailing)
+			failLength(name, "more than " + layer.length, layer.length);
+			
+		for(int i = 0; i + 3 < count; i += 4) {
+			
+			layer[i/4] = (buf[i] & 0xFF) |
+					((buf[i+1] & 0xFF) << 8) |
+					((buf[i+2] & 0xFF) << 16) |
+					((buf[i+3] & 0xFF) << 24);
+		}
+	}
+	
+	
+	/**
+	 * Parse layer data
+	 * @param reader Reader, at the start of the data element
+	 * @param w Layer width
+	 * @param h Layer height
+	 * @param name Layer name, for error messages
+	 * @throws Exception If something goes wrong, e.g. the
+	 * data does not fill the layer exactly
+	 */
+	private void parseData(XMLStreamReader reader, int w, int h, String name) throws Exception {
+		
+		String encoding = reader.getAttributeValue(null, "encoding");
+		String compression = reader.getAttributeValue(null, "compression");
+		
+		int[] layer = new int[w * h];
+		
+		if(encoding == null) {
+			
+			// Tiled writes each tile as an element then
+			throw new IOException("Layer \"" + name + 
+					"\" is stored as XML tile elements, which are not supported");
+		}
+		else if(encoding.equals("csv")) {
+			
+			csv.begin(layer);
+			
+			int event;
+			int count;
+			try {
+				
+				while((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+					
+					if(event == XMLStreamConstants.CHARACTERS ||
+					   event == XMLStreamConstants.CDATA) {
+						
+						csv.parse(reader.getTextCharacters(),
+								reader.getTextStart(), reader.getTextLength());
+					}
+				}
+				count = csv.end();
+			}
+			catch(NumberFormatException e) {
+				
+				throw new IOException("Invalid data in layer \"" + name + "\": " + e.getMessage());
+			}
+			
+			if(count < layer.length)
+				failLength(name, Integer.toString(count), layer.length);
+		}
+		else if(encoding.equals("base64")) {
+			
+			parseBase64(reader.getElementText(), compression, layer, name);
+		}
+		else {
+			
+			throw new IOException("Unsupported layer encoding: " + encoding);
+		}
+		
+		layers.add(layer);
+	}
+	
+	
+	/**
+	 * Parse a map file
+	 * @param input Input
+	 * @throws Exception If something goes wrong
+	 */
+	private void parse(InputStream input) throws Exception {
+		
+		XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(input);
+		try {
+			
+			String name;
+			String propName, propValue;
+			int layerWidth = 0, layerHeight = 0;
+			String layerName = "";
+			while(reader.hasNext()) {
+				
+				if(reader.next() != XMLStreamConstants.START_ELEMENT)
+					continue;
+					
+				name = reader.getLocalName();
+				if(name.equals("map")) {
+					
+					width = getIntAttribute(reader, "width", 0);
+					height = getIntAttribute(reader, "height", 0);
+				}
+				else if(name.equals("property")) {
+					
+					// Multi-line values are stored as text
+					propName = reader.getAttributeValue(null, "name");
+					propValue = reader.getAttributeValue(null, "value");
+					if(propValue == null)
+						propValue = reader.getElementText();
+						
+					properties.add(new StringPair(propName, propValue));
+				}
+				else if(name.equals("layer")) {
+					
+					layerWidth = getIntAttribute(reader, "width", width);
+					layerHeight = getIntAttribute(reader, "height", height);
+					layerName = reader.getAttributeValue(null, "name");
+				}
+				else if(name.equals("data")) {
+					
+					parseData(reader, layerWidth, layerHeight, layerName);
+				}
+			}
+		}
+		catch(XMLStreamException e) {
+			
+			throw new IOException("Invalid map file: " + e.getMessage(), e);
+		}
+		finally {
+			
+			reader.close();
+			input.close();
+		}
+	}
+	
+	
+	/**
+	 * Read a map file
+	 * @param path File path
+	 * @throws Exception If something goes wrong
+	 */
+	public TMXReader(String path) throws Exception {
+		
+		InputStream input = this.getClass().getClassLoader().getResourceAsStream(path);
+		if(input == null)
+			throw new IOException("Could not find " + path);
+			
+		layers = new ArrayList<int[]> ();
+		properties = new ArrayList<StringPair> ();
+		csv = new CSVParser();
+		
+		parse(input);
+	}
+	
+	
+	/**
+	 * Get width
+	 * @return Width
+	 */
+	public int getWidth() {
+		
+		return width;
+	}
+	
+	
+	/**
+	 * Get height
+	 * @return Height
+	 */
+	public int getHeight() {
+		
+		return height;
+	}
+	
+	
+	/**
+	 * Get the layers
+	 * @return Layers
+	 */
+	public List<int[]> getLayers() {
+		
+		return layers;
+	}
+	
+	
+	/**
+	 * Get the properties
+	 * @return Properties
+	 */
+	public List<StringPair> getProperties() {
+		
+		return properties;
+	}
+}
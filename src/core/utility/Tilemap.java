@@ -1,12 +1,7 @@
 package core.utility;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-
 /**
  * A multilayer tilemap
  * @author Jani Nykänen
@@ -24,28 +19,6 @@ public class Tilemap {
 	private List<StringPair> properties;
 	
 	
-	/**
-	 * Parse properties
-	 */
-	private void parseProperties(XMLParser parser, NodeList prop) {
-	
-		if(prop == null) return;
-		
-		Node n;
-		String name, value;
-		for(int i = 0; i < prop.getLength(); ++ i) {
-			
-			n = prop.item(i);
-			
-			name = parser.getTextContent(n, "name");
-			value = parser.getTextContent(n, "value");
-			
-			properties.add(new StringPair(name, value));
-
-		}
-	}
-	
-	
 	/**
 	 * Construct a tilemap by parsing
 	 * Tiled-map file
@@ -54,40 +27,34 @@ public class Tilemap {
 	 */
 	public Tilemap(String path) throws Exception {
 		
-		// Initialize
-		data = new ArrayList<int[]> ();
-		properties = new ArrayList<StringPair> ();
- 		
-		// Open file
-		XMLParser parser = new XMLParser(path);
-		parser.readyRoot();
-		
-		// Read dimensions
-		width = Integer.parseInt(parser.getRootAttribute("width", "0"));
-		height = Integer.parseInt(parser.getRootAttribute("height", "0"));
-		
-		// From now on, we partially abandon XMLParser utility and do things
-		// manually
-		Element root = parser.getRoot();
-		
-		// Find name property
-		NodeList prop = root.getElementsByTagName("property");
-		parseProperties(parser, prop);
-		
-		// Create CSV parser
-		CSVParser csv = new CSVParser();
+		this(new TMXReader(path));
+	}
+	
+	
+	/**
+	 * Construct a tilemap from a read map file
+	 * @param reader Reader
+	 */
+	private Tilemap(TMXReader reader) {
 		
-		// Find layers
-		NodeList layers = root.getElementsByTagName("data");
-		String CSVdata = "";
-		for(int i = 0; i < layers.getLength(); ++ i) {
-			
-			CSVdata = layers.item(i).getTextContent();
-			data.add(csv.parseInt(CSVdata));
-		}
+		this(reader.getWidth(), reader.getHeight(), 
+				reader.getLayers(), reader.getProperties());
+	}
+	
+	
+	/**
+	 * Construct a tilemap from already parsed data
+	 * @param width Width
+	 * @param height Height
+	 * @param layers Layers
+	 * @param properties Properties
+	 */
+	public Tilemap(int width, int height, List<int[]> layers, List<StringPair> properties) {
 		
-		// Close
-		parser.close();
+		this.width = width;
+		this.height = height;
+		this.data = layers;
+		this.properties = properties;
 	}
 	
 	
@@ -162,6 +129,26 @@ public class Tilemap {
 	}
 	
 	
+	/**
+	 * Get the amount of layers
+	 * @return Layer count
+	 */
+	public int getLayerCount() {
+		
+		return data.size();
+	}
+	
+	
+	/**
+	 * Get the properties
+	 * @return Properties
+	 */
+	public List<StringPair> getProperties() {
+		
+		return properties;
+	}
+	
+	
 	/**
 	 * Get a copy of a layer
 	 * @param index Layer index